@@ -30,10 +30,12 @@ import org.brandao.brutos.annotation.Stereotype;
 import org.brandao.brutos.annotation.configuration.ActionAnnotationConfig;
 import org.brandao.brutos.annotation.configuration.ActionEntry;
 import org.brandao.brutos.annotation.configuration.ThrowableEntry;
+import org.brandao.brutos.annotation.web.AsyncTimeout;
 import org.brandao.brutos.annotation.web.ResponseError;
 import org.brandao.brutos.annotation.web.ResponseErrors;
 import org.brandao.brutos.mapping.MappingException;
 import org.brandao.brutos.mapping.StringUtil;
+import org.brandao.brutos.web.AsyncExecutorType;
 import org.brandao.brutos.web.RequestMethodType;
 import org.brandao.brutos.web.WebActionBuilder;
 import org.brandao.brutos.web.WebControllerBuilder;
@@ -64,6 +66,9 @@ public class WebActionAnnotationConfig
 		DataType[] requestTypes                = actionConfig.getRequestTypes();
 		DataType[] responseTypes               = actionConfig.getResponseTypes();
 		int responseStatus                     = actionConfig.getResponseStatus();
+		AsyncExecutorType asyncExecutor        = actionConfig.getAsyncExecutor();
+		String asyncPriority                   = actionConfig.getAsyncPriority();
+		AsyncTimeout asyncTimeout              = actionConfig.getAsyncTimeout();
 		DispatcherType dispatcher              = actionConfig.getDispatcherType();
 
 		//validtion
@@ -103,6 +108,19 @@ public class WebActionAnnotationConfig
 			actionBuilder.setResponseStatus(responseStatus);
 		}
 		
+		if(asyncExecutor != null){
+			actionBuilder.setAsyncExecutor(asyncExecutor);
+		}
+		
+		if(asyncPriority != null){
+			actionBuilder.setAsyncPriority(asyncPriority);
+		}
+		
+		if(asyncTimeout != null){
+			actionBuilder.setAsyncTimeout(asyncTimeout.value());
+			actionBuilder.setAsyncTimeoutStatus(asyncTimeout.status());
+		}
+		
 		String[] actionAlias = actionConfig.getAliasName();
 		RequestMethodType[] requestMethodTypeAlias = actionConfig.getRequestMethodTypeAlias();
 		
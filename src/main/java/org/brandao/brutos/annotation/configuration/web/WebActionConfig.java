@@ -28,9 +28,13 @@ import org.brandao.brutos.annotation.ResponseType;
 import org.brandao.brutos.annotation.View;
 import org.brandao.brutos.annotation.configuration.ActionConfig;
 import org.brandao.brutos.annotation.configuration.ActionEntry;
+import org.brandao.brutos.annotation.web.AsyncExecutor;
+import org.brandao.brutos.annotation.web.AsyncPriority;
+import org.brandao.brutos.annotation.web.AsyncTimeout;
 import org.brandao.brutos.annotation.web.RequestMethod;
 import org.brandao.brutos.annotation.web.ResponseStatus;
 import org.brandao.brutos.mapping.StringUtil;
+import org.brandao.brutos.web.AsyncExecutorType;
 import org.brandao.brutos.web.MediaType;
 import org.brandao.brutos.web.RequestMethodType;
 import org.brandao.brutos.web.WebDispatcherType;
@@ -109,6 +113,33 @@ public class WebActionConfig extends ActionConfig{
 		return responseStatus == null? 0 : responseStatus.value();
 	}
 	
+	public AsyncExecutorType getAsyncExecutor(){
+		AsyncExecutor asyncExecutor = actionEntry.getAnnotation(AsyncExecutor.class);
+		
+		if(asyncExecutor == null){
+			return null;
+		}
+		
+		AsyncExecutorType type = AsyncExecutorType.valueOf(StringUtil.adjust(asyncExecutor.value()));
+		
+		if(type == null){
+			throw new BrutosException("invalid async executor: "
+					+ actionEntry.getControllerClass().getName() + "."
+					+ actionEntry.getName());
+		}
+		
+		return type;
+	}
+	
+	public String getAsyncPriority(){
+		AsyncPriority asyncPriority = actionEntry.getAnnotation(AsyncPriority.class);
+		return asyncPriority == null? null : StringUtil.adjust(asyncPriority.value());
+	}
+	
+	public AsyncTimeout getAsyncTimeout(){
+		return actionEntry.getAnnotation(AsyncTimeout.class);
+	}
+	
 	public RequestMethodType[] getRequestMethodTypeAlias(){
 		
 		RequestMethod requestMethod = 
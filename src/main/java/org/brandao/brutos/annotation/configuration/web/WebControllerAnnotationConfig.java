@@ -15,11 +15,15 @@ import org.brandao.brutos.annotation.Stereotype;
 import org.brandao.brutos.annotation.View;
 import org.brandao.brutos.annotation.configuration.ControllerAnnotationConfig;
 import org.brandao.brutos.annotation.configuration.ThrowableEntry;
+import org.brandao.brutos.annotation.web.AsyncExecutor;
+import org.brandao.brutos.annotation.web.AsyncPriority;
+import org.brandao.brutos.annotation.web.AsyncTimeout;
 import org.brandao.brutos.annotation.web.RequestMethod;
 import org.brandao.brutos.annotation.web.ResponseError;
 import org.brandao.brutos.annotation.web.ResponseErrors;
 import org.brandao.brutos.annotation.web.ResponseStatus;
 import org.brandao.brutos.mapping.StringUtil;
+import org.brandao.brutos.web.AsyncExecutorType;
 import org.brandao.brutos.web.MediaType;
 import org.brandao.brutos.web.RequestMethodType;
 import org.brandao.brutos.web.WebActionType;
@@ -51,6 +55,9 @@ public class WebControllerAnnotationConfig
 		ActionType actionType               = strategy == null ? null : WebActionType.valueOf(strategy.value());
 		
 		ResponseStatus responseStatus       = source.getAnnotation(ResponseStatus.class);
+		AsyncExecutor asyncExecutor         = source.getAnnotation(AsyncExecutor.class);
+		AsyncPriority asyncPriority         = source.getAnnotation(AsyncPriority.class);
+		AsyncTimeout asyncTimeout           = source.getAnnotation(AsyncTimeout.class);
 		boolean resolved                    = viewAnnotation == null ? false : viewAnnotation.resolved();
 		boolean rendered                    = viewAnnotation == null ? true : viewAnnotation.rendered();
 		
@@ -122,6 +129,28 @@ public class WebControllerAnnotationConfig
 			builder.setResponseStatus(responseStatus.value());
 		}
 		
+		if(asyncExecutor != null){
+			AsyncExecutorType type = 
+					AsyncExecutorType.valueOf(StringUtil.adjust(asyncExecutor.value()));
+			
+			if (type == null){
+				throw new BrutosException("invalid async executor: "
+						+ source.getName());
+			}
+			
+			builder.setAsyncExecutor(type);
+			builder.setAsyncExecutorThreads(asyncExecutor.threads());
+		}
+		
+		if(asyncPriority != null){
+			builder.setAsyncPriority(asyncPriority.value());
+		}
+		
+		if(asyncTimeout != null){
+			builder.setAsyncTimeout(asyncTimeout.value());
+			builder.setAsyncTimeoutStatus(asyncTimeout.status());
+		}
+		
 		if(builder.getId() != null && requestMethodTypes != null){
 			for(int k = 1; k < requestMethodTypes.length; k++){
 				RequestMethodType rmt = 
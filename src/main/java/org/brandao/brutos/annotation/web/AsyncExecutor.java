@@ -0,0 +1,50 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.annotation.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Define o executor das ações que retornam resultados assíncronos
+ * ({@link java.util.concurrent.Future}, {@link java.util.concurrent.Callable}
+ * ou <code>CompletionStage</code>).
+ * 
+ * @author Brandao
+ *
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncExecutor {
+
+	/**
+	 * Tipo do executor: <code>container</code>, <code>shared</code>, 
+	 * <code>controller</code> ou <code>virtual</code>.
+	 */
+	String value();
+	
+	/**
+	 * Número de threads do executor exclusivo do controlador. Somente é
+	 * usado no controlador. Se não informado, é usado o valor da 
+	 * configuração da aplicação.
+	 */
+	int threads() default 0;
+	
+}
@@ -0,0 +1,48 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.annotation.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Define o prazo das ações que retornam resultados assíncronos. Quando o 
+ * prazo termina, a requisição é encerrada com o status informado, a tarefa 
+ * é cancelada e a vista não é exibida.
+ * 
+ * @author Brandao
+ *
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncTimeout {
+
+	/**
+	 * Prazo em milissegundos.
+	 */
+	long value();
+	
+	/**
+	 * Status da resposta quando o prazo termina. Se não informado, é usado
+	 * o valor da configuração da aplicação.
+	 */
+	int status() default 0;
+	
+}
@@ -30,6 +30,8 @@ public interface MediaTypes {
 
 	static final String APPLICATION_JSON 					= "application/json";
 
+	static final String APPLICATION_X_NDJSON 				= "application/x-ndjson";
+
 	static final String APPLICATION_OCTET_STREAM 			= "application/octet-stream";
 
 	static final String APPLICATION_PDF 					= "application/pdf";
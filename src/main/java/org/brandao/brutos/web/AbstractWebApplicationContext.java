@@ -19,11 +19,15 @@ package org.brandao.brutos.web;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.servlet.ServletContext;
 
 import org.brandao.brutos.AbstractApplicationContext;
+import org.brandao.brutos.ActionResolver;
 import org.brandao.brutos.ActionType;
 import org.brandao.brutos.ApplicationContext;
 import org.brandao.brutos.BrutosConstants;
@@ -35,6 +39,8 @@ import org.brandao.brutos.InterceptorBuilder;
 import org.brandao.brutos.InterceptorStackBuilder;
 import org.brandao.brutos.ScopeType;
 import org.brandao.brutos.io.Resource;
+import org.brandao.brutos.logger.Logger;
+import org.brandao.brutos.mapping.Action;
 import org.brandao.brutos.mapping.Controller;
 import org.brandao.brutos.mapping.Interceptor;
 import org.brandao.brutos.mapping.StringUtil;
@@ -45,6 +51,8 @@ import org.brandao.brutos.type.TypeFactory;
 import org.brandao.brutos.web.http.Download;
 import org.brandao.brutos.web.http.UploadedFile;
 import org.brandao.brutos.web.io.ServletContextResource;
+import org.brandao.brutos.web.mapping.WebAction;
+import org.brandao.brutos.web.mapping.WebController;
 import org.brandao.brutos.web.scope.ApplicationScope;
 import org.brandao.brutos.web.scope.FlashScope;
 import org.brandao.brutos.web.scope.HeaderScope;
@@ -76,6 +84,8 @@ public abstract class AbstractWebApplicationContext
     protected String[] locations;
     
     protected Resource[] resources;
+
+    protected AsyncExecutors asyncExecutors;
     
     public AbstractWebApplicationContext(){
     }
@@ -133,6 +143,24 @@ public abstract class AbstractWebApplicationContext
 		this.requestMethodType   = this.getInitRequestMethodType();
 		this.responseStatus      = this.getInitResponseStatus();
 		this.responseError       = this.getInitResponseError();
+		
+		ActionResolver actionResolver = this.getActionResolver();
+		
+		if(actionResolver instanceof WebActionResolver){
+			((WebActionResolver)actionResolver).configure(this.getConfiguration());
+		}
+		
+		AsyncExecutors asyncExecutors = new AsyncExecutors();
+		asyncExecutors.configure(this.getConfiguration());
+		
+		//na recarga da aplicação, os executores anteriores são encerrados
+		//depois que os novos estão disponíveis.
+		AsyncExecutors previous = this.asyncExecutors;
+		this.asyncExecutors     = asyncExecutors;
+		
+		if(previous != null){
+			previous.shutdown();
+		}
     }
     
     protected void initTypes(){
@@ -415,7 +443,14 @@ public abstract class AbstractWebApplicationContext
         return new ServletContextResource(this.servletContext, path);
     }
 
+    public AsyncExecutors getAsyncExecutors(){
+    	return this.asyncExecutors;
+    }
+    
     public void destroy() {
+    	if(this.asyncExecutors != null){
+    		this.asyncExecutors.shutdown();
+    	}
         this.servletContext = null;
     }
 
@@ -540,7 +575,45 @@ public abstract class AbstractWebApplicationContext
         this.initTypes();
         this.invoker.flush();
         this.loadDefinitions(this);
+        this.checkAsyncPriorities();
         this.initComponents();
     }
     
+    /*
+     * As classes de prioridade somente são usadas pelo executor 
+     * compartilhado. As ações cuja prioridade é ignorada são registradas
+     * no log.
+     */
+    protected void checkAsyncPriorities(){
+    	Logger logger                    = null;
+    	Set<Action> checked              = new HashSet<Action>();
+    	Iterator<Controller> controllers = this.getControllerManager().getAllControllers();
+    	
+    	while(controllers.hasNext()){
+    		Controller controller = controllers.next();
+    		
+    		if(!(controller instanceof WebController)){
+    			continue;
+    		}
+    		
+    		for(Action action: controller.getActions().values()){
+    			if(!(action instanceof WebAction) || !checked.add(action)){
+    				continue;
+    			}
+    			
+    			String message = 
+    					this.asyncExecutors.checkPriority(
+    							(WebController)controller, (WebAction)action);
+    			
+    			if(message != null){
+    				if(logger == null){
+    					logger = this.getLoggerProvider()
+    							.getLogger(AbstractWebApplicationContext.class.getName());
+    				}
+    				logger.warn(message);
+    			}
+    		}
+    	}
+    }
+    
 }
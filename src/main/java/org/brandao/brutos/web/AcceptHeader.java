@@ -0,0 +1,240 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.brandao.brutos.DataType;
+import org.brandao.brutos.web.util.StripedLRUCache;
+import org.brandao.brutos.web.util.WebUtil;
+
+/**
+ * Interpreta o cabeçalho Accept.
+ * <p>Os tipos são ordenados pelo valor de <code>q</code>, do maior para
+ * o menor, e depois pela especificidade do tipo. Os tipos com
+ * <code>q=0</code> ficam no fim da lista. Eles indicam os tipos que o 
+ * cliente exclui, por exemplo <code>text/html;q=0, *&#47;*</code>, e 
+ * devem ser considerados na negociação ({@link #getQuality(List, MediaType)}).</p>
+ * <p>As listas são imutáveis e mantidas em cache pelo valor do cabeçalho,
+ * logo requisições com o mesmo cabeçalho compartilham a mesma lista.</p>
+ *
+ * @author Brandao
+ *
+ */
+public final class AcceptHeader {
+
+	private static final int MAX_CACHED_LENGTH = 512;
+
+	private static final List<DataType> EMPTY = Collections.emptyList();
+
+	private static final StripedLRUCache<String, List<DataType>> cache =
+			new StripedLRUCache<String, List<DataType>>(
+					BrutosWebConstants.DEFAULT_ACCEPT_HEADER_CACHE_SIZE);
+
+	private AcceptHeader(){
+	}
+
+	/**
+	 * Obtém os tipos aceitos, ordenados por preferência.
+	 * @param value Valor do cabeçalho.
+	 * @return Lista imutável de tipos.
+	 */
+	public static List<DataType> getMediaTypes(String value){
+
+		if(value == null){
+			return EMPTY;
+		}
+
+		//valores muito longos não são mantidos em cache.
+		if(value.length() > MAX_CACHED_LENGTH){
+			return parse(value);
+		}
+
+		List<DataType> result = cache.get(value);
+
+		if(result == null){
+			result = parse(value);
+			cache.put(value, result);
+		}
+
+		return result;
+	}
+
+	public static StripedLRUCache<?, ?> getCache(){
+		return cache;
+	}
+
+	/**
+	 * Interpreta o cabeçalho, sem usar o cache. Os tipos inválidos
+	 * são ignorados.
+	 * @param value Valor do cabeçalho.
+	 * @return Lista imutável de tipos.
+	 */
+	public static List<DataType> parse(String value){
+
+		List<Item> items           = new ArrayList<Item>();
+		Enumeration<String> values = WebUtil.toEnumeration(value);
+
+		while(values.hasMoreElements()){
+			String element = values.nextElement();
+
+			if(element.length() == 0){
+				continue;
+			}
+
+			MediaType mediaType;
+
+			try{
+				mediaType = MediaType.valueOf(element);
+			}
+			catch(IllegalStateException e){
+				continue;
+			}
+
+			if(mediaType == null){
+				continue;
+			}
+
+			items.add(new Item(mediaType, getQuality(mediaType), items.size()));
+		}
+
+		if(items.isEmpty()){
+			return EMPTY;
+		}
+
+		Item[] sorted = items.toArray(new Item[items.size()]);
+		Arrays.sort(sorted, ORDER);
+
+		DataType[] result = new DataType[sorted.length];
+
+		for(int i=0;i<sorted.length;i++){
+			result[i] = sorted[i].mediaType;
+		}
+
+		return Collections.unmodifiableList(Arrays.asList(result));
+	}
+
+	/**
+	 * Obtém o valor de <code>q</code> de um tipo. Um valor inválido é
+	 * ignorado, como se não tivesse sido informado.
+	 * @param mediaType Tipo.
+	 * @return Valor entre 0 e 1.
+	 */
+	public static double getQuality(MediaType mediaType){
+		String value = mediaType.getParams().get("q");
+
+		if(value == null){
+			return 1.0;
+		}
+
+		try{
+			double q = Double.parseDouble(value);
+			return q < 0.0 || q > 1.0 || Double.isNaN(q)? 1.0 : q;
+		}
+		catch(NumberFormatException e){
+			return 1.0;
+		}
+	}
+
+	/**
+	 * Obtém o valor de <code>q</code> que o cliente atribui a um tipo. É
+	 * usado o tipo mais específico da lista que inclui o tipo informado,
+	 * logo <code>text/html;q=0</code> exclui <code>text/html</code> 
+	 * mesmo que a lista tenha <code>*&#47;*</code>.
+	 * @param accept Tipos aceitos pelo cliente.
+	 * @param mediaType Tipo.
+	 * @return Valor entre 0 e 1. Zero se o tipo não é aceito.
+	 */
+	public static double getQuality(List<DataType> accept, MediaType mediaType){
+		MediaType range = null;
+		int specificity = -1;
+		
+		for(DataType dataType: accept){
+			MediaType client = (MediaType)dataType;
+			int s            = getSpecificity(client);
+			
+			if(s > specificity && covers(client, mediaType)){
+				range       = client;
+				specificity = s;
+			}
+		}
+		
+		return range == null? 0.0 : getQuality(range);
+	}
+	
+	private static boolean covers(MediaType range, MediaType value){
+		if(range.getType().equals("*")){
+			return true;
+		}
+		
+		if(!range.getType().equals(value.getType())){
+			return false;
+		}
+		
+		return range.getSubType().equals("*") || range.getSubType().equals(value.getSubType());
+	}
+	
+	private static int getSpecificity(MediaType mediaType){
+		if(mediaType.getType().equals("*")){
+			return 0;
+		}
+		if(mediaType.getSubType().equals("*")){
+			return 1;
+		}
+		return mediaType.getParams().size() > (mediaType.getParams().containsKey("q")? 1 : 0)? 3 : 2;
+	}
+
+	private static final Comparator<Item> ORDER = new Comparator<Item>(){
+
+		public int compare(Item o1, Item o2) {
+			int r = Double.compare(o2.q, o1.q);
+
+			if(r == 0){
+				r = o2.specificity - o1.specificity;
+			}
+
+			return r == 0? o1.index - o2.index : r;
+		}
+
+	};
+
+	private static class Item{
+
+		public final MediaType mediaType;
+
+		public final double q;
+
+		public final int specificity;
+
+		public final int index;
+
+		public Item(MediaType mediaType, double q, int index){
+			this.mediaType   = mediaType;
+			this.q           = q;
+			this.specificity = getSpecificity(mediaType);
+			this.index       = index;
+		}
+
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Executor das ações que retornam resultados assíncronos.
+ * 
+ * @author Brandao
+ *
+ */
+public class AsyncExecutorType {
+
+	/**
+	 * Threads assíncronas do servidor (<code>AsyncContext.start</code>).
+	 * <p>Na maioria dos servidores, essas threads são as mesmas que 
+	 * atendem as requisições. Um {@link java.util.concurrent.Future} ou um
+	 * {@link java.util.concurrent.Callable} continua ocupando uma thread do
+	 * servidor enquanto é aguardado. Somente os resultados 
+	 * <code>CompletionStage</code>, que não ocupam threads enquanto não são
+	 * concluídos, liberam o servidor.</p>
+	 */
+	public static final AsyncExecutorType CONTAINER  = new AsyncExecutorType("container");
+
+	/**
+	 * Conjunto limitado de threads compartilhado por todos os controladores.
+	 */
+	public static final AsyncExecutorType SHARED     = new AsyncExecutorType("shared");
+
+	/**
+	 * Conjunto limitado de threads exclusivo do controlador.
+	 */
+	public static final AsyncExecutorType CONTROLLER = new AsyncExecutorType("controller");
+
+	/**
+	 * Uma thread virtual por tarefa. Se a JVM não tem threads virtuais, é
+	 * usado o conjunto compartilhado.
+	 */
+	public static final AsyncExecutorType VIRTUAL    = new AsyncExecutorType("virtual");
+
+	private final static Map<String, AsyncExecutorType> defaultTypes = 
+			new HashMap<String, AsyncExecutorType>();
+	
+	static {
+		defaultTypes.put(CONTAINER.getName(),	CONTAINER);
+		defaultTypes.put(SHARED.getName(),		SHARED);
+		defaultTypes.put(CONTROLLER.getName(),	CONTROLLER);
+		defaultTypes.put(VIRTUAL.getName(),		VIRTUAL);
+	}
+
+	public static AsyncExecutorType valueOf(String value) {
+		if (value == null)
+			return null;
+		else
+			return defaultTypes.get(value.toLowerCase());
+	}
+
+	private final String name;
+	
+	public AsyncExecutorType(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+	
+}
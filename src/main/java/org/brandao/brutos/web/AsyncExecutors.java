@@ -0,0 +1,549 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.brandao.brutos.BrutosException;
+import org.brandao.brutos.web.mapping.WebAction;
+import org.brandao.brutos.web.mapping.WebController;
+import org.brandao.brutos.web.util.PriorityScheduler;
+
+/**
+ * Executores das ações que retornam resultados assíncronos.
+ * <p>O executor de uma ação é definido na ação, no controlador ou na
+ * configuração da aplicação, nessa ordem. Se não definido, é usado o
+ * conjunto compartilhado ({@link AsyncExecutorType#SHARED}). Os conjuntos de threads são
+ * criados no primeiro uso e têm filas limitadas. Uma tarefa recusada
+ * lança {@link java.util.concurrent.RejectedExecutionException}.</p>
+ * <p>Se a configuração define classes de prioridade, o executor 
+ * compartilhado é um {@link PriorityScheduler}. Cada classe tem um peso
+ * e uma fila limitada, e a ação indica sua classe com 
+ * {@link WebAction#getAsyncPriority()} ou 
+ * {@link WebController#getAsyncPriority()}. As classes de prioridade não
+ * são usadas pelos demais executores. Essas ações são verificadas por
+ * {@link #checkPriority(WebController, WebAction)}.</p>
+ * <p>O prazo de uma ação é definido da mesma forma, por 
+ * {@link #getTimeout(WebController, WebAction)}. O valor zero indica que a 
+ * ação não tem prazo.</p>
+ * <p>As threads virtuais são obtidas por reflexão, quando a JVM as
+ * oferece.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class AsyncExecutors {
+
+	private static final Method newVirtualThreadPerTaskExecutor;
+
+	static{
+		Method method;
+		try{
+			method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		}
+		catch(Throwable e){
+			method = null;
+		}
+		newVirtualThreadPerTaskExecutor = method;
+	}
+
+	private AsyncExecutorType defaultType;
+
+	private int sharedPoolSize;
+
+	private int controllerPoolSize;
+
+	private int queueSize;
+
+	private List<String[]> priorityClasses;
+
+	private String schedulerPolicy;
+
+	private long timeout;
+
+	private int timeoutStatus;
+
+	private volatile ExecutorService shared;
+
+	private volatile PriorityScheduler scheduler;
+
+	private volatile ExecutorService virtual;
+
+	private final ConcurrentMap<WebController, ExecutorService> controllers;
+
+	private volatile boolean shutdown;
+
+	public AsyncExecutors(){
+		this.defaultType        = AsyncExecutorType.valueOf(BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR);
+		this.sharedPoolSize     = BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_SHARED_POOL_SIZE;
+		this.controllerPoolSize = BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_CONTROLLER_POOL_SIZE;
+		this.queueSize          = BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_QUEUE_SIZE;
+		this.priorityClasses    = new ArrayList<String[]>();
+		this.schedulerPolicy    = BrutosWebConstants.DEFAULT_ASYNC_SCHEDULER_POLICY;
+		this.timeout            = BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT;
+		this.timeoutStatus      = BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT_STATUS;
+		this.controllers        = new ConcurrentHashMap<WebController, ExecutorService>();
+	}
+
+	public void configure(Properties config){
+
+		String type = config.getProperty(
+				BrutosWebConstants.ASYNC_EXECUTOR,
+				BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR);
+
+		this.defaultType = AsyncExecutorType.valueOf(type);
+
+		if(this.defaultType == null){
+			throw new BrutosException("invalid async executor: " + type);
+		}
+
+		this.sharedPoolSize = getIntProperty(config,
+				BrutosWebConstants.ASYNC_EXECUTOR_SHARED_POOL_SIZE,
+				BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_SHARED_POOL_SIZE);
+
+		this.controllerPoolSize = getIntProperty(config,
+				BrutosWebConstants.ASYNC_EXECUTOR_CONTROLLER_POOL_SIZE,
+				BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_CONTROLLER_POOL_SIZE);
+
+		this.queueSize = getIntProperty(config,
+				BrutosWebConstants.ASYNC_EXECUTOR_QUEUE_SIZE,
+				BrutosWebConstants.DEFAULT_ASYNC_EXECUTOR_QUEUE_SIZE);
+
+		this.schedulerPolicy = config.getProperty(
+				BrutosWebConstants.ASYNC_SCHEDULER_POLICY,
+				BrutosWebConstants.DEFAULT_ASYNC_SCHEDULER_POLICY).trim().toLowerCase();
+
+		if(!PriorityScheduler.WEIGHTED.equals(this.schedulerPolicy) &&
+			!PriorityScheduler.STRICT.equals(this.schedulerPolicy)){
+			throw new BrutosException("invalid " + 
+					BrutosWebConstants.ASYNC_SCHEDULER_POLICY + ": " + this.schedulerPolicy);
+		}
+
+		this.priorityClasses = parsePriorityClasses(
+				config.getProperty(BrutosWebConstants.ASYNC_SCHEDULER_CLASSES),
+				this.queueSize);
+
+		String timeout = config.getProperty(
+				BrutosWebConstants.ASYNC_TIMEOUT,
+				String.valueOf(BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT));
+
+		try{
+			this.timeout = Long.parseLong(timeout.trim());
+		}
+		catch(NumberFormatException e){
+			throw new BrutosException("invalid " + 
+					BrutosWebConstants.ASYNC_TIMEOUT + ": " + timeout, e);
+		}
+
+		if(this.timeout < 0){
+			throw new BrutosException("invalid " + 
+					BrutosWebConstants.ASYNC_TIMEOUT + ": " + timeout);
+		}
+
+		this.timeoutStatus = getIntProperty(config,
+				BrutosWebConstants.ASYNC_TIMEOUT_STATUS,
+				BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT_STATUS);
+	}
+
+	/*
+	 * Formato: nome:peso[:fila], separados por vírgula. 
+	 * Ex: checkout:10:200, reports:1:20
+	 */
+	private static List<String[]> parsePriorityClasses(String value, int defaultQueueSize){
+		List<String[]> result = new ArrayList<String[]>();
+
+		if(value == null || value.trim().length() == 0){
+			return result;
+		}
+
+		for(String item: value.split(",")){
+			String[] parts = item.trim().split(":");
+
+			if(parts.length < 2 || parts.length > 3 || parts[0].trim().length() == 0){
+				throw new BrutosException("invalid priority class: " + item);
+			}
+
+			String[] priorityClass = new String[]{
+				parts[0].trim(),
+				parts[1].trim(),
+				parts.length == 3? parts[2].trim() : String.valueOf(defaultQueueSize)
+			};
+
+			try{
+				if(Integer.parseInt(priorityClass[1]) <= 0 || Integer.parseInt(priorityClass[2]) <= 0){
+					throw new BrutosException("invalid priority class: " + item);
+				}
+			}
+			catch(NumberFormatException e){
+				throw new BrutosException("invalid priority class: " + item, e);
+			}
+
+			result.add(priorityClass);
+		}
+
+		return result;
+	}
+
+	private static int getIntProperty(Properties config, String name, int defaultValue){
+		String value = config.getProperty(name, String.valueOf(defaultValue));
+
+		try{
+			int result = Integer.parseInt(value.trim());
+
+			if(result <= 0){
+				throw new BrutosException("invalid " + name + ": " + value);
+			}
+
+			return result;
+		}
+		catch(NumberFormatException e){
+			throw new BrutosException("invalid " + name + ": " + value, e);
+		}
+	}
+
+	/**
+	 * Verifica se a JVM oferece threads virtuais.
+	 * @return Verdadeiro se a JVM oferece threads virtuais.
+	 */
+	public static boolean isVirtualThreadSupported(){
+		return newVirtualThreadPerTaskExecutor != null;
+	}
+
+	/**
+	 * Obtém o tipo de executor de uma ação.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Tipo do executor.
+	 */
+	public AsyncExecutorType getType(WebController controller, WebAction action){
+		AsyncExecutorType type = action == null? null : action.getAsyncExecutor();
+
+		if(type == null && controller != null){
+			type = controller.getAsyncExecutor();
+		}
+
+		return type == null? this.defaultType : type;
+	}
+
+	/**
+	 * Obtém o executor de uma ação.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Executor ou <code>null</code>, se a ação usa as threads do
+	 * servidor.
+	 */
+	public Executor getExecutor(WebController controller, WebAction action){
+
+		AsyncExecutorType type = this.getType(controller, action);
+
+		if(type == AsyncExecutorType.SHARED){
+			return this.getShared(controller, action);
+		}
+		else
+		if(type == AsyncExecutorType.CONTROLLER){
+			return controller == null? 
+					this.getShared(controller, action) : 
+					this.getController(controller);
+		}
+		else
+		if(type == AsyncExecutorType.VIRTUAL){
+			return isVirtualThreadSupported()? 
+					this.getVirtual() : 
+					this.getShared(controller, action);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Obtém a classe de prioridade de uma ação.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Classe de prioridade ou <code>null</code>.
+	 */
+	public String getPriority(WebController controller, WebAction action){
+		String priority = action == null? null : action.getAsyncPriority();
+		return priority == null && controller != null? controller.getAsyncPriority() : priority;
+	}
+
+	/**
+	 * Verifica se a classe de prioridade de uma ação é usada. A classe
+	 * somente é usada pelo executor compartilhado, quando a configuração
+	 * define classes de prioridade.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Descrição do motivo pelo qual a classe é ignorada ou 
+	 * <code>null</code>, se a ação não tem classe de prioridade ou se ela 
+	 * é usada.
+	 */
+	public String checkPriority(WebController controller, WebAction action){
+		String priority = this.getPriority(controller, action);
+
+		if(priority == null){
+			return null;
+		}
+
+		String prefix = 
+			"async priority " + priority + " of action " +
+			(action == null? null : action.getId()) + " is ignored: ";
+
+		if(this.priorityClasses.isEmpty()){
+			return prefix + 
+				BrutosWebConstants.ASYNC_SCHEDULER_CLASSES + " is not configured";
+		}
+
+		AsyncExecutorType type = this.getType(controller, action);
+
+		if(type == AsyncExecutorType.CONTAINER ||
+			(type == AsyncExecutorType.CONTROLLER && controller != null) ||
+			(type == AsyncExecutorType.VIRTUAL && isVirtualThreadSupported())){
+			return prefix + "the action uses the " + type + " executor";
+		}
+
+		if(PriorityScheduler.DEFAULT_CLASS.equals(priority)){
+			return null;
+		}
+
+		for(String[] c: this.priorityClasses){
+			if(c[0].equals(priority)){
+				return null;
+			}
+		}
+
+		return prefix + "unknown priority class";
+	}
+
+	/**
+	 * Obtém o prazo de uma ação.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Prazo em milissegundos ou zero, se a ação não tem prazo.
+	 */
+	public long getTimeout(WebController controller, WebAction action){
+		long value = action == null? 0 : action.getAsyncTimeout();
+
+		if(value == 0 && controller != null){
+			value = controller.getAsyncTimeout();
+		}
+
+		return value == 0? this.timeout : value;
+	}
+
+	/**
+	 * Obtém o status da resposta de uma ação cujo prazo terminou.
+	 * @param controller Controlador.
+	 * @param action Ação.
+	 * @return Status.
+	 */
+	public int getTimeoutStatus(WebController controller, WebAction action){
+		int value = action == null? 0 : action.getAsyncTimeoutStatus();
+
+		if(value == 0 && controller != null){
+			value = controller.getAsyncTimeoutStatus();
+		}
+
+		return value == 0? this.timeoutStatus : value;
+	}
+
+	private Executor getShared(WebController controller, WebAction action){
+		return this.priorityClasses.isEmpty()?
+				this.getShared() :
+				this.getScheduler().getExecutor(this.getPriority(controller, action));
+	}
+
+	/**
+	 * Obtém o executor compartilhado com classes de prioridade.
+	 * @return Executor ou <code>null</code>, se não foram definidas classes
+	 * de prioridade.
+	 */
+	public PriorityScheduler getScheduler(){
+
+		if(this.priorityClasses.isEmpty()){
+			return null;
+		}
+
+		PriorityScheduler executor = this.scheduler;
+
+		if(executor == null){
+			synchronized(this){
+				executor = this.scheduler;
+				if(executor == null){
+					this.checkShutdown();
+					executor = new PriorityScheduler(
+							"shared", this.sharedPoolSize, 
+							this.schedulerPolicy, this.queueSize);
+
+					for(String[] c: this.priorityClasses){
+						executor.addClass(c[0], 
+								Integer.parseInt(c[1]), Integer.parseInt(c[2]));
+					}
+
+					this.scheduler = executor;
+				}
+			}
+		}
+
+		return executor;
+	}
+
+	private ExecutorService getShared(){
+		ExecutorService executor = this.shared;
+
+		if(executor == null){
+			synchronized(this){
+				executor = this.shared;
+				if(executor == null){
+					this.checkShutdown();
+					executor    = this.createPool("shared", this.sharedPoolSize);
+					this.shared = executor;
+				}
+			}
+		}
+
+		return executor;
+	}
+
+	private ExecutorService getController(WebController controller){
+		ExecutorService executor = this.controllers.get(controller);
+
+		if(executor == null){
+			synchronized(this){
+				executor = this.controllers.get(controller);
+				if(executor == null){
+					this.checkShutdown();
+					int size =
+						controller.getAsyncExecutorThreads() > 0?
+							controller.getAsyncExecutorThreads() :
+							this.controllerPoolSize;
+
+					executor = this.createPool(
+							controller.getClassType() == null?
+								"controller" :
+								controller.getClassType().getSimpleName(),
+							size);
+					this.controllers.put(controller, executor);
+				}
+			}
+		}
+
+		return executor;
+	}
+
+	private ExecutorService getVirtual(){
+		ExecutorService executor = this.virtual;
+
+		if(executor == null){
+			synchronized(this){
+				executor = this.virtual;
+				if(executor == null){
+					this.checkShutdown();
+					try{
+						executor = (ExecutorService)newVirtualThreadPerTaskExecutor.invoke(null);
+					}
+					catch(Throwable e){
+						throw new BrutosException(e);
+					}
+					this.virtual = executor;
+				}
+			}
+		}
+
+		return executor;
+	}
+
+	private ExecutorService createPool(String name, int size){
+		return new ThreadPoolExecutor(
+				size, size, 
+				60L, TimeUnit.SECONDS, 
+				new ArrayBlockingQueue<Runnable>(this.queueSize),
+				new AsyncThreadFactory(name));
+	}
+
+	private void checkShutdown(){
+		if(this.shutdown){
+			throw new BrutosException("async executors have been shut down");
+		}
+	}
+
+	/**
+	 * Encerra os executores. As tarefas pendentes são concluídas.
+	 */
+	public synchronized void shutdown(){
+		this.shutdown = true;
+
+		List<ExecutorService> list = new ArrayList<ExecutorService>(this.controllers.values());
+
+		if(this.shared != null){
+			list.add(this.shared);
+		}
+
+		if(this.virtual != null){
+			list.add(this.virtual);
+		}
+
+		for(ExecutorService executor: list){
+			executor.shutdown();
+		}
+
+		if(this.scheduler != null){
+			this.scheduler.shutdown();
+		}
+
+		this.controllers.clear();
+		this.shared    = null;
+		this.virtual   = null;
+		this.scheduler = null;
+	}
+
+	public AsyncExecutorType getDefaultType() {
+		return this.defaultType;
+	}
+
+	private static class AsyncThreadFactory implements ThreadFactory{
+
+		private final String prefix;
+
+		private final AtomicInteger count;
+
+		public AsyncThreadFactory(String name){
+			this.prefix = "brutos-async-" + name + "-";
+			this.count  = new AtomicInteger();
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, this.prefix + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
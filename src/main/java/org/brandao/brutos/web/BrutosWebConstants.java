@@ -79,6 +79,42 @@ public interface BrutosWebConstants extends BrutosConstants{
 
 	final String RESPONSE_ERROR = "org.brandao.brutos.web.response.error";
 
+	final String ACTION_RESOLVER_CACHE_SIZE = "org.brandao.brutos.web.action_resolver.cache_size";
+
+	final String ACTION_RESOLVER_CACHE_MODE = "org.brandao.brutos.web.action_resolver.cache_mode";
+
+	final String ACTION_RESOLVER_ROUTER = "org.brandao.brutos.web.action_resolver.router";
+
+	final String ACTION_RESOLVER_NEGATIVE_CACHE_SIZE = "org.brandao.brutos.web.action_resolver.negative_cache_size";
+
+	final String ACTION_RESOLVER_NEGATIVE_CACHE_ADMISSION = "org.brandao.brutos.web.action_resolver.negative_cache_admission";
+
+	final String ASYNC_EXECUTOR = "org.brandao.brutos.web.async_executor";
+
+	final String ASYNC_EXECUTOR_SHARED_POOL_SIZE = "org.brandao.brutos.web.async_executor.shared_pool_size";
+
+	final String ASYNC_EXECUTOR_CONTROLLER_POOL_SIZE = "org.brandao.brutos.web.async_executor.controller_pool_size";
+
+	final String ASYNC_EXECUTOR_QUEUE_SIZE = "org.brandao.brutos.web.async_executor.queue_size";
+
+	final String ASYNC_SCHEDULER_CLASSES = "org.brandao.brutos.web.async_scheduler.classes";
+
+	final String ASYNC_SCHEDULER_POLICY = "org.brandao.brutos.web.async_scheduler.policy";
+
+	final String ASYNC_TIMEOUT = "org.brandao.brutos.web.async_timeout";
+
+	final String ASYNC_TIMEOUT_STATUS = "org.brandao.brutos.web.async_timeout.status";
+
+	final String JSON_BUFFERED = "org.brandao.brutos.web.json.buffered";
+
+	final String JSON_BUFFER_SIZE = "org.brandao.brutos.web.json.buffer_size";
+
+	final String JSON_HIGH_WATER_MARK = "org.brandao.brutos.web.json.high_water_mark";
+
+	final String JSON_STREAMING_PARSER = "org.brandao.brutos.web.json.streaming_parser";
+
+	final String JSON_STREAM_FLUSH_SIZE = "org.brandao.brutos.web.json.stream_flush_size";
+
 	@Deprecated
 	final String DEFAULT_REQUEST_PARSER = "org.brandao.brutos.web.http.HttpRequestParserImp";
 	
@@ -92,4 +128,40 @@ public interface BrutosWebConstants extends BrutosConstants{
 
 	final int DEFAULT_RESPONSE_STATUS = HttpStatus.OK;
 	
+	final int DEFAULT_ACTION_RESOLVER_CACHE_SIZE = 300;
+	
+	final String DEFAULT_ACTION_RESOLVER_CACHE_MODE = "request";
+	
+	final String DEFAULT_ACTION_RESOLVER_ROUTER = "trie";
+	
+	final int DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_SIZE = 1000;
+	
+	final int DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_ADMISSION = 2;
+	
+	final int DEFAULT_ACCEPT_HEADER_CACHE_SIZE = 512;
+	
+	final String DEFAULT_ASYNC_EXECUTOR = "shared";
+	
+	final int DEFAULT_ASYNC_EXECUTOR_SHARED_POOL_SIZE = 200;
+	
+	final int DEFAULT_ASYNC_EXECUTOR_CONTROLLER_POOL_SIZE = 50;
+	
+	final int DEFAULT_ASYNC_EXECUTOR_QUEUE_SIZE = 1000;
+	
+	final String DEFAULT_ASYNC_SCHEDULER_POLICY = "weighted";
+	
+	final long DEFAULT_ASYNC_TIMEOUT = 0;
+	
+	final int DEFAULT_ASYNC_TIMEOUT_STATUS = 504;
+	
+	final boolean DEFAULT_JSON_BUFFERED = true;
+	
+	final int DEFAULT_JSON_BUFFER_SIZE = 8*1024;
+	
+	final int DEFAULT_JSON_HIGH_WATER_MARK = 1024*1024;
+	
+	final boolean DEFAULT_JSON_STREAMING_PARSER = true;
+	
+	final int DEFAULT_JSON_STREAM_FLUSH_SIZE = 8*1024;
+	
 }
@@ -20,10 +20,18 @@ package org.brandao.brutos.web;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.brandao.brutos.DataType;
+import org.brandao.brutos.web.util.StripedLRUCache;
 
 /**
+ * Tipo de mídia.
+ * <p>Os tipos obtidos por {@link #valueOf(String)} são internados: o tipo
+ * base, sem parâmetros, é sempre a mesma instância e os valores mais
+ * usados são mantidos em cache. Os parâmetros são interpretados somente
+ * quando consultados.</p>
  * 
  * @author Brandao
  *
@@ -42,6 +50,9 @@ public class MediaType extends DataType{
 	public static final MediaType APPLICATION_JSON = 
 			new MediaType("application/json", "application", "json");
 
+	public static final MediaType APPLICATION_X_NDJSON = 
+			new MediaType("application/x-ndjson", "application", "x-ndjson");
+
 	public static final MediaType APPLICATION_OCTET_STREAM = 
 			new MediaType("application/octet-stream", "application", "octet-stream");
 
@@ -92,6 +103,7 @@ public class MediaType extends DataType{
 		defaultTypes.put(APPLICATION_ATOM_XML.getName(),				APPLICATION_ATOM_XML);  
 		defaultTypes.put(APPLICATION_X_WWW_FORM_URLENCODED.getName(),	APPLICATION_X_WWW_FORM_URLENCODED); 
 		defaultTypes.put(APPLICATION_JSON.getName(),					APPLICATION_JSON);
+		defaultTypes.put(APPLICATION_X_NDJSON.getName(),				APPLICATION_X_NDJSON);
 		defaultTypes.put(APPLICATION_OCTET_STREAM.getName(),			APPLICATION_OCTET_STREAM);  
 		defaultTypes.put(APPLICATION_PDF.getName(),						APPLICATION_PDF);
 		defaultTypes.put(APPLICATION_RSS_XML.getName(),					APPLICATION_RSS_XML); 
@@ -108,6 +120,21 @@ public class MediaType extends DataType{
 		defaultTypes.put(TEXT_XML.getName(),							TEXT_XML);
 	}
 	
+	private static final int MAX_INTERNED_LENGTH = 128;
+	
+	private static final int MAX_BASE_TYPES = 1024;
+	
+	private static final StripedLRUCache<String, MediaType> internedTypes = 
+			new StripedLRUCache<String, MediaType>(256);
+	
+	/*
+	 * Os tipos base não são descartados, logo cada tipo tem uma única
+	 * instância, usada na comparação por identidade em equals(). Depois do
+	 * limite, os novos tipos não são registrados e são comparados pelo nome.
+	 */
+	private static final ConcurrentMap<String, MediaType> baseTypes = 
+			new ConcurrentHashMap<String, MediaType>();
+	
 	public static MediaType valueOf(String value){
 		try{
 			if(value == null){
@@ -115,8 +142,29 @@ public class MediaType extends DataType{
 			}
 			
 			MediaType r = defaultTypes.get(value);
-	
-			return r == null? create(value) : r;
+			
+			if(r != null){
+				return r;
+			}
+			
+			boolean interned = value.length() <= MAX_INTERNED_LENGTH;
+			
+			if(interned){
+				r = internedTypes.get(value);
+				
+				if(r != null){
+					return r;
+				}
+			}
+			
+			r = create(value);
+			
+			//o boundary muda a cada requisição.
+			if(interned && !r.getType().equals(MULTIPART_FORM_DATA.getType())){
+				internedTypes.put(value, r);
+			}
+			
+			return r;
 		}
 		catch(Throwable e){
 			throw new IllegalStateException("can't parse media type: " + value, e);
@@ -124,41 +172,83 @@ public class MediaType extends DataType{
 	}
 	
 	private static MediaType create(String value){
-		String[] p = value.split("\\;");
+		int end          = value.indexOf(';');
+		String base      = (end == -1? value : value.substring(0, end)).trim().toLowerCase();
+		MediaType result = getBaseType(base);
 		
-		String[] types = p[0].split("\\/");
+		return end == -1? result : new MediaType(result, value.substring(end + 1));
+	}
+	
+	private static MediaType getBaseType(String value){
+		MediaType r = defaultTypes.get(value);
 		
-		Map<String,String> params = new HashMap<String, String>();
+		if(r == null){
+			r = baseTypes.get(value);
+		}
 		
-		for(int i=1;i<p.length;i++){
-			String part = p[i];
-			String[] keyValue = part.split("\\=");
+		if(r == null){
+			int sep = value.indexOf('/');
 			
-			if(keyValue.length != 2){
-				return null;
+			if(sep == -1){
+				throw new IllegalArgumentException("expected <type>/<subtype>: " + value);
 			}
 			
-			String key = prepareValue(keyValue[0]);
-			String val = prepareValue(keyValue[1]);
+			r = new MediaType(value, value.substring(0, sep).trim(), value.substring(sep + 1).trim());
 			
-			params.put(key, val);
+			if(baseTypes.size() < MAX_BASE_TYPES){
+				MediaType current = baseTypes.putIfAbsent(value, r);
+				r = current == null? r : current;
+			}
 		}
 		
-		return new MediaType(value, prepareValue(types[0]), prepareValue(types[1]), params);
+		return r;
 	}
 	
-	private static String prepareValue(String value){
-		return value == null? null : value.trim();
+	/*
+	 * Os parâmetros inválidos são ignorados.
+	 */
+	private static Map<String, String> parseParams(String value){
+		Map<String,String> params = new HashMap<String, String>();
+		int start                 = 0;
+		
+		while(start < value.length()){
+			int end = value.indexOf(';', start);
+			end     = end == -1? value.length() : end;
+			int sep = value.indexOf('=', start);
+			
+			if(sep != -1 && sep < end){
+				String key = value.substring(start, sep).trim();
+				String val = value.substring(sep + 1, end).trim();
+				
+				if(val.length() > 1 && val.charAt(0) == '"' && val.charAt(val.length() - 1) == '"'){
+					val = val.substring(1, val.length() - 1);
+				}
+				
+				if(key.length() != 0){
+					params.put(key, val);
+				}
+			}
+			
+			start = end + 1;
+		}
+		
+		return Collections.unmodifiableMap(params);
 	}
 	
 	private final String type;
 	
 	private final String subType;
 	
-	private final Map<String,String> params;
+	private final MediaType baseType;
+	
+	private final String paramsValue;
+	
+	private volatile Map<String,String> params;
 	
 	private final boolean anyType;
 	
+	private final int hash;
+	
 	@SuppressWarnings("unchecked")
 	public MediaType(String name, String type, String subType) {
 		this(name, type, subType, Collections.EMPTY_MAP);
@@ -166,10 +256,33 @@ public class MediaType extends DataType{
 
 	public MediaType(String name, String type, String subType, Map<String,String> params) {
 		super(type + "/" + subType);
-		this.type    = type;
-		this.subType = subType;
-		this.params  = params;
-		this.anyType = this.type.equals("*") && this.subType.equals("*");
+		this.type        = type;
+		this.subType     = subType;
+		this.baseType    = params.isEmpty()? this : null;
+		this.paramsValue = null;
+		this.params      = params;
+		this.anyType     = this.type.equals("*") && this.subType.equals("*");
+		this.hash        = 31 + this.getName().hashCode();
+	}
+	
+	private MediaType(MediaType baseType, String paramsValue) {
+		super(baseType.getName());
+		this.type        = baseType.type;
+		this.subType     = baseType.subType;
+		this.baseType    = baseType;
+		this.paramsValue = paramsValue;
+		this.params      = null;
+		this.anyType     = baseType.anyType;
+		this.hash        = baseType.hash;
+	}
+	
+	/**
+	 * Obtém o tipo sem os parâmetros.
+	 * @return Tipo base ou <code>null</code> se o tipo não foi obtido
+	 * por {@link #valueOf(String)}.
+	 */
+	public MediaType getBaseType() {
+		return baseType;
 	}
 	
 	public String getType() {
@@ -181,7 +294,14 @@ public class MediaType extends DataType{
 	}
 
 	public Map<String, String> getParams() {
-		return params;
+		Map<String, String> result = this.params;
+		
+		if(result == null){
+			result      = parseParams(this.paramsValue);
+			this.params = result;
+		}
+		
+		return result;
 	}
 
 	public boolean match(MediaType value){
@@ -204,10 +324,7 @@ public class MediaType extends DataType{
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((this.getName() == null) ? 0 : this.getName().hashCode());
-		return result;
+		return this.hash;
 	}
 
 	@Override
@@ -218,6 +335,8 @@ public class MediaType extends DataType{
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
+		if (this.baseType != null && this.baseType == ((MediaType)obj).baseType)
+			return true;
 		DataType other = (DataType) obj;
 		if (this.getName() == null) {
 			if (other.getName() != null)
@@ -20,6 +20,7 @@ package org.brandao.brutos.web;
 import javax.servlet.ServletRequest;
 
 import org.brandao.brutos.MutableMvcRequest;
+import org.brandao.brutos.web.mapping.PathParameters;
 
 /**
  * 
@@ -35,4 +36,13 @@ public interface MutableWebMvcRequest
 
 	void setRequestMethodType(RequestMethodType requestMethodType);
 	
+	/**
+	 * Define os valores das variáveis da rota. Os valores têm precedência
+	 * sobre os demais parâmetros da requisição e não são copiados.
+	 * @param value Valores das variáveis.
+	 */
+	void setPathParameters(PathParameters value);
+	
+	PathParameters getPathParameters();
+	
 }
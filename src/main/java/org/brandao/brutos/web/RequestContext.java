@@ -0,0 +1,230 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web;
+
+import java.util.concurrent.Callable;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Contexto da requisição em processamento.
+ * <p>Os escopos da aplicação web obtêm a requisição a partir do contexto
+ * associado à thread atual. O contexto é associado uma vez no início da
+ * requisição e removido no fim.</p>
+ * <p>Uma tarefa executada em outra thread pode receber o contexto com
+ * {@link #wrap(Runnable)} ou {@link #wrap(Callable)}.</p>
+ * <p>Quando o prazo da ação termina, o contexto é cancelado. Uma tarefa
+ * demorada deve verificar {@link #isCancelled()} e encerrar o 
+ * processamento.</p>
+ *
+ * @author Brandao
+ *
+ */
+public final class RequestContext {
+
+	private static final ThreadLocal<RequestContext> current =
+			new ThreadLocal<RequestContext>();
+
+	private final HttpServletRequest servletRequest;
+
+	private final MutableWebMvcRequest request;
+
+	private final MutableWebMvcResponse response;
+
+	private final FilterChain filterChain;
+
+	/*
+	 * Indica se o contexto foi associado por push() e qual contexto 
+	 * foi substituído.
+	 */
+	private final boolean pushed;
+
+	private final RequestContext replaced;
+
+	private volatile boolean cancelled;
+
+	public RequestContext(HttpServletRequest servletRequest,
+			MutableWebMvcRequest request, MutableWebMvcResponse response,
+			FilterChain filterChain){
+		this(servletRequest, request, response, filterChain, false, null);
+	}
+
+	private RequestContext(HttpServletRequest servletRequest,
+			MutableWebMvcRequest request, MutableWebMvcResponse response,
+			FilterChain filterChain, boolean pushed, RequestContext replaced){
+		this.servletRequest = servletRequest;
+		this.request        = request;
+		this.response       = response;
+		this.filterChain    = filterChain;
+		this.pushed         = pushed;
+		this.replaced       = replaced;
+	}
+
+	/**
+	 * Obtém o contexto associado à thread atual.
+	 * @return Contexto ou <code>null</code>.
+	 */
+	public static RequestContext getCurrent(){
+		return current.get();
+	}
+
+	/**
+	 * Associa o contexto à thread atual.
+	 * @return Contexto que estava associado à thread. Deve ser informado
+	 * em {@link #restore(RequestContext)}.
+	 */
+	public RequestContext bind(){
+		RequestContext previous = current.get();
+		current.set(this);
+		return previous;
+	}
+
+	/**
+	 * Restaura o contexto que estava associado à thread atual antes de
+	 * {@link #bind()}.
+	 * @param previous Contexto anterior.
+	 */
+	public static void restore(RequestContext previous){
+		if(previous == null){
+			current.remove();
+		}
+		else{
+			current.set(previous);
+		}
+	}
+
+	/**
+	 * Associa à thread atual uma cópia do contexto atual com outra 
+	 * requisição. Os valores não informados são mantidos.
+	 * @param servletRequest Requisição HTTP ou <code>null</code>.
+	 * @param request Requisição ou <code>null</code>.
+	 * @deprecated Mantido para os métodos obsoletos dos escopos. 
+	 * Use {@link #bind()}.
+	 */
+	@Deprecated
+	public static void push(HttpServletRequest servletRequest, 
+			MutableWebMvcRequest request){
+		RequestContext context = current.get();
+
+		if(context == null){
+			current.set(
+				new RequestContext(servletRequest, request, null, null, true, null));
+		}
+		else{
+			current.set(
+				new RequestContext(
+					servletRequest == null? context.servletRequest : servletRequest,
+					request == null? context.request : request,
+					context.response,
+					context.filterChain,
+					true,
+					context));
+		}
+	}
+
+	/**
+	 * Restaura o contexto substituído por 
+	 * {@link #push(HttpServletRequest, MutableWebMvcRequest)}. O contexto
+	 * associado por {@link #bind()} não é alterado.
+	 * @deprecated Mantido para os métodos obsoletos dos escopos. 
+	 * Use {@link #restore(RequestContext)}.
+	 */
+	@Deprecated
+	public static void pop(){
+		RequestContext context = current.get();
+
+		if(context != null && context.pushed){
+			restore(context.replaced);
+		}
+	}
+
+	/**
+	 * Cria uma tarefa que executa com este contexto associado à thread.
+	 * @param task Tarefa.
+	 * @return Nova tarefa.
+	 */
+	public Runnable wrap(final Runnable task){
+		return new Runnable(){
+
+			public void run() {
+				RequestContext previous = bind();
+				try{
+					task.run();
+				}
+				finally{
+					restore(previous);
+				}
+			}
+
+		};
+	}
+
+	/**
+	 * Cria uma tarefa que executa com este contexto associado à thread.
+	 * @param task Tarefa.
+	 * @return Nova tarefa.
+	 */
+	public <T> Callable<T> wrap(final Callable<T> task){
+		return new Callable<T>(){
+
+			public T call() throws Exception {
+				RequestContext previous = bind();
+				try{
+					return task.call();
+				}
+				finally{
+					restore(previous);
+				}
+			}
+
+		};
+	}
+
+	/**
+	 * Cancela a requisição. O resultado da ação não será exibido.
+	 */
+	public void cancel(){
+		this.cancelled = true;
+	}
+
+	/**
+	 * Verifica se a requisição foi cancelada.
+	 * @return Verdadeiro se a requisição foi cancelada.
+	 */
+	public boolean isCancelled(){
+		return this.cancelled;
+	}
+
+	public HttpServletRequest getServletRequest(){
+		return this.servletRequest;
+	}
+
+	public MutableWebMvcRequest getRequest(){
+		return this.request;
+	}
+
+	public MutableWebMvcResponse getResponse(){
+		return this.response;
+	}
+
+	public FilterChain getFilterChain(){
+		return this.filterChain;
+	}
+
+}
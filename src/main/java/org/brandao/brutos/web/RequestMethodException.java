@@ -28,6 +28,8 @@ public class RequestMethodException extends BrutosException{
 
 	private static final long serialVersionUID = -8693091268556751602L;
 
+	private RequestMethodType[] allowedMethods;
+	
 	public RequestMethodException() {
 		super();
 	}
@@ -44,4 +46,17 @@ public class RequestMethodException extends BrutosException{
 		super(cause);
 	}
 
+	public RequestMethodException(String message, RequestMethodType[] allowedMethods) {
+		super(message);
+		this.allowedMethods = allowedMethods;
+	}
+
+	/**
+	 * Obtém os métodos aceitos pelo recurso.
+	 * @return Métodos aceitos ou <code>null</code>.
+	 */
+	public RequestMethodType[] getAllowedMethods() {
+		return this.allowedMethods;
+	}
+
 }
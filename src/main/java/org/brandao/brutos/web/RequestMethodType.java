@@ -26,31 +26,46 @@ import java.util.HashMap;
  */
 public class RequestMethodType {
 
-	public static final RequestMethodType DELETE	= new RequestMethodType("delete",	"delete"); 
+	public static final RequestMethodType DELETE	= new RequestMethodType("delete",	"delete",	0); 
     
-	public static final RequestMethodType GET		= new RequestMethodType("get",		"get");
+	public static final RequestMethodType GET		= new RequestMethodType("get",		"get",		1);
 	           
-	public static final RequestMethodType HEAD		= new RequestMethodType("head",		"head");
+	public static final RequestMethodType HEAD		= new RequestMethodType("head",		"head",		2);
 	           
-	public static final RequestMethodType OPTIONS	= new RequestMethodType("options",	"options");
+	public static final RequestMethodType OPTIONS	= new RequestMethodType("options",	"options",	3);
 	           
-	public static final RequestMethodType POST		= new RequestMethodType("post",		"post");
+	public static final RequestMethodType POST		= new RequestMethodType("post",		"post",		4);
 	           
-	public static final RequestMethodType PUT		= new RequestMethodType("put",		"put");
+	public static final RequestMethodType PUT		= new RequestMethodType("put",		"put",		5);
 	           
-	public static final RequestMethodType TRACE		= new RequestMethodType("trace",	"trace");
+	public static final RequestMethodType TRACE		= new RequestMethodType("trace",	"trace",	6);
+	
+	private static final RequestMethodType[] standardTypes =
+		new RequestMethodType[]{DELETE, GET, HEAD, OPTIONS, POST, PUT, TRACE};
 	
 	private static final HashMap<String, RequestMethodType> defaultTypes =
 		new HashMap<String, RequestMethodType>();
 	
+	/*
+	 * Nomes como enviados na requisição HTTP. Evita a conversão do nome
+	 * dos métodos padrão.
+	 */
+	private static final HashMap<String, RequestMethodType> httpTypes =
+		new HashMap<String, RequestMethodType>();
+	
 	static{
-		defaultTypes.put(DELETE.getId(),	DELETE);
-		defaultTypes.put(GET.getId(),		GET);
-		defaultTypes.put(HEAD.getId(),		HEAD);
-		defaultTypes.put(OPTIONS.getId(),	OPTIONS);
-		defaultTypes.put(POST.getId(),		POST);
-		defaultTypes.put(PUT.getId(),		PUT);
-		defaultTypes.put(TRACE.getId(),		TRACE);
+		for(RequestMethodType type: standardTypes){
+			defaultTypes.put(type.getId(), type);
+			httpTypes.put(type.getId().toUpperCase(), type);
+		}
+	}
+	
+	/**
+	 * Obtém os métodos padrão na ordem de seus índices.
+	 * @return Métodos padrão.
+	 */
+	public static RequestMethodType[] getStandardTypes(){
+		return standardTypes.clone();
 	}
 	
 	public static RequestMethodType valueOf(String value){
@@ -59,9 +74,14 @@ public class RequestMethodType {
 			return null;
 		}
 		
-		value = value.toLowerCase();
+		RequestMethodType r = httpTypes.get(value);
 		
-		RequestMethodType r = defaultTypes.get(value);
+		if(r != null){
+			return r;
+		}
+		
+		value = value.toLowerCase();
+		r     = defaultTypes.get(value);
 		return r == null? new RequestMethodType(value, value) : r;
 	}
 	
@@ -69,11 +89,23 @@ public class RequestMethodType {
 	
 	private final String name;
 
+	private final int index;
+	
 	public RequestMethodType(String id, String name) {
 		this.id = id;
 		this.name = name;
+		
+		RequestMethodType type = id == null? null : defaultTypes.get(id);
+		this.index = type == null? -1 : type.index;
 	}
 
+	private RequestMethodType(String id, String name, int index) {
+		this.id = id;
+		this.name = name;
+		this.index = index;
+	}
+	
+
 	public String getId() {
 		return id;
 	}
@@ -82,6 +114,14 @@ public class RequestMethodType {
 		return name;
 	}
 
+	/**
+	 * Obtém a posição do método entre os métodos padrão.
+	 * @return Posição ou -1 se não for um método padrão.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -19,9 +19,11 @@ package org.brandao.brutos.web;
 
 import java.net.MalformedURLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.brandao.brutos.mapping.StringUtil;
@@ -32,34 +34,107 @@ import org.brandao.brutos.mapping.StringUtil;
  */
 public class StringPattern {
 
+	/**
+	 * Ordena os padrões do mais específico para o menos específico:
+	 * maior prefixo literal, depois o tipo das variáveis e, por fim, maior 
+	 * sufixo literal. Os padrões somente com tipos pré-definidos, como 
+	 * <code>{id:int}</code>, precedem os que têm expressão regular, que 
+	 * precedem os que têm variáveis sem tipo, como <code>{id}</code>.
+	 */
+	public static final Comparator<StringPattern> SPECIFICITY = 
+			new Comparator<StringPattern>(){
+
+		public int compare(StringPattern o1, StringPattern o2) {
+			int result = o2.prefix.length() - o1.prefix.length();
+			
+			if(result != 0){
+				return result;
+			}
+			
+			result = o2.rank - o1.rank;
+			
+			if(result != 0){
+				return result;
+			}
+			
+			return o2.suffix.length() - o1.suffix.length();
+		}
+		
+	};
+	
     private String original;
     
     private Pattern pattern;
 
-    private Pattern prePattern;
-    
     private String stringPattern;
     
     private List<StringPatternVar> vars;
+    
+    private int[] groups;
+    
+    private StringPatternVar single;
+    
+    private String prefix;
+    
+    private String suffix;
+    
+    private boolean typed;
+    
+    private int rank;
 
     public StringPattern( String value ) throws MalformedURLException{
         this.parse(value);
         this.original   = value;
+        this.groups     = new int[this.vars.size()];
         this.pattern    = 
     		Pattern.compile(this.createRegex(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-        this.prePattern =
-			Pattern.compile(this.createPreRegex(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
         this.stringPattern = 
     		this.createPattern();
+        
+        //uma única variável com tipo pré-definido dispensa a expressão regular.
+        this.single = 
+    		this.vars.size() == 1 && this.vars.get(0).getType() != null?
+				this.vars.get(0) :
+				null;
+        
+        this.prefix = this.vars.isEmpty()? value : this.vars.get(0).getStart();
+        this.suffix = this.vars.isEmpty()? "" : this.vars.get(this.vars.size() - 1).getEnd();
+        this.prefix = this.prefix == null? "" : this.prefix;
+        this.suffix = this.suffix == null? "" : this.suffix;
+        this.typed  = true;
+        this.rank   = RANK_TYPE;
+        
+        //o padrão é tão específico quanto a sua variável menos específica.
+        for(StringPatternVar var: this.vars){
+        	this.typed = this.typed && var.getType() != null;
+        	this.rank  = Math.min(this.rank, getRank(var));
+        }
     }
 
     /* -- private methods -- */
     
+    private static final int RANK_WORD  = 0;
+    
+    private static final int RANK_REGEX = 1;
+    
+    private static final int RANK_TYPE  = 2;
+    
+    private static int getRank(StringPatternVar var){
+    	StringPatternType type = var.getType();
+    	return 
+			type == StringPatternType.WORD? 
+				RANK_WORD : 
+				type == null? 
+					RANK_REGEX : 
+					RANK_TYPE;
+    }
+    
     private void parse(String uri) throws MalformedURLException{
     	
         List<String> frags  = new ArrayList<String>();
         List<String> ids    = new ArrayList<String>();
         List<String> regexs = new ArrayList<String>();
+        List<StringPatternType> types = new ArrayList<StringPatternType>();
         int startFrag       = 0;
         char[] chars        = uri.toCharArray();
         int openKeysCount   = 0;
@@ -104,10 +179,16 @@ public class StringPattern {
 						var.substring(separatorIndex + 1, var.length()) :
 							null;
 						
-				regex = StringUtil.isEmpty(regex)? "\\w{1,}" : regex;
+				StringPatternType type = 
+						StringUtil.isEmpty(regex)? 
+							StringPatternType.WORD : 
+							StringPatternType.valueOf(regex);
+						
+				regex = type == null? regex : type.getRegex();
 				
 				ids.add(id);
 				regexs.add(regex);
+				types.add(type);
 				
 				startFrag      = i + 1;
 				firstOpenKeys  = -1;
@@ -132,31 +213,6 @@ public class StringPattern {
         vars = new ArrayList<StringPatternVar>();
 
         for( int i=0;i<ids.size();i++ ){
-        	
-            StringBuilder regexPrefix = new StringBuilder("^");
-            StringBuilder regexSuffix = new StringBuilder("");
-            
-            for(int k=0;k<=i;k++){
-            	String value = frags.get(k);
-                regexPrefix.append( value == null || value.isEmpty()? "" : Pattern.quote(value) );
-                
-                if(i>0 && k<i){
-                   regexPrefix.append( regexs.get(k) );
-                }
-            }
-        	
-            for(int k=i;k<ids.size();k++){
-            	
-                if(k>i){
-                    regexSuffix.append( regexs.get(k) );
-                }
-                
-                String value = frags.get(k+1);
-                regexSuffix.append(value == null || value.isEmpty()? "" : Pattern.quote(value) );
-            }
-            
-            regexSuffix.append("$");
-            
             vars.add(
                     new StringPatternVar(
                         i,
@@ -164,58 +220,11 @@ public class StringPattern {
                         Pattern.compile(regexs.get(i), Pattern.DOTALL | Pattern.CASE_INSENSITIVE),
                         frags.get(i),
                         frags.get(i+1),
-                        Pattern.compile(regexPrefix.toString(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE),
-                        Pattern.compile(regexSuffix.toString(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE)) );
+                        types.get(i)) );
         }
         
     }
 
-    private String createPreRegex(){
-        StringBuilder result = new StringBuilder();
-        
-        if(vars.isEmpty())
-            return this.original;
-        
-        
-        for( int i=0;i<vars.size();i++ ){
-        	StringPatternVar p = (StringPatternVar)vars.get(i);
-
-            if(i == 0){
-            	
-                if(p.getStart() != null && p.getStart().length() > 0){
-                    result
-                    	.append( (p.getStart() == null? "" : Pattern.quote(p.getStart())) );
-                }
-                
-                result
-                	.append("(")
-                	.append(".*")
-                	.append(")");
-                
-                if(p.getEnd() != null && p.getEnd().length() > 0){
-                    result
-                    	.append( (p.getEnd() == null? "" : Pattern.quote(p.getEnd())) );
-                }
-            }
-            else{
-            	
-                result
-                	.append("(")
-                	.append(".*")
-                	.append(")");
-                
-                if(p.getEnd() != null && p.getEnd().length() > 0){
-                    result
-                    	.append( (p.getEnd() == null? "" : Pattern.quote(p.getEnd())) );
-                }
-            }
-            
-        }
-        
-        return result.toString();
-        
-    }
-    
     private String createPattern(){
         StringBuilder value = new StringBuilder();
         
@@ -244,9 +253,13 @@ public class StringPattern {
     private String createRegex(){
         StringBuilder value = new StringBuilder();
         
+        int group            = 1;
+        
         if(vars.isEmpty())
             return this.original;
         
+        //cada variável é um grupo. Os grupos da expressão da variável
+        //são considerados no índice dos próximos.
         for(int i=0;i<vars.size();i++ ){
             StringPatternVar p = vars.get(i);
             
@@ -254,7 +267,10 @@ public class StringPattern {
             	value.append(Pattern.quote(p.getStart()));
             }
             
-            value.append(p.getRegex());
+            this.groups[i] = group;
+            group         += 1 + p.getRegex().matcher("").groupCount();
+            
+            value.append("(").append(p.getRegex()).append(")");
             
             if(!p.isEmptyEnd()){
                 value.append(Pattern.quote(p.getEnd()));
@@ -298,12 +314,15 @@ public class StringPattern {
     
     public Map<String,List<String>> getParameters( String value ){
         Map<String,List<String>> params = new HashMap<String,List<String>>();
-
+        int[] bounds                    = new int[vars.size()*2];
+        
+        if(this.vars.isEmpty() || !this.scan(value, 0, value.length(), bounds)){
+        	return params;
+        }
+        
         for( int i=0;i<vars.size();i++ ){
         	StringPatternVar p = vars.get(i);
-            String tmp     = value;
-            tmp            = p.getRegexPrefix().matcher(tmp).replaceAll("");
-            tmp            = p.getRegexSuffix().matcher(tmp).replaceAll("");
+            String tmp         = value.substring(bounds[i*2], bounds[i*2 + 1]);
             
             List<String> values = params.get(p.getId());
             
@@ -318,19 +337,178 @@ public class StringPattern {
         return params;
     }
     
+    /**
+     * Obtém os valores das variáveis. As variáveis com tipo pré-definido
+     * têm o valor já convertido.
+     * @param value Valor.
+     * @return Valores das variáveis.
+     */
+    public Map<String,List<Object>> getParameterValues( String value ){
+        Map<String,List<Object>> params = new HashMap<String,List<Object>>();
+        Object[] match                  = this.match(value);
+        
+        if(match == null){
+        	return params;
+        }
+        
+        for( int i=0;i<vars.size();i++ ){
+        	StringPatternVar p  = vars.get(i);
+            List<Object> values = params.get(p.getId());
+            
+            if(values == null){
+                values = new ArrayList<Object>();
+                params.put(p.getId(), values);
+            }
+            
+            values.add(match[i]);
+        }
+
+        return params;
+    }
+    
     public boolean matches(String value){
     	if(this.vars.isEmpty()){
     		return this.original.equalsIgnoreCase(value);
     	}
     	else{
+    		return this.scan(value, 0, value.length(), null);
+    	}
+    }
+    
+    /**
+     * Verifica se o valor segue o padrão e extrai os valores das variáveis
+     * em uma única leitura.
+     * @param value Valor.
+     * @return Valores das variáveis, na ordem em que aparecem no padrão, ou 
+     * <code>null</code> se o valor não segue o padrão.
+     */
+    public Object[] match(String value){
+    	return this.match(value, 0, value.length());
+    }
+    
+    /**
+     * Verifica se o trecho do valor segue o padrão e extrai os valores das 
+     * variáveis em uma única leitura. As variáveis com tipo pré-definido
+     * têm o valor já convertido.
+     * @param value Valor.
+     * @param start Início do trecho.
+     * @param end Fim do trecho.
+     * @return Valores das variáveis, na ordem em que aparecem no padrão, ou 
+     * <code>null</code> se o trecho não segue o padrão.
+     */
+    public Object[] match(String value, int start, int end){
+    	
+    	if(this.vars.isEmpty()){
     		return 
-				this.prePattern.matcher(value).matches() && 
-				this.pattern.matcher(value).matches();
+				end - start == this.original.length() &&
+				this.original.regionMatches(true, 0, value, start, end - start)?
+					new Object[0] :
+					null;
+    	}
+    	
+    	int[] bounds = new int[this.vars.size()*2];
+    	
+    	if(!this.scan(value, start, end, bounds)){
+    		return null;
     	}
+    	
+    	Object[] result = new Object[this.vars.size()];
+    	
+    	for(int i=0;i<result.length;i++){
+    		StringPatternType type = this.vars.get(i).getType();
+    		int s                  = bounds[i*2];
+    		int e                  = bounds[i*2 + 1];
+    		result[i]              = type == null? value.substring(s, e) : type.getValue(value, s, e);
+    	}
+    	
+    	return result;
+    }
+    
+    private boolean scan(String value, int start, int end, int[] bounds){
+    	
+    	if(this.single != null){
+    		String prefix = this.single.getStart();
+    		String suffix = this.single.getEnd();
+    		int s         = start + (prefix == null? 0 : prefix.length());
+    		int e         = end   - (suffix == null? 0 : suffix.length());
+    		
+    		if(s > e ||
+				(prefix != null && !value.regionMatches(true, start, prefix, 0, prefix.length())) ||
+				(suffix != null && !value.regionMatches(true, e, suffix, 0, suffix.length())) ||
+				!this.single.getType().matches(value, s, e)){
+    			return false;
+    		}
+    		
+    		if(bounds != null){
+    			bounds[0] = s;
+    			bounds[1] = e;
+    		}
+    		
+    		return true;
+    	}
+    	
+    	//os trechos literais descartam o valor antes da expressão regular.
+    	int prefixLength = this.prefix.length();
+    	int suffixLength = this.suffix.length();
+    	
+    	if(end - start < prefixLength + suffixLength ||
+			!value.regionMatches(true, start, this.prefix, 0, prefixLength) ||
+			!value.regionMatches(true, end - suffixLength, this.suffix, 0, suffixLength)){
+    		return false;
+    	}
+    	
+    	Matcher matcher = this.pattern.matcher(value);
+    	matcher.region(start, end);
+    	
+    	if(!matcher.matches()){
+    		return false;
+    	}
+    	
+    	for(int i=0;i<this.groups.length;i++){
+    		StringPatternType type = this.vars.get(i).getType();
+    		int s                  = matcher.start(this.groups[i]);
+    		int e                  = matcher.end(this.groups[i]);
+    		
+    		//a expressão equivalente não verifica os limites numéricos.
+    		if(type != null && !type.matches(value, s, e)){
+    			return false;
+    		}
+    		
+    		if(bounds != null){
+    			bounds[i*2]     = s;
+    			bounds[i*2 + 1] = e;
+    		}
+    	}
+    	
+    	return true;
     }
 
 	public List<StringPatternVar> getVars() {
 		return vars;
 	}
+
+	/**
+	 * Obtém o trecho literal que antecede a primeira variável.
+	 * @return Trecho literal. Pode ser vazio.
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * Obtém o trecho literal que sucede a última variável.
+	 * @return Trecho literal. Pode ser vazio.
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
+	/**
+	 * Verifica se todas as variáveis têm tipo pré-definido.
+	 * @return <code>true</code> se o padrão não usa expressão regular livre.
+	 */
+	public boolean isTyped() {
+		return typed;
+	}
     
 }
@@ -0,0 +1,248 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tipo pré-definido de uma variável de um {@link StringPattern}.
+ * <p>Um tipo é identificado pelo nome usado no lugar da expressão
+ * regular, por exemplo <code>{id:int}</code>. O valor é verificado
+ * caractere a caractere, sem expressão regular, e entregue já convertido
+ * para o tipo da variável.</p>
+ *
+ * @author Brandao
+ */
+public abstract class StringPatternType {
+
+	/**
+	 * Número inteiro com sinal de 32 bits. O valor é um {@link Integer}.
+	 */
+	public static final StringPatternType INT = new StringPatternType("int", "-?\\d+"){
+
+		public boolean matches(CharSequence value, int start, int end){
+			return isNumber(value, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+
+		public Object getValue(String value, int start, int end){
+			return Integer.valueOf((int)toNumber(value, start, end));
+		}
+
+	};
+
+	/**
+	 * Número inteiro com sinal de 64 bits. O valor é um {@link Long}.
+	 */
+	public static final StringPatternType LONG = new StringPatternType("long", "-?\\d+"){
+
+		public boolean matches(CharSequence value, int start, int end){
+			return isNumber(value, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+
+		public Object getValue(String value, int start, int end){
+			return Long.valueOf(toNumber(value, start, end));
+		}
+
+	};
+
+	/**
+	 * Identificador no formato 8-4-4-4-12 em hexadecimal.
+	 */
+	public static final StringPatternType UUID = new StringPatternType("uuid",
+			"[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"){
+
+		public boolean matches(CharSequence value, int start, int end){
+
+			if(end - start != 36){
+				return false;
+			}
+
+			for(int i=0;i<36;i++){
+				char c = value.charAt(start + i);
+
+				if(i == 8 || i == 13 || i == 18 || i == 23){
+					if(c != '-'){
+						return false;
+					}
+				}
+				else
+				if(!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f') && !(c >= 'A' && c <= 'F')){
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+	};
+
+	/**
+	 * Qualquer valor não vazio que não contenha o separador de segmentos.
+	 */
+	public static final StringPatternType SEGMENT = new StringPatternType("segment", "[^/]+"){
+
+		public boolean matches(CharSequence value, int start, int end){
+
+			if(start == end){
+				return false;
+			}
+
+			for(int i=start;i<end;i++){
+				if(value.charAt(i) == '/'){
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+	};
+
+	/**
+	 * Letras, dígitos e sublinhado. Usado quando a variável não
+	 * define uma expressão, equivale a <code>\w{1,}</code>.
+	 */
+	public static final StringPatternType WORD = new StringPatternType(null, "\\w{1,}"){
+
+		public boolean matches(CharSequence value, int start, int end){
+
+			if(start == end){
+				return false;
+			}
+
+			for(int i=start;i<end;i++){
+				char c = value.charAt(i);
+				if(!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') &&
+						!(c >= '0' && c <= '9') && c != '_'){
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+	};
+
+	private static final Map<String, StringPatternType> types;
+
+	static{
+		types = new HashMap<String, StringPatternType>();
+		types.put(INT.getName(),     INT);
+		types.put(LONG.getName(),    LONG);
+		types.put(UUID.getName(),    UUID);
+		types.put(SEGMENT.getName(), SEGMENT);
+	}
+
+	private final String name;
+
+	private final String regex;
+
+	protected StringPatternType(String name, String regex){
+		this.name  = name;
+		this.regex = regex;
+	}
+
+	/**
+	 * Obtém o tipo associado ao nome.
+	 * @param name Nome do tipo.
+	 * @return Tipo ou <code>null</code>.
+	 */
+	public static StringPatternType valueOf(String name){
+		return name == null? null : types.get(name.trim());
+	}
+
+	public String getName(){
+		return this.name;
+	}
+
+	/**
+	 * Obtém a expressão regular equivalente ao tipo. É usada quando
+	 * o padrão tem mais de uma variável.
+	 * @return Expressão regular.
+	 */
+	public String getRegex(){
+		return this.regex;
+	}
+
+	/**
+	 * Verifica se o trecho do valor é aceito pelo tipo.
+	 * @param value Valor.
+	 * @param start Início do trecho.
+	 * @param end Fim do trecho.
+	 * @return <code>true</code> se o trecho é aceito.
+	 */
+	public abstract boolean matches(CharSequence value, int start, int end);
+
+	/**
+	 * Obtém o valor do trecho já convertido. O trecho deve ter
+	 * sido aceito pelo tipo.
+	 * @param value Valor.
+	 * @param start Início do trecho.
+	 * @param end Fim do trecho.
+	 * @return Valor convertido.
+	 */
+	public Object getValue(String value, int start, int end){
+		return value.substring(start, end);
+	}
+
+	private static boolean isNumber(CharSequence value, int start, int end,
+			long min, long max){
+
+		boolean negative = start < end && value.charAt(start) == '-';
+		int i            = negative? start + 1 : start;
+		long limit       = negative? min : -max;
+		long multmin     = limit / 10;
+		long result      = 0;
+
+		if(i == end){
+			return false;
+		}
+
+		//acumula em negativo para aceitar o menor valor do tipo.
+		for(;i<end;i++){
+			char c = value.charAt(i);
+
+			if(c < '0' || c > '9' || result < multmin){
+				return false;
+			}
+
+			result *= 10;
+
+			if(result < limit + (c - '0')){
+				return false;
+			}
+
+			result -= c - '0';
+		}
+
+		return true;
+	}
+
+	private static long toNumber(CharSequence value, int start, int end){
+		boolean negative = value.charAt(start) == '-';
+		long result      = 0;
+
+		for(int i=negative? start + 1 : start;i<end;i++){
+			result = result*10 - (value.charAt(i) - '0');
+		}
+
+		return negative? result : -result;
+	}
+
+}
@@ -39,8 +39,32 @@ public class StringPatternVar {
         
         private int index;
         
+        private StringPatternType type;
+        
+        public StringPatternVar(int index, String id, Pattern regex, 
+        		String start, String end, StringPatternType type){
+        	this(index, id, regex, start, end, null, null, type);
+        }
+        
+        /**
+         * @deprecated Os valores são extraídos pela expressão do padrão.
+         * Os padrões de prefixo e sufixo não são usados.
+         */
+        @Deprecated
         public StringPatternVar(int index, String id, Pattern regex, 
         		String start, String end, Pattern regexPrefix, Pattern regexSuffix ){
+        	this(index, id, regex, start, end, regexPrefix, regexSuffix, null);
+        }
+        
+        /**
+         * @deprecated Os valores são extraídos pela expressão do padrão.
+         * Os padrões de prefixo e sufixo não são usados.
+         */
+        @Deprecated
+        public StringPatternVar(int index, String id, Pattern regex, 
+        		String start, String end, Pattern regexPrefix, Pattern regexSuffix,
+        		StringPatternType type){
+        	this.type        = type;
             this.id          = id;
             this.start       = start;
             this.end         = end;
@@ -90,18 +114,30 @@ public class StringPatternVar {
 			this.regex = regex;
 		}
 
+		/**
+		 * @deprecated Não é usado. É <code>null</code> nas variáveis
+		 * criadas por {@link StringPattern}.
+		 */
+		@Deprecated
 		public Pattern getRegexPrefix() {
 			return regexPrefix;
 		}
 
+		@Deprecated
 		public void setRegexPrefix(Pattern regexPrefix) {
 			this.regexPrefix = regexPrefix;
 		}
 
+		/**
+		 * @deprecated Não é usado. É <code>null</code> nas variáveis
+		 * criadas por {@link StringPattern}.
+		 */
+		@Deprecated
 		public Pattern getRegexSuffix() {
 			return regexSuffix;
 		}
 
+		@Deprecated
 		public void setRegexSuffix(Pattern regexSuffix) {
 			this.regexSuffix = regexSuffix;
 		}
@@ -110,6 +146,14 @@ public class StringPatternVar {
 			return index;
 		}
 
+		public StringPatternType getType() {
+			return type;
+		}
+
+		public void setType(StringPatternType type) {
+			this.type = type;
+		}
+
 		public void setIndex(int index) {
 			this.index = index;
 		}
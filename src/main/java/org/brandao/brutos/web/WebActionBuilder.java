@@ -257,6 +257,52 @@ public class WebActionBuilder extends ActionBuilder{
 		return ((WebAction)this.action).getResponseStatus();
 	}
 	
+	public ActionBuilder setAsyncExecutor(AsyncExecutorType value){
+		((WebAction)this.action).setAsyncExecutor(value);
+		return this;
+	}
+
+	public AsyncExecutorType getAsyncExecutor(){
+		return ((WebAction)this.action).getAsyncExecutor();
+	}
+	
+	public ActionBuilder setAsyncPriority(String value){
+		((WebAction)this.action).setAsyncPriority(StringUtil.adjust(value));
+		return this;
+	}
+
+	public String getAsyncPriority(){
+		return ((WebAction)this.action).getAsyncPriority();
+	}
+	
+	public ActionBuilder setAsyncTimeout(long value){
+		
+		if(value < 0){
+			throw new MappingException("invalid async timeout");
+		}
+		
+		((WebAction)this.action).setAsyncTimeout(value);
+		return this;
+	}
+
+	public long getAsyncTimeout(){
+		return ((WebAction)this.action).getAsyncTimeout();
+	}
+	
+	public ActionBuilder setAsyncTimeoutStatus(int value){
+		
+		if(value != 0 && (value < 100 || value > 599)){
+			throw new MappingException("invalid async timeout status");
+		}
+		
+		((WebAction)this.action).setAsyncTimeoutStatus(value);
+		return this;
+	}
+
+	public int getAsyncTimeoutStatus(){
+		return ((WebAction)this.action).getAsyncTimeoutStatus();
+	}
+	
 	public int getResponseError(Class<? extends Throwable> type){
 		return ((WebAction)this.action).getResponseErrors().get(type);
 	}
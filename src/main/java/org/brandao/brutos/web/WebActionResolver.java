@@ -22,14 +22,16 @@ import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.brandao.brutos.AbstractActionResolver;
 import org.brandao.brutos.ActionResolverException;
 import org.brandao.brutos.ActionTypeResolver;
+import org.brandao.brutos.BrutosException;
 import org.brandao.brutos.ControllerManager;
 import org.brandao.brutos.DefaultMvcRequest;
 import org.brandao.brutos.DefaultResourceAction;
@@ -41,10 +43,15 @@ import org.brandao.brutos.mapping.Controller;
 import org.brandao.brutos.mapping.ControllerID;
 import org.brandao.brutos.web.mapping.RequestEntry;
 import org.brandao.brutos.web.mapping.RequestMappingEntry;
-import org.brandao.brutos.web.mapping.RequestMappingNode;
+import org.brandao.brutos.web.mapping.PathParameters;
+import org.brandao.brutos.web.mapping.RadixRequestMappingTree;
+import org.brandao.brutos.web.mapping.RequestMappingTree;
+import org.brandao.brutos.web.mapping.TrieRequestMappingTree;
 import org.brandao.brutos.web.mapping.WebAction;
 import org.brandao.brutos.web.mapping.WebActionID;
 import org.brandao.brutos.web.mapping.WebController;
+import org.brandao.brutos.web.util.FrequencySketch;
+import org.brandao.brutos.web.util.StripedLRUCache;
 import org.brandao.brutos.web.util.WebUtil;
 
 /**
@@ -54,20 +61,159 @@ import org.brandao.brutos.web.util.WebUtil;
 @SuppressWarnings("unused")
 public class WebActionResolver extends AbstractActionResolver{
     
-	private RequestMappingNode root;
+	private volatile RequestMappingTree tree;
 	
-	private SimpleResourceCache cache;
+	private StripedLRUCache<ResourceKey, RequestEntry> cache;
+	
+	private StripedLRUCache<ResourceKey, Boolean> negativeCache;
+	
+	private FrequencySketch missSketch;
+	
+	private int negativeCacheAdmission;
+	
+	private final AtomicLong unknownResourceCount;
+	
+	private final AtomicLong rejectedMissCount;
+	
+	private boolean templateCache;
 	
     public WebActionResolver(){
     	super();
-    	this.root = new RequestMappingNode();
+    	this.tree = new TrieRequestMappingTree();
     	this.addActionTypeResolver(WebActionType.PARAMETER,  new ParamActionTypeResolver());
     	this.addActionTypeResolver(WebActionType.HIERARCHY,  new HierarchyActionTypeResolver());
     	this.addActionTypeResolver(WebActionType.DETACHED,   new DetachedActionTypeResolver());
     	this.addActionTypeResolver(WebActionType.HEADER,     new HeaderActionTypeResolver());
-    	this.cache = new SimpleResourceCache(300);
+    	this.cache = new StripedLRUCache<ResourceKey, RequestEntry>(
+    			BrutosWebConstants.DEFAULT_ACTION_RESOLVER_CACHE_SIZE);
+    	this.negativeCache = new StripedLRUCache<ResourceKey, Boolean>(
+    			BrutosWebConstants.DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_SIZE);
+    	this.missSketch = new FrequencySketch(
+    			BrutosWebConstants.DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_SIZE);
+    	this.negativeCacheAdmission = 
+    			BrutosWebConstants.DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_ADMISSION;
+    	this.unknownResourceCount = new AtomicLong();
+    	this.rejectedMissCount = new AtomicLong();
+    	this.templateCache = false;
     }
     
+    public void configure(Properties config){
+    	String value = 
+			config.getProperty(
+				BrutosWebConstants.ACTION_RESOLVER_CACHE_SIZE,
+				String.valueOf(BrutosWebConstants.DEFAULT_ACTION_RESOLVER_CACHE_SIZE));
+    	
+    	int capacity = Integer.parseInt(value.trim());
+    	
+    	if(capacity != this.cache.getCapacity()){
+    		this.cache = new StripedLRUCache<ResourceKey, RequestEntry>(capacity);
+    	}
+    	
+    	value = 
+			config.getProperty(
+				BrutosWebConstants.ACTION_RESOLVER_NEGATIVE_CACHE_SIZE,
+				String.valueOf(BrutosWebConstants.DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_SIZE));
+    	
+    	capacity = Integer.parseInt(value.trim());
+    	
+    	if(capacity != this.negativeCache.getCapacity()){
+    		this.negativeCache = new StripedLRUCache<ResourceKey, Boolean>(capacity);
+    		this.missSketch    = new FrequencySketch(capacity);
+    	}
+    	
+    	value = 
+			config.getProperty(
+				BrutosWebConstants.ACTION_RESOLVER_NEGATIVE_CACHE_ADMISSION,
+				String.valueOf(BrutosWebConstants.DEFAULT_ACTION_RESOLVER_NEGATIVE_CACHE_ADMISSION));
+    	
+    	int admission = Integer.parseInt(value.trim());
+    	
+    	if(admission < 1 || admission > FrequencySketch.MAX_FREQUENCY){
+    		throw new BrutosException("invalid negative cache admission: " + admission);
+    	}
+    	
+    	this.negativeCacheAdmission = admission;
+    	
+    	String mode = 
+			config.getProperty(
+				BrutosWebConstants.ACTION_RESOLVER_CACHE_MODE,
+				BrutosWebConstants.DEFAULT_ACTION_RESOLVER_CACHE_MODE).trim();
+    	
+    	if("template".equals(mode)){
+    		this.templateCache = true;
+    	}
+    	else
+    	if("request".equals(mode)){
+    		this.templateCache = false;
+    	}
+    	else{
+    		throw new BrutosException("invalid cache mode: " + mode);
+    	}
+    	
+    	String router = 
+			config.getProperty(
+				BrutosWebConstants.ACTION_RESOLVER_ROUTER,
+				BrutosWebConstants.DEFAULT_ACTION_RESOLVER_ROUTER).trim();
+    	
+    	//a tabela é configurada antes do registro das ações.
+    	RequestMappingTree tree;
+    	
+    	if("trie".equals(router)){
+    		tree = new TrieRequestMappingTree(this.templateCache);
+    	}
+    	else
+    	if("radix".equals(router)){
+    		//somente a árvore de segmentos tem o índice de modelos.
+    		if(this.templateCache){
+    			throw new BrutosException(
+    					"cache mode template is not supported by router: " + router);
+    		}
+    		
+    		tree = new RadixRequestMappingTree();
+    	}
+    	else{
+    		throw new BrutosException("invalid router: " + router);
+    	}
+    	
+    	this.tree = tree;
+    }
+    
+    public StripedLRUCache<?, ?> getCache(){
+    	return this.cache;
+    }
+    
+    public StripedLRUCache<?, ?> getNegativeCache(){
+    	return this.negativeCache;
+    }
+    
+    /**
+     * Obtém o número de requisições que não correspondem a nenhuma rota.
+     * @return Número de requisições.
+     */
+    public long getUnknownResourceCount(){
+    	return this.unknownResourceCount.get();
+    }
+    
+    /**
+     * Obtém o número de requisições sem rota que não foram admitidas
+     * no cache negativo por serem pouco frequentes.
+     * @return Número de requisições.
+     */
+    public long getRejectedMissCount(){
+    	return this.rejectedMissCount.get();
+    }
+    
+    /**
+     * Obtém a proporção das requisições que não correspondem a nenhuma
+     * rota. Um valor alto indica uma varredura de URLs.
+     * @return Proporção entre 0 e 1.
+     */
+    public double getUnknownResourceRate(){
+    	long requests = this.cache.getHitCount() + this.cache.getMissCount();
+    	return requests == 0? 0.0 : (double)this.unknownResourceCount.get() / (double)requests;
+    }
+    
+    
 	public ResourceAction getResourceAction(Action action, MutableMvcRequest request) throws ActionResolverException {
 		WebAction webAction = (WebAction)action;
 		WebController webController = (WebController)action.getController();
@@ -89,28 +235,54 @@ public class WebActionResolver extends AbstractActionResolver{
 			
 			RequestEntry entry = this.cache.get(key);
 			
-			if(entry != null){
+			if(entry == null){
 				
-				if(entry instanceof EmptyWebResourceAction){
+				if(this.negativeCache.get(key) != null){
+					this.unknownResourceCount.incrementAndGet();
 					return null;
 				}
 				
+				RequestMappingTree tree = this.tree;
+				entry = tree.get(id, methodType);
+				
+				//no modo template, as rotas com variáveis são resolvidas
+				//pelo índice de modelos da árvore.
+				if(entry == null){
+					this.unknownResourceCount.incrementAndGet();
+					this.putMiss(key);
+				}
+				else
+				if(!this.templateCache || entry.getParameters() == null){
+					this.cache.put(key, entry);
+				}
+				
+				//a tabela foi substituída durante a busca.
+				if(tree != this.tree){
+					this.cache.remove(key);
+					this.negativeCache.remove(key);
+				}
 			}
-			else{
-				entry = this.get(request.getRequestId(), webRequest.getRequestMethodType(), request);
-				this.cache.put(key, entry == null? emptyWebResourceAction : entry);
+			
+			if(entry != null && entry.getRequestMappingEntry() == null){
+				//o caminho existe, mas não para o método da requisição.
+				throw new RequestMethodException(
+						methodType.getId(), entry.getAllowedMethods());
 			}
 			
 			if(entry != null){
 				
-				Map<String, List<String>> params = entry.getParameters();
+				PathParameters params = entry.getParameters();
 				
+				//os valores são compartilhados com a entrada em cache.
 				if(params != null){
-			        for(String k: params.keySet() ){
-			        	for(String v: params.get(k)){
-			        		request.setParameter(k, v);
-			        	}
-			        }
+					if(request instanceof MutableWebMvcRequest){
+						((MutableWebMvcRequest)request).setPathParameters(params);
+					}
+					else{
+						for(int i=0;i<params.size();i++){
+							request.setParameter(params.getName(i), params.getValue(i));
+						}
+					}
 				}
 				
 				if(entry.getRequestMappingEntry().getAction() == null){
@@ -131,6 +303,9 @@ public class WebActionResolver extends AbstractActionResolver{
 			
 			return null;
 		}
+		catch(RequestMethodException e){
+			throw e;
+		}
 		catch(Throwable e){
 			throw new ActionResolverException(e);			
 		}
@@ -164,7 +339,11 @@ public class WebActionResolver extends AbstractActionResolver{
 						(WebAction)action);
 	}
 	
-    public void registry(ControllerID controllerID, Controller controller, 
+    /**
+     * Registra as identificações de uma ação. As alterações são feitas
+     * em uma cópia da tabela de rotas, publicada ao final do registro.
+     */
+    public synchronized void registry(ControllerID controllerID, Controller controller, 
     		ActionID actionID, Action action) throws ActionResolverException{
     	
     	try{
@@ -176,22 +355,23 @@ public class WebActionResolver extends AbstractActionResolver{
 	    		return;
 	    	}
 	    	
+	    	RequestMappingTree tree = this.tree.copy();
+	    	
 	    	for(ActionID aID: list){
 	    		WebActionID aWID = (WebActionID)aID;
-		    	String[] parts   = WebUtil.parserURI(aWID.getId(), true).toArray(new String[0]);
-		    	
-		    	boolean added =
-		    			this.addNode(
-	    					this.root, 
+		    	boolean added    =
+		    			tree.add(
+	    					aWID.getId(), 
 	    					new RequestMappingEntry(
 	    							aWID.getRequestMethodType(), 
-	    							controller, action),
-							parts, 0);
+	    							controller, action));
 		    	
 		    	if(!added){
 		    		throw new ActionResolverException("action has been added: " + aWID);
 		    	}
 	    	}
+	    	
+	    	this.publish(tree);
     	}
     	catch(ActionResolverException e){
     		throw e;    		
@@ -204,18 +384,42 @@ public class WebActionResolver extends AbstractActionResolver{
 
     public RequestEntry get(String value, RequestMethodType methodType, 
     		MutableMvcRequest request) throws MalformedURLException{
+    	return this.tree.get(value, methodType);
+    }
+    
+    public RequestMappingTree getRequestMappingTree(){
+    	return this.tree;
+    }
+    
+    private void publish(RequestMappingTree tree){
+    	this.tree = tree;
+    	this.cache.clear();
+    	this.negativeCache.clear();
+    }
+    
+    /*
+     * As requisições sem rota ficam em um cache separado, logo não
+     * descartam as rotas do cache principal. Somente as que se repetem
+     * são admitidas, para que uma varredura de URLs únicas não descarte
+     * as entradas frequentes do cache negativo.
+     */
+    private void putMiss(ResourceKey key){
+    	FrequencySketch sketch = this.missSketch;
+    	sketch.increment(key);
     	
-    	String[] parts = WebUtil.parserURI(value, false).toArray(new String[0]);
-    	
-    	if(parts.length == 0){
-        	return new RequestEntry(this.root.getRequestEntry(methodType), null);
+    	if(sketch.frequency(key) >= this.negativeCacheAdmission){
+    		this.negativeCache.put(key, Boolean.TRUE);
     	}
     	else{
-    		return this.getNode(this.root, methodType, request, parts, 0);
+    		this.rejectedMissCount.incrementAndGet();
     	}
     }
     
-    public void remove(ControllerID controllerID, Controller controller, 
+    /**
+     * Remove as identificações de uma ação. As alterações são feitas
+     * em uma cópia da tabela de rotas, publicada ao final da remoção.
+     */
+    public synchronized void remove(ControllerID controllerID, Controller controller, 
     		ActionID actionID, Action action) throws ActionResolverException{
     	
     	try{
@@ -223,22 +427,24 @@ public class WebActionResolver extends AbstractActionResolver{
 				controller.getActionType()
 				.getIDs(controllerID, controller, actionID, action);
 	
+	    	RequestMappingTree tree = this.tree.copy();
+	    	
 	    	for(ActionID aID: list){
 	    		WebActionID aWID = (WebActionID)aID;
-		    	String[] parts   = WebUtil.parserURI(aWID.getId(), true).toArray(new String[0]);
-		    	boolean removed =
-	    			this.removeNode(
-	    					this.root, 
+		    	boolean removed  =
+	    			tree.remove(
+	    					aWID.getId(), 
 	    					new RequestMappingEntry(
 	    							aWID.getRequestMethodType(), 
 	    							controller, 
-	    							action),
-							parts, 0);
+	    							action));
 		    	
 		    	if(!removed){
 		    		throw new ActionResolverException("action not found: " + aWID);
 		    	}
 	    	}
+	    	
+	    	this.publish(tree);
     	}
     	catch(Throwable e){
     		throw new ActionResolverException(e);    		
@@ -246,137 +452,8 @@ public class WebActionResolver extends AbstractActionResolver{
     	
     }
     
-    private boolean addNode(RequestMappingNode node,
-    		RequestMappingEntry value, String[] parts, int index) throws MalformedURLException{
-    	
-    	if(index == 0 && parts.length == 0){
-    		return node.putRequestEntry(value.getRequestMethodType(), value);
-    	}
-    	else
-    	if(index == parts.length){
-    		return node.putRequestEntry(value.getRequestMethodType(), value);
-    	}
-    	else{
-    		RequestMappingNode next = node.getNextToAdd(parts[index]);
-    		if(next == null){
-    			next = node.add(parts[index], null);
-    		}
-    		return this.addNode(next, value, parts, index + 1);
-    	}
-    	
-    }
-
-    private RequestEntry getNode(RequestMappingNode node, 
-    		 RequestMethodType methodType, MutableMvcRequest request, String[] parts, int index) throws MalformedURLException{
-    	
-    	if(index == 0 && parts.length == 0){
-    		RequestMappingEntry rme = node.getRequestEntry(methodType);
-    		return rme == null? 
-    				null :
-					new RequestEntry(
-						node.getRequestEntry(methodType), 
-						node.getRequestParameters(request, parts[index-1]));
-    	}
-    	else
-    	if(index == parts.length){
-    		RequestMappingEntry rme = node.getRequestEntry(methodType);
-    		return rme == null? 
-    				null : 
-					new RequestEntry(
-							node.getRequestEntry(methodType), 
-							node.getRequestParameters(request, parts[index-1]));
-    	}
-    	else{
-    		RequestMappingNode next = node.getNext(parts[index]);
-    		
-    		if(next == null){
-    			return null;
-    		}
-    		
-    		RequestEntry e = this.getNode(next, methodType, request, parts, index + 1);
-    		
-    		if(e != null && !node.isStaticValue()){
-    			Map<String, List<String>> params     =  e.getParameters();
-    			Map<String, List<String>> nodeParams = node.getRequestParameters(request, parts[index-1]);
-    			
-    			if(params != null){
-    				
-    				if(nodeParams != null){
-    					params.putAll(nodeParams);
-    				}
-    				
-    			}
-    			else
-    			if(nodeParams != null){
-    				e.setParameters(nodeParams);
-    			}
-    			
-    			//e.setParameters(next.getRequestParameters(request, parts[index]));
-    			//next.updateRequest(request, parts[index]);
-    		}
-    		
-    		return e;
-    	}
-    	
-    }
-    
-    private boolean removeNode(RequestMappingNode node, 
-    		RequestMappingEntry value, String[] parts, int index){
-    	
-    	if(index == 0 && parts.length == 0){
-    		return node.removeRequestEntry(value.getRequestMethodType());
-    	}
-    	else
-    	if(index == parts.length){
-    		return node.removeRequestEntry(value.getRequestMethodType());
-    	}
-    	else{
-    		RequestMappingNode next = node.getNext(parts[index]);
-    		if(next == null){
-    			return false;
-    		}
-    		
-			boolean removed = 
-				this.removeNode(next, value, parts, index + 1);
-			
-			if(next.isEmpty()){
-				node.remove(parts[index]);
-			}
-    		
-			return removed;
-    	}
-    	
-    }
-    
     /* cache */
     
-    private static final EmptyWebResourceAction emptyWebResourceAction = new EmptyWebResourceAction();
-    
-    private static class EmptyWebResourceAction extends RequestEntry {
-
-		public EmptyWebResourceAction() {
-			super(null, null);
-		}
-    	    	
-    }
-    
-    private static class SimpleResourceCache extends LinkedHashMap<ResourceKey, RequestEntry>{
-        
-		private static final long serialVersionUID = 7702944317773359399L;
-		
-		private int maxSize;
-        
-    	public SimpleResourceCache(int capacity) {
-            super(capacity, 0.75f, true);
-            this.maxSize = capacity;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<ResourceKey, RequestEntry> eldest) {
-            return super.size() > maxSize;
-        }
-    }
-    
     private static class ResourceKey implements Serializable{
     	
 		private static final long serialVersionUID = -5567615660615057030L;
@@ -424,4 +501,5 @@ public class WebActionResolver extends AbstractActionResolver{
 		}
     	
     }
+    
 }
@@ -35,4 +35,6 @@ public interface WebApplicationContext extends ApplicationContext{
 
     int getResponseError();
     
+    AsyncExecutors getAsyncExecutors();
+    
 }
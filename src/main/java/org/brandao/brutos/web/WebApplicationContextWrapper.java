@@ -101,6 +101,11 @@ public class WebApplicationContextWrapper
 		return applicationContext.getContext();
 	}
 
+	@Override
+	public AsyncExecutors getAsyncExecutors() {
+		return applicationContext.getAsyncExecutors();
+	}
+
 	@Override
 	public void destroy() {
 		applicationContext.destroy();
@@ -18,6 +18,7 @@
 package org.brandao.brutos.web;
 
 import org.brandao.brutos.ConfigurableRenderViewImp;
+import org.brandao.brutos.web.http.view.AsyncRenderViewType;
 import org.brandao.brutos.web.http.view.JSPRenderView;
 import org.brandao.brutos.web.http.view.JsonRenderView;
 
@@ -29,8 +30,10 @@ import org.brandao.brutos.web.http.view.JsonRenderView;
 public class WebConfigurableRenderViewImp extends ConfigurableRenderViewImp{
 
 	public WebConfigurableRenderViewImp(){
-		super.registryRenderView(MediaType.TEXT_HTML,        new JSPRenderView());
-		super.registryRenderView(MediaType.APPLICATION_JSON, new JsonRenderView());
+		super.registryRenderView(MediaType.TEXT_HTML,        new AsyncRenderViewType(new JSPRenderView()));
+		super.registryRenderView(MediaType.APPLICATION_JSON, new AsyncRenderViewType(new JsonRenderView()));
+		super.registryRenderView(MediaType.APPLICATION_X_NDJSON, 
+				new AsyncRenderViewType(new JsonRenderView(MediaType.APPLICATION_X_NDJSON)));
 	}
 	
 }
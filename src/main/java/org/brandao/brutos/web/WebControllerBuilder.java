@@ -383,4 +383,64 @@ public class WebControllerBuilder extends ControllerBuilder{
 		return ((WebController)this.controller).getResponseStatus();
 	}
 	
+	public ControllerBuilder setAsyncExecutor(AsyncExecutorType value){
+		((WebController)this.controller).setAsyncExecutor(value);
+		return this;
+	}
+
+	public AsyncExecutorType getAsyncExecutor(){
+		return ((WebController)this.controller).getAsyncExecutor();
+	}
+	
+	public ControllerBuilder setAsyncExecutorThreads(int value){
+		
+		if(value < 0){
+			throw new MappingException("invalid async executor threads");
+		}
+		
+		((WebController)this.controller).setAsyncExecutorThreads(value);
+		return this;
+	}
+
+	public int getAsyncExecutorThreads(){
+		return ((WebController)this.controller).getAsyncExecutorThreads();
+	}
+	
+	public ControllerBuilder setAsyncPriority(String value){
+		((WebController)this.controller).setAsyncPriority(StringUtil.adjust(value));
+		return this;
+	}
+
+	public String getAsyncPriority(){
+		return ((WebController)this.controller).getAsyncPriority();
+	}
+	
+	public ControllerBuilder setAsyncTimeout(long value){
+		
+		if(value < 0){
+			throw new MappingException("invalid async timeout");
+		}
+		
+		((WebController)this.controller).setAsyncTimeout(value);
+		return this;
+	}
+
+	public long getAsyncTimeout(){
+		return ((WebController)this.controller).getAsyncTimeout();
+	}
+	
+	public ControllerBuilder setAsyncTimeoutStatus(int value){
+		
+		if(value != 0 && (value < 100 || value > 599)){
+			throw new MappingException("invalid async timeout status");
+		}
+		
+		((WebController)this.controller).setAsyncTimeoutStatus(value);
+		return this;
+	}
+
+	public int getAsyncTimeoutStatus(){
+		return ((WebController)this.controller).getAsyncTimeoutStatus();
+	}
+	
 }
@@ -19,6 +19,7 @@ package org.brandao.brutos.web;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -46,10 +47,7 @@ import org.brandao.brutos.mapping.Controller;
 import org.brandao.brutos.mapping.DataTypeMap;
 import org.brandao.brutos.scope.Scope;
 import org.brandao.brutos.web.mapping.MediaTypeMap;
-import org.brandao.brutos.web.scope.HeaderScope;
-import org.brandao.brutos.web.scope.ParamScope;
-import org.brandao.brutos.web.scope.RequestScope;
-import org.brandao.brutos.web.scope.SessionScope;
+import org.brandao.brutos.web.mapping.RequestEntry;
 
 /**
  * 
@@ -62,14 +60,12 @@ public class WebInvoker extends Invoker{
     	
     	WebMvcRequestImp webRequest   = new WebMvcRequestImp((HttpServletRequest)request);
     	WebMvcResponseImp webResponse = new WebMvcResponseImp((HttpServletResponse)response, webRequest);
+    	RequestContext previous       = 
+    			new RequestContext(request, webRequest, webResponse, chain).bind();
     	
     	try{
         	webRequest.setAttribute(BrutosWebConstants.REQUEST, webRequest);
         	webRequest.setAttribute(BrutosWebConstants.RESPONSE, webResponse);
-    		SessionScope.setServletRequest(request);
-    		ParamScope.setRequest(webRequest);
-    		RequestScope.setRequest(webRequest);
-    		HeaderScope.setRequest(webRequest);
 
             if(!this.invoke(webRequest, webResponse)){
                 if(chain == null)
@@ -80,11 +76,19 @@ public class WebInvoker extends Invoker{
     		
     	}
     	catch(InvokerException e){
+    		RequestMethodException methodException = getRequestMethodException(e);
+    		
     		if(e.getCause() instanceof RequestTypeException){
         		response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
     		}
     		else
-    		if(e.getCause() instanceof RequestMethodException){
+    		if(methodException != null){
+    			String allow = toAllowHeader(methodException.getAllowedMethods());
+    			
+    			if(allow != null){
+    				response.setHeader("Allow", allow);
+    			}
+    			
         		response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
     		}
     		else
@@ -96,10 +100,7 @@ public class WebInvoker extends Invoker{
     		}
     	}
     	finally{
-    		SessionScope.removeServletRequest(request);
-    		ParamScope.removeRequest(webRequest);
-    		RequestScope.removeRequest(webRequest);
-    		HeaderScope.removeRequest(webRequest);
+    		RequestContext.restore(previous);
     	}
     }
 
@@ -202,17 +203,21 @@ public class WebInvoker extends Invoker{
 	protected boolean resolveAction(MutableMvcRequest request, 
 			MutableMvcResponse response){
 		
-		if(!super.resolveAction(request, response)){
-			return false;
-		}
-		
 		try{
+			//o resolvedor lança RequestMethodException quando o caminho
+			//existe, mas não para o método da requisição.
+			if(!super.resolveAction(request, response)){
+				return false;
+			}
+			
 	    	WebMvcRequest webRequest         = (WebMvcRequest)request;
 			WebResourceAction resourceAction = (WebResourceAction)request.getResourceAction();
 			RequestMethodType requestMethod  = resourceAction.getRequestMethod();
 			
 			if(!webRequest.getRequestMethodType().equals(requestMethod)){
-				throw new RequestMethodException(webRequest.getRequestMethodType().getId());
+				throw new RequestMethodException(
+						webRequest.getRequestMethodType().getId(), 
+						this.getAllowedMethods(request, requestMethod));
 			}
 			
 			return true;
@@ -226,6 +231,56 @@ public class WebInvoker extends Invoker{
 		
 	}
     
+	/*
+	 * Obtém os métodos aceitos pelo caminho da requisição. Se a tabela de 
+	 * rotas não for conhecida, somente o método da ação é aceito.
+	 */
+	private RequestMethodType[] getAllowedMethods(MutableMvcRequest request, 
+			RequestMethodType requestMethod) throws MalformedURLException{
+		
+		if(this.actionResolver instanceof WebActionResolver){
+			RequestEntry entry = 
+				((WebActionResolver)this.actionResolver)
+					.get(request.getRequestId(), requestMethod, request);
+			
+			if(entry != null && entry.getAllowedMethods() != null){
+				return entry.getAllowedMethods();
+			}
+		}
+		
+		return new RequestMethodType[]{requestMethod};
+	}
+	
+	private static RequestMethodException getRequestMethodException(Throwable e){
+		
+		while(e != null){
+			if(e instanceof RequestMethodException){
+				return (RequestMethodException)e;
+			}
+			e = e.getCause() == e? null : e.getCause();
+		}
+		
+		return null;
+	}
+	
+	private static String toAllowHeader(RequestMethodType[] allowedMethods){
+		
+		if(allowedMethods == null || allowedMethods.length == 0){
+			return null;
+		}
+		
+		StringBuilder value = new StringBuilder();
+		
+		for(RequestMethodType type: allowedMethods){
+			if(value.length() != 0){
+				value.append(", ");
+			}
+			value.append(type.getName().toUpperCase());
+		}
+		
+		return value.toString();
+	}
+	
 	protected DataType selectResponseType(ResourceAction action, MutableMvcRequest request){
 		
     	DataTypeMap supportedResponseTypes = action.getResponseTypes();
@@ -239,25 +294,15 @@ public class WebInvoker extends Invoker{
     			return defaultDataType;
     		}
     		
-	    	for(DataType dataType: responseTypes){
-	    		if(defaultDataType.match((MediaType)dataType)){
-	    			return defaultDataType;
-	    		}
-	    	}
+    		if(AcceptHeader.getQuality(responseTypes, defaultDataType) > 0.0){
+    			return defaultDataType;
+    		}
 	    	
     	}
     	else{
+    		//o resultado é mantido pela ação para a mesma lista de tipos.
     		MediaTypeMap supportedMediaType = (MediaTypeMap)supportedResponseTypes;
-    		
-	    	for(DataType dataType: responseTypes){
-	    		MediaType selected = 
-    				supportedMediaType.getMatch((MediaType)dataType);
-	    			
-	    		if(selected != null){
-	    			return selected;
-	    		}
-	    	}
-	    	
+    		return supportedMediaType.getMatch(responseTypes);
     	}
     	
     	return null;
@@ -20,10 +20,8 @@ package org.brandao.brutos.web;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
@@ -45,7 +43,7 @@ import org.brandao.brutos.RequestParser;
 import org.brandao.brutos.RequestParserEvent;
 import org.brandao.brutos.ResourceAction;
 import org.brandao.brutos.StackRequestElement;
-import org.brandao.brutos.web.util.WebUtil;
+import org.brandao.brutos.web.mapping.PathParameters;
 
 /**
  * 
@@ -57,6 +55,10 @@ public class WebMvcRequestImp
 
     private RequestMethodType requestMethodType;
     
+    /*
+     * Mantém somente os parâmetros incluídos pela aplicação. É criado
+     * quando o primeiro parâmetro é incluído.
+     */
     private MutableMvcRequest request;
     
     private boolean acceptResponseLoaded;
@@ -65,58 +67,74 @@ public class WebMvcRequestImp
     
     private boolean requestMethodTypeLoaded;
     
+    private PathParameters pathParameters;
+    
+    private String requestId;
+    
+    private Throwable throwable;
+    
+    private DataType type;
+    
+    private ResourceAction resourceAction;
+    
+    private ApplicationContext applicationContext;
+    
+    private Object resource;
+    
+    private Object[] parameters;
+    
+    private RequestInstrument requestInstrument;
+    
+    private StackRequestElement stackRequestElement;
+    
+    private RequestParserEvent requestParserInfo;
+    
+    private RequestParser requestParser;
+    
+    private List<DataType> acceptResponse;
+    
+	/**
+	 * Cria a requisição. Os valores derivados da requisição HTTP, como o
+	 * método, a identificação e os tipos, são obtidos quando consultados.
+	 * @param request Requisição HTTP.
+	 */
 	public WebMvcRequestImp(HttpServletRequest request){
     	super(request);
-	    this.request                 = new DefaultMvcRequest();
-	    this.acceptResponseLoaded    = false;
-	    this.typeLoaded              = false;
-	    this.requestMethodTypeLoaded = false;
-	    this.request.setAcceptResponse(null);
     }
 
+	private MutableMvcRequest getMvcRequest(){
+		if(this.request == null){
+			this.request = new DefaultMvcRequest();
+		}
+		return this.request;
+	}
+
 	private HttpServletRequest _getRequest(){
 		return (HttpServletRequest) super.getRequest();
 	}
     
     private String parseRequestId(String path, String contextPath){
-        return path.substring( contextPath.length(), path.length() );
+        return contextPath == null || contextPath.length() == 0? 
+        		path : 
+    			path.substring( contextPath.length(), path.length() );
     }
     
 	private List<DataType> parseAcceptResponse(){
-    	List<DataType> result = new ArrayList<DataType>();
-    	
+		//a lista é compartilhada entre as requisições com o mesmo cabeçalho.
     	String accept = this._getRequest().getHeader(ACCEPT_REQUEST_HEADER);
-    	
-    	if(accept == null){
-    		return result;
-    	}
-    	
-    	Enumeration<String> values = WebUtil.toEnumeration(accept);
-    	
-    	while(values.hasMoreElements()){
-    		String value = values.nextElement();
-    		MediaType mediaType = MediaType.valueOf(value);
-    		result.add(mediaType);
-    	}
-    	
-    	Collections.sort(result, new Comparator<DataType>(){
-
-			public int compare(DataType o1, DataType o2) {
-				String q1 = ((MediaType)o1).getParams().get("q");
-				String q2 = ((MediaType)o2).getParams().get("q");
-				
-				double v1 = q1 == null? 1.0 : Double.parseDouble(q1);
-				double v2 = q2 == null? 1.0 : Double.parseDouble(q2);
-				return (int)(v1 - v2);
-			}
-    		
-    	});
-    	
-    	return result;
+    	return AcceptHeader.getMediaTypes(accept);
     }
     
 	/* MutableWebMvcRequest */
 
+	public void setPathParameters(PathParameters value) {
+		this.pathParameters = value;
+	}
+
+	public PathParameters getPathParameters() {
+		return this.pathParameters;
+	}
+
 	public void setRequestMethodType(RequestMethodType requestMethodType) {
 		this.requestMethodType = requestMethodType;
 		this.requestMethodTypeLoaded = true;
@@ -133,7 +151,7 @@ public class WebMvcRequestImp
 	}
 
 	public String getRequestId() {
-		String id = this.request.getRequestId();
+		String id = this.requestId;
 		
 		if(id == null){
 			HttpServletRequest r = this._getRequest();
@@ -149,18 +167,18 @@ public class WebMvcRequestImp
 						this._getRequest().getRequestURI(), 
 						this._getRequest().getContextPath());
 			}
-			this.request.setRequestId(id);
+			this.requestId = id;
 		}
 		
 		return id;
 	}
 
 	public void setRequestId(String requestId) {
-		this.request.setRequestId(requestId);
+		this.requestId = requestId;
 	}
 
 	public Throwable getThrowable() {
-		return this.request.getThrowable();
+		return this.throwable;
 	}
 
 	public Object getProperty(String name) {
@@ -199,7 +217,15 @@ public class WebMvcRequestImp
 	
 	@SuppressWarnings("unchecked")
 	public Set<String> getParametersNames(){
-		Set<String> set = new HashSet<String>(this.request.getParametersNames());
+		Set<String> set = 
+			this.request == null? 
+				new HashSet<String>() : 
+				new HashSet<String>(this.request.getParametersNames());
+		
+		if(this.pathParameters != null){
+			set.addAll(this.pathParameters.getNames());
+		}
+		
 		Enumeration<String> names = this._getRequest().getParameterNames();
 		while(names.hasMoreElements()){
 			String name = names.nextElement();
@@ -211,39 +237,39 @@ public class WebMvcRequestImp
 	public DataType getType() {
 		if(!this.typeLoaded){
 			DataType type = MediaType.valueOf(this._getRequest().getContentType());
-			this.request.setType(type);
+			this.type = type;
 			this.typeLoaded = true;
 		}
 		
-		return this.request.getType();
+		return this.type;
 	}
 
 	public ResourceAction getResourceAction() {
-		return this.request.getResourceAction();
+		return this.resourceAction;
 	}
 
 	public ApplicationContext getApplicationContext() {
-		return this.request.getApplicationContext();
+		return this.applicationContext;
 	}
 
 	public Object getResource() {
-		return this.request.getResource();
+		return this.resource;
 	}
 
 	public Object[] getParameters() {
-		return this.request.getParameters();
+		return this.parameters;
 	}
 
 	public RequestInstrument getRequestInstrument() {
-		return this.request.getRequestInstrument();
+		return this.requestInstrument;
 	}
 
 	public StackRequestElement getStackRequestElement() {
-		return this.request.getStackRequestElement();
+		return this.stackRequestElement;
 	}
 
 	public void setThrowable(Throwable value) {
-		this.request.setThrowable(value);
+		this.throwable = value;
 	}
 
 	public void setHeader(String name, Object value) {
@@ -251,23 +277,23 @@ public class WebMvcRequestImp
 	}
 
 	public void setParameter(String name, String value) {
-		this.request.setParameter(name, value);
+		this.getMvcRequest().setParameter(name, value);
 	}
 
 	public void setParameters(String name, String[] values) {
-		this.request.setParameters(name, values);
+		this.getMvcRequest().setParameters(name, values);
 	}
 
 	public void setParameter(String name, Object value) {
-		this.request.setParameter(name, value);
+		this.getMvcRequest().setParameter(name, value);
 	}
 
 	public void setParameters(String name, Object[] value) {
-		this.request.setParameters(name, value);
+		this.getMvcRequest().setParameters(name, value);
 	}
 
 	public void setParameters(Object[] value) {
-		this.request.setParameters(value);
+		this.parameters = value;
 	}
 
 	public void setProperty(String name, Object value) {
@@ -276,58 +302,58 @@ public class WebMvcRequestImp
 	}
 
 	public void setType(DataType value) {
-		this.request.setType(value);
+		this.type = value;
 		this.typeLoaded = true;
 	}
 
 	public void setResourceAction(ResourceAction value) {
-		this.request.setResourceAction(value);
+		this.resourceAction = value;
 	}
 
 	public void setApplicationContext(ApplicationContext value) {
-		this.request.setApplicationContext(value);
+		this.applicationContext = value;
 	}
 
 	public void setResource(Object value) {
-		this.request.setResource(value);
+		this.resource = value;
 	}
 
 	public void setRequestInstrument(RequestInstrument value) {
-		this.request.setRequestInstrument(value);
+		this.requestInstrument = value;
 	}
 
 	public void setStackRequestElement(StackRequestElement value) {
-		this.request.setStackRequestElement(value);
+		this.stackRequestElement = value;
 	}
 
 	public void setRequestParserInfo(RequestParserEvent value) {
-		this.request.setRequestParserInfo(value);
+		this.requestParserInfo = value;
 	}
 
 	public void setRequestParser(RequestParser value) {
-		this.request.setRequestParser(value);
+		this.requestParser = value;
 	}
 	
 	public RequestParserEvent getRequestParserInfo() {
-		return this.request.getRequestParserInfo();
+		return this.requestParserInfo;
 	}
 
 	public RequestParser getRequestParser() {
-		return this.request.getRequestParser();
+		return this.requestParser;
 	}
 	
 	public void setAcceptResponse(List<DataType> value){
-		this.request.setAcceptResponse(value);
+		this.acceptResponse = value;
 		this.acceptResponseLoaded = true;
 	}
     
 	public List<DataType> getAcceptResponse() {
 		if(!this.acceptResponseLoaded){
-			this.request.setAcceptResponse(this.parseAcceptResponse());
+			this.acceptResponse = this.parseAcceptResponse();
 			this.acceptResponseLoaded = true;
 		}
 		
-		return this.request.getAcceptResponse();
+		return this.acceptResponse;
 	}
 
 	public ServletRequest getServletRequest() {
@@ -355,20 +381,23 @@ public class WebMvcRequestImp
 	}
 
 	public String getParameter(String name) {
-		Object r = this.request.getParameter(name);
+		Object r = this.pathParameters == null? null : this.pathParameters.getValue(name);
+		r = r == null && this.request != null? this.request.getParameter(name) : r;
 		r = r == null? _getRequest().getParameter(name) : r;
 		return r == null? null : String.valueOf(r);
 	}
 
 	public Object getParameterObject(String name) {
-		Object r = this.request.getParameterObject(name);
+		Object r = this.pathParameters == null? null : this.pathParameters.getValue(name);
+		r = r == null && this.request != null? this.request.getParameterObject(name) : r;
 		r = r == null? _getRequest().getParameter(name) : r;
 		return r;
 	}
 	
 	public List<Object> getParameters(String name) {
 		
-		List<Object> r = this.request.getParameters(name);
+		List<Object> r = this.pathParameters == null? null : this.pathParameters.getValues(name);
+		r = r == null && this.request != null? this.request.getParameters(name) : r;
 		
 		if(r == null){
 			
@@ -405,7 +434,7 @@ public class WebMvcRequestImp
 
 	@Override
 	public String[] getParameterValues(String name) {
-		Object[] values = this.request.getParameters();
+		Object[] values = this.parameters;
 		
 		if(values == null){
 			return _getRequest().getParameterValues(name);
@@ -435,7 +464,7 @@ public class WebMvcRequestImp
 	}
 
 	public String getEncoding() {
-		return this.request.getEncoding();
+		return this._getRequest().getCharacterEncoding();
 	}
 	
 }
@@ -34,12 +34,15 @@ public class WebMvcResponseImp
 	extends HttpServletResponseWrapper
 	implements MutableWebMvcResponse {
 
-	private MutableMvcResponse response;
-
+	private MvcRequest request;
+	
+	private Object result;
+	
+	private DataType type;
+	
     public WebMvcResponseImp(HttpServletResponse response, MvcRequest request){
     	super(response);
-    	this.response = new DefaultMvcResponse();
-    	this.response.setRequest(request);
+    	this.request = request;
     }
 
 	/* HttpServletResponse methods */
@@ -63,15 +66,15 @@ public class WebMvcResponseImp
 	/* MutableWebMvcResponse methods */
 	
 	public void setResult(Object value) {
-		this.response.setResult(value);
+		this.result = value;
 	}
 
 	public void setRequest(MvcRequest value) {
-		this.response.setRequest(value);
+		this.request = value;
 	}
 
 	public MvcRequest getRequest() {
-		return this.response.getRequest();
+		return this.request;
 	}
 
 	public void process(Object object) {
@@ -82,15 +85,15 @@ public class WebMvcResponseImp
 	}
 
 	public void setType(DataType value) {
-		this.response.setType(value);
+		this.type = value;
 	}
 
 	public DataType getType() {
-		return this.response.getType();
+		return this.type;
 	}
 
 	public Object getResult() {
-		return this.response.getResult();
+		return this.result;
 	}
 	
 }
@@ -19,6 +19,7 @@ package org.brandao.brutos.web;
 
 import org.brandao.brutos.ActionBuilder;
 import org.brandao.brutos.ActionType;
+import org.brandao.brutos.BrutosException;
 import org.brandao.brutos.ComponentRegistry;
 import org.brandao.brutos.ControllerBuilder;
 import org.brandao.brutos.DispatcherType;
@@ -73,6 +74,11 @@ public class WebXMLComponentDefinitionReader
 		String actionId 					= parseUtil.getAttribute(controller, "action-id");
 		String defaultAction 				= parseUtil.getAttribute(controller, "default-action");
 		int responseStatus					= webParseUtil.getIntAttribute(controller, "response-status", 200);
+		String asyncExecutorName			= webParseUtil.getAttribute(controller, "async-executor");
+		int asyncExecutorThreads			= webParseUtil.getIntAttribute(controller, "async-executor-threads", 0);
+		String asyncPriority				= webParseUtil.getAttribute(controller, "async-priority");
+		int asyncTimeout					= webParseUtil.getIntAttribute(controller, "async-timeout", 0);
+		int asyncTimeoutStatus				= webParseUtil.getIntAttribute(controller, "async-timeout-status", 0);
 		Class<?> clazz 						= this.getClass(clazzName);
 		RequestMethodType requestMethodType	= requestMethodName == null? null : RequestMethodType.valueOf(requestMethodName.toUpperCase());
 		
@@ -94,6 +100,18 @@ public class WebXMLComponentDefinitionReader
 		
 		controllerBuilder.setResponseStatus(responseStatus);
 		
+		if(asyncExecutorName != null){
+			controllerBuilder.setAsyncExecutor(this.getAsyncExecutorType(asyncExecutorName));
+			controllerBuilder.setAsyncExecutorThreads(asyncExecutorThreads);
+		}
+		
+		if(asyncPriority != null){
+			controllerBuilder.setAsyncPriority(asyncPriority);
+		}
+		
+		controllerBuilder.setAsyncTimeout(asyncTimeout);
+		controllerBuilder.setAsyncTimeoutStatus(asyncTimeoutStatus);
+		
 		if (defaultAction != null){
 			controllerBuilder.setDefaultAction(defaultAction);
 		}
@@ -118,6 +136,10 @@ public class WebXMLComponentDefinitionReader
 		boolean resolvedView				= Boolean.valueOf(parseUtil.getAttribute(actionNode, "resolved-view"));
 		boolean renderedView				= Boolean.valueOf(parseUtil.getAttribute(actionNode, "rendered-view"));
 		int responseStatus					= webParseUtil.getIntAttribute(actionNode, "response-status", 200);
+		String asyncExecutorName			= webParseUtil.getAttribute(actionNode, "async-executor");
+		String asyncPriority				= webParseUtil.getAttribute(actionNode, "async-priority");
+		int asyncTimeout					= webParseUtil.getIntAttribute(actionNode, "async-timeout", 0);
+		int asyncTimeoutStatus				= webParseUtil.getIntAttribute(actionNode, "async-timeout-status", 0);
 		RequestMethodType requestMethodType	= RequestMethodType.valueOf(requestMethodName);
 		
 		WebActionBuilder actionBuilder = 
@@ -134,9 +156,30 @@ public class WebXMLComponentDefinitionReader
 		
 		actionBuilder.setResponseStatus(responseStatus);
 		
+		if(asyncExecutorName != null){
+			actionBuilder.setAsyncExecutor(this.getAsyncExecutorType(asyncExecutorName));
+		}
+		
+		if(asyncPriority != null){
+			actionBuilder.setAsyncPriority(asyncPriority);
+		}
+		
+		actionBuilder.setAsyncTimeout(asyncTimeout);
+		actionBuilder.setAsyncTimeoutStatus(asyncTimeoutStatus);
+		
 		this.loadActionDependencies(actionNode, actionBuilder);
 
 	}
+	
+	protected AsyncExecutorType getAsyncExecutorType(String value){
+		AsyncExecutorType type = AsyncExecutorType.valueOf(value);
+		
+		if(type == null){
+			throw new BrutosException("invalid async executor: " + value);
+		}
+		
+		return type;
+	}
 
 	@Override
 	protected void addThrowSafe(Element throwSafeNode,
@@ -22,6 +22,7 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -45,6 +46,12 @@ import org.brandao.brutos.type.Type;
 
 /**
  * Codifica uma entidade em json.
+ * <p>O conteúdo é enviado ao destino somente no fim da codificação. Com
+ * {@link #JsonBeanEncoder(Writer)} o conteúdo pode ser escrito em um buffer,
+ * como o {@link org.brandao.brutos.web.io.BufferedUTF8Writer}.</p>
+ * <p>Se informado um {@link JsonBeanSerializerFactory}, os mapeamentos 
+ * aceitos por ele são codificados pelos codificadores criados na 
+ * fábrica. Os demais são percorridos por este codificador.</p>
  * 
  * @author Brandao
  *
@@ -61,6 +68,10 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 	
 	protected Writer writer;
 	
+	protected JsonBeanSerializerFactory serializerFactory;
+	
+	private Map<MetaBean, MetaBeanIndex> indexes;
+	
 	public JsonBeanEncoder(OutputStream stream, String charsetName) 
 			throws UnsupportedEncodingException {
 		this.originalStream  = stream;
@@ -68,9 +79,56 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 		this.writer          = new OutputStreamWriter(stream, charsetName);
 	}
 
+	public JsonBeanEncoder(Writer writer){
+		this(writer, null);
+	}
+
+	public JsonBeanEncoder(Writer writer, JsonBeanSerializerFactory serializerFactory){
+		this.writer            = writer;
+		this.serializerFactory = serializerFactory;
+	}
+
 	public void encode(UseBeanData entity, Object value) throws BeanEncoderException{
 		try{
-			this.innerEncode(entity, value);
+			JsonBeanSerializer serializer = 
+				this.serializerFactory == null? 
+					null : 
+					this.serializerFactory.getSerializer(entity);
+			
+			if(serializer != null){
+				serializer.write(this.writer, value);
+				this.writer.flush();
+			}
+			else{
+				this.innerEncode(entity, value);
+			}
+		}
+		catch(Throwable e){
+			throw new BeanEncoderException(e);
+		}
+	}
+	
+	/**
+	 * Codifica um elemento de uma coleção.
+	 * @param bean Mapeamento da coleção.
+	 * @param value Elemento.
+	 * @throws BeanEncoderException Lançada se ocorrer falha na codificação.
+	 */
+	public void encodeElement(CollectionBean bean, Object value) throws BeanEncoderException{
+		try{
+			JsonBeanSerializer serializer = 
+				this.serializerFactory == null? 
+					null : 
+					this.serializerFactory.getElementSerializer(bean);
+			
+			if(serializer != null){
+				serializer.write(this.writer, value);
+			}
+			else{
+				this.encode(bean, 0, 0, (Element)bean.getCollection(), value);
+			}
+			
+			this.writer.flush();
 		}
 		catch(Throwable e){
 			throw new BeanEncoderException(e);
@@ -140,21 +198,38 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 		writer.flush();
 	}
 	
-	private void encode(Object parent, int fieldIndex, MetaBean bean, Object value) throws Throwable{
+	private MetaBeanIndex getIndex(MetaBean bean){
 		
-		DependencyBean dependency = null;
-		Object key                = null;
+		if(this.serializerFactory != null){
+			return this.serializerFactory.getIndex(bean);
+		}
 		
-		Map<Object, DependencyBean> metaValues = bean.getMetaValues();
+		//sem fábrica, o índice vale somente para este codificador.
+		if(this.indexes == null){
+			this.indexes = new HashMap<MetaBean, MetaBeanIndex>();
+		}
 		
-		for(Object k: metaValues.keySet()){
-			DependencyBean d = metaValues.get(k);
-			
-			if(d.getClassType() == value.getClass()){
-				key        = k;
-				dependency = d;
-			}
+		MetaBeanIndex index = this.indexes.get(bean);
+		
+		if(index == null){
+			index = new MetaBeanIndex(bean);
+			this.indexes.put(bean, index);
+		}
+		
+		return index;
+	}
+	
+	private void encode(Object parent, int fieldIndex, MetaBean bean, Object value) throws Throwable{
+		
+		MetaBeanIndex.MetaValue metaValue = 
+				this.getIndex(bean).get(value.getClass());
+		
+		if(metaValue == null){
+			throw new BrutosException("bean not found: " + value.getClass().getName());
 		}
+		
+		DependencyBean dependency = metaValue.getDependency();
+		Object key                = metaValue.getKey();
 
 		Type type = bean.getType();
 		
@@ -166,8 +241,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 			.append(type.toString(key));
 		
 		this.encode(parent, fieldIndex, dependency, value);
-		
-		writer.flush();
 	}
 	
 	private void encode(Object parent, int fieldIndex, DependencyBean entity, Object value) throws Throwable{
@@ -226,8 +299,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 			
 			writer.append(this.getValue(entity.getType(), value));
 		}
-		
-		writer.flush();
 	}
 
 	private void encode(Object parent, int fieldIndex, Bean bean, Object value) throws Throwable{
@@ -284,8 +355,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 			}
 			
 		}
-		
-		writer.flush();
 	}
 	
 	private void encode(Object parent, int fieldIndex, CollectionBean bean, Object value) throws Throwable{
@@ -354,8 +423,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 			
 			fieldIndex = currentFieldIndex;
 		}
-		
-		writer.flush();
 	}	
 
 	private void encode(Object parent, int fieldIndex, int indexElement, Element entity, Object value) throws Throwable{
@@ -391,8 +458,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 		else{
 			writer.append(this.getValue(entity.getType(), value));
 		}
-		
-		writer.flush();
 	}
 	
 	private void encode(Object parent, int fieldIndex, int indexElement, Key entity, Object value) throws Throwable{
@@ -428,8 +493,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 		else{
 			writer.append(this.getValue(entity.getType(), value));
 		}
-		
-		writer.flush();
 	}
 	
 	private void encode(Object parent, int fieldIndex, MapBean bean, Object value) throws Throwable{
@@ -523,8 +586,6 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 			writer.append(" }");
 			fieldIndex = currentFieldIndex;
 		}
-		
-		writer.flush();
 	}	
 	
 	private int encodeProperties(Map<String,PropertyBean> properties, 
@@ -573,6 +634,8 @@ public class JsonBeanEncoder extends AbstractBeanEncoder{
 	}
 	
 	public String toString(){
-		return this.originalStream.toString();
+		return this.originalStream == null? 
+				this.writer.toString() : 
+				this.originalStream.toString();
 	}
 }
@@ -0,0 +1,40 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.bean;
+
+import java.io.Writer;
+
+/**
+ * Codifica em json os valores de um mapeamento.
+ * 
+ * @author Brandao
+ *
+ * @see JsonBeanSerializerFactory
+ */
+public interface JsonBeanSerializer {
+
+	/**
+	 * Escreve o valor em json.
+	 * @param out Destino.
+	 * @param value Valor.
+	 * @throws Throwable Lançada se ocorrer uma falha ao obter ou escrever o
+	 * valor.
+	 */
+	void write(Writer out, Object value) throws Throwable;
+	
+}
@@ -0,0 +1,518 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.bean;
+
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.brandao.brutos.BrutosException;
+import org.brandao.brutos.EnumerationType;
+import org.brandao.brutos.mapping.Bean;
+import org.brandao.brutos.mapping.CollectionBean;
+import org.brandao.brutos.mapping.DependencyBean;
+import org.brandao.brutos.mapping.Element;
+import org.brandao.brutos.mapping.MetaBean;
+import org.brandao.brutos.mapping.PropertyBean;
+import org.brandao.brutos.mapping.UseBeanData;
+import org.brandao.brutos.type.AnyType;
+import org.brandao.brutos.type.DateTimeType;
+import org.brandao.brutos.type.EnumType;
+import org.brandao.brutos.type.Type;
+import org.brandao.brutos.web.io.BufferedUTF8Writer;
+
+/**
+ * Cria e mantém os codificadores json dos mapeamentos.
+ * <p>O codificador de um mapeamento é criado uma única vez, no primeiro
+ * uso. Os mapeamentos, tipos e propriedades são resolvidos na criação, e
+ * os nomes das propriedades são mantidos já codificados. A saída é igual à
+ * do {@link JsonBeanEncoder}.</p>
+ * <p>São aceitos valores simples, entidades e coleções sem propriedades.
+ * Se o mapeamento usa outras estruturas (mapas, 
+ * {@link MetaBean}, coleções com 
+ * propriedades), nenhum codificador é criado e o {@link JsonBeanEncoder}
+ * percorre o mapeamento.</p>
+ * <p>Também mantém os índices dos {@link MetaBean} ({@link MetaBeanIndex}).
+ * Como a fábrica pertence à aplicação, os índices são descartados com ela.</p>
+ * 
+ * @author Brandao
+ *
+ */
+public class JsonBeanSerializerFactory {
+
+	/*
+	 * Indica que o mapeamento não é aceito.
+	 */
+	private static final Object UNSUPPORTED = new Object();
+	
+	private final ConcurrentMap<UseBeanData, Object> serializers;
+	
+	private final ConcurrentMap<CollectionBean, Object> elements;
+	
+	private final ConcurrentMap<MetaBean, MetaBeanIndex> indexes;
+	
+	public JsonBeanSerializerFactory(){
+		this.serializers = new ConcurrentHashMap<UseBeanData, Object>();
+		this.elements    = new ConcurrentHashMap<CollectionBean, Object>();
+		this.indexes     = new ConcurrentHashMap<MetaBean, MetaBeanIndex>();
+	}
+	
+	/**
+	 * Obtém o codificador de um mapeamento.
+	 * @param entity Mapeamento.
+	 * @return Codificador ou <code>null</code>, se o mapeamento não é aceito.
+	 */
+	public JsonBeanSerializer getSerializer(UseBeanData entity){
+		Object serializer = this.serializers.get(entity);
+		
+		if(serializer == null){
+			serializer = new Compiler().compile(entity);
+			serializer = serializer == null? UNSUPPORTED : serializer;
+			
+			Object current = this.serializers.putIfAbsent(entity, serializer);
+			
+			if(current != null){
+				serializer = current;
+			}
+		}
+		
+		return serializer == UNSUPPORTED? null : (JsonBeanSerializer)serializer;
+	}
+	
+	/**
+	 * Obtém o codificador dos elementos de uma coleção.
+	 * @param bean Mapeamento da coleção.
+	 * @return Codificador ou <code>null</code>, se o mapeamento não é aceito.
+	 */
+	public JsonBeanSerializer getElementSerializer(CollectionBean bean){
+		Object serializer = this.elements.get(bean);
+		
+		if(serializer == null){
+			serializer = new Compiler().compileElement(bean);
+			serializer = serializer == null? UNSUPPORTED : serializer;
+			
+			Object current = this.elements.putIfAbsent(bean, serializer);
+			
+			if(current != null){
+				serializer = current;
+			}
+		}
+		
+		return serializer == UNSUPPORTED? null : (JsonBeanSerializer)serializer;
+	}
+	
+	/**
+	 * Obtém o índice de um {@link MetaBean}.
+	 * @param metaBean Mapeamento.
+	 * @return Índice.
+	 */
+	public MetaBeanIndex getIndex(MetaBean metaBean){
+		MetaBeanIndex index = this.indexes.get(metaBean);
+		
+		if(index == null || !index.isCurrent(metaBean)){
+			index = new MetaBeanIndex(metaBean);
+			this.indexes.put(metaBean, index);
+		}
+		
+		return index;
+	}
+	
+	/*
+	 * Lançada quando o mapeamento usa uma estrutura que não é aceita.
+	 */
+	private static class UnsupportedMappingException extends Exception{
+
+		private static final long serialVersionUID = 1L;
+		
+	}
+	
+	/*
+	 * Cria os codificadores. Os codificadores das entidades são 
+	 * compartilhados, o que permite mapeamentos recursivos.
+	 */
+	private static class Compiler{
+		
+		private final Map<Bean, BeanBodySerializer> beans;
+		
+		public Compiler(){
+			this.beans = new HashMap<Bean, BeanBodySerializer>();
+		}
+		
+		public JsonBeanSerializer compile(UseBeanData entity){
+			try{
+				return this.compileRoot(entity);
+			}
+			catch(UnsupportedMappingException e){
+				return null;
+			}
+		}
+		
+		public JsonBeanSerializer compileElement(CollectionBean bean){
+			try{
+				return this.compileElements(bean);
+			}
+			catch(UnsupportedMappingException e){
+				return null;
+			}
+		}
+		
+		private JsonBeanSerializer compileRoot(UseBeanData entity) 
+				throws UnsupportedMappingException{
+			
+			if(entity.getMetaBean() != null){
+				throw new UnsupportedMappingException();
+			}
+			
+			Bean bean = entity.getMapping();
+			
+			if(bean == null){
+				return new NullableSerializer(this.compileValue(entity.getType()));
+			}
+			
+			if(bean.isMap()){
+				throw new UnsupportedMappingException();
+			}
+			
+			if(bean.isCollection()){
+				return new NullableSerializer(
+						new ArraySerializer("[ ", this.compileElements((CollectionBean)bean), " ]"));
+			}
+			
+			return new NullableSerializer(
+					new ObjectSerializer("{ ", this.compileBean(bean), "} "));
+		}
+		
+		private BeanBodySerializer compileBean(Bean bean) 
+				throws UnsupportedMappingException{
+			
+			BeanBodySerializer serializer = this.beans.get(bean);
+			
+			if(serializer != null){
+				return serializer;
+			}
+			
+			serializer = new BeanBodySerializer();
+			this.beans.put(bean, serializer);
+			
+			List<PropertySerializer> properties = new ArrayList<PropertySerializer>();
+			
+			for(PropertyBean property: bean.getFields().values()){
+				properties.add(
+					new PropertySerializer(property, this.compileProperty(property)));
+			}
+			
+			serializer.setProperties(properties);
+			return serializer;
+		}
+		
+		private JsonBeanSerializer compileProperty(PropertyBean property) 
+				throws UnsupportedMappingException{
+			
+			String name = property.getParameterName();
+			
+			if(name == null || property.getMetaBean() != null){
+				throw new UnsupportedMappingException();
+			}
+			
+			if(property.getMapping() == null){
+				return new NamedSerializer(name, this.compileValue(property.getType()));
+			}
+			
+			Bean mapping = this.getMapping(property);
+			
+			if(mapping.isMap()){
+				throw new UnsupportedMappingException();
+			}
+			
+			if(mapping.isCollection()){
+				return new ArraySerializer(
+						"\"" + name + "\": [ ", 
+						this.compileElements((CollectionBean)mapping), 
+						" ]");
+			}
+			
+			//o JsonBeanEncoder não escreve as entidades sem propriedades.
+			if(mapping.getFields().isEmpty()){
+				throw new UnsupportedMappingException();
+			}
+			
+			return new ObjectSerializer(
+					"\"" + name + "\": { ", this.compileBean(mapping), " }");
+		}
+		
+		private JsonBeanSerializer compileElements(CollectionBean bean) 
+				throws UnsupportedMappingException{
+			
+			Element e = (Element)bean.getCollection();
+			
+			if(e.getParameterName() != null || e.getMetaBean() != null){
+				throw new UnsupportedMappingException();
+			}
+			
+			if(e.getMapping() == null){
+				return new NullableSerializer(this.compileValue(e.getType()));
+			}
+			
+			Bean mapping = this.getMapping(e);
+			
+			if(mapping.isCollection() || mapping.isMap()){
+				throw new UnsupportedMappingException();
+			}
+			
+			return new NullableSerializer(
+					new ObjectSerializer("{ ", this.compileBean(mapping), " }"));
+		}
+		
+		private Bean getMapping(DependencyBean entity){
+			Bean mapping = 
+					entity.getBean().getController().getBean(entity.getMapping());
+
+			if (mapping == null)
+				throw new BrutosException("mapping not found: " + entity.getMapping());
+			
+			return mapping;
+		}
+		
+		private JsonBeanSerializer compileValue(Type type){
+			boolean quoted;
+			
+			if(type.getClassType() == String.class || 
+				type instanceof DateTimeType || 
+				type.getClass() == AnyType.class ){
+				quoted = true;
+			}
+			else
+			if(type instanceof EnumType){
+				EnumerationType enumType = ((EnumType)type).getEnumerationType();
+				quoted = enumType == EnumerationType.AUTO || enumType == EnumerationType.STRING;
+			}
+			else{
+				quoted = false;
+			}
+			
+			return new ValueSerializer(type, quoted);
+		}
+		
+	}
+	
+	/*
+	 * Texto fixo, mantido também em UTF-8.
+	 */
+	private static class Token{
+		
+		private final String text;
+		
+		private final byte[] bytes;
+		
+		public Token(String text){
+			this.text = text;
+			try{
+				this.bytes = text.getBytes("UTF-8");
+			}
+			catch(UnsupportedEncodingException e){
+				throw new BrutosException(e);
+			}
+		}
+		
+		public void write(Writer out) throws Throwable{
+			if(out instanceof BufferedUTF8Writer){
+				((BufferedUTF8Writer)out).writeUTF8(this.bytes);
+			}
+			else{
+				out.write(this.text);
+			}
+		}
+		
+	}
+	
+	private static final Token NULL  = new Token("null");
+	
+	private static final Token COMMA = new Token(", ");
+	
+	private static class NullableSerializer implements JsonBeanSerializer{
+
+		private final JsonBeanSerializer serializer;
+		
+		public NullableSerializer(JsonBeanSerializer serializer){
+			this.serializer = serializer;
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			if(value == null){
+				NULL.write(out);
+			}
+			else{
+				this.serializer.write(out, value);
+			}
+		}
+		
+	}
+	
+	private static class ValueSerializer implements JsonBeanSerializer{
+
+		private final Type type;
+		
+		private final boolean quoted;
+		
+		public ValueSerializer(Type type, boolean quoted){
+			this.type   = type;
+			this.quoted = quoted;
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			//o tipo pode retornar null, escrito como no JsonBeanEncoder.
+			String text = this.type.toString(value);
+			
+			if(this.quoted){
+				out.write('"');
+				out.write(String.valueOf(text));
+				out.write('"');
+			}
+			else
+			if(text == null){
+				NULL.write(out);
+			}
+			else{
+				out.write(text);
+			}
+		}
+		
+	}
+	
+	private static class NamedSerializer implements JsonBeanSerializer{
+
+		private final Token name;
+		
+		private final JsonBeanSerializer serializer;
+		
+		public NamedSerializer(String name, JsonBeanSerializer serializer){
+			this.name       = new Token("\"" + name + "\": ");
+			this.serializer = serializer;
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			this.name.write(out);
+			this.serializer.write(out, value);
+		}
+		
+	}
+	
+	private static class ObjectSerializer implements JsonBeanSerializer{
+
+		private final Token start;
+		
+		private final BeanBodySerializer body;
+		
+		private final Token end;
+		
+		public ObjectSerializer(String start, BeanBodySerializer body, String end){
+			this.start = new Token(start);
+			this.body  = body;
+			this.end   = new Token(end);
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			this.start.write(out);
+			this.body.write(out, value);
+			this.end.write(out);
+		}
+		
+	}
+	
+	private static class ArraySerializer implements JsonBeanSerializer{
+
+		private final Token start;
+		
+		private final JsonBeanSerializer element;
+		
+		private final Token end;
+		
+		public ArraySerializer(String start, JsonBeanSerializer element, String end){
+			this.start   = new Token(start);
+			this.element = element;
+			this.end     = new Token(end);
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			this.start.write(out);
+			
+			int index = 0;
+			
+			for(Object o: (Collection<?>)value){
+				
+				if(index++ > 0){
+					COMMA.write(out);
+				}
+				
+				this.element.write(out, o);
+			}
+			
+			this.end.write(out);
+		}
+		
+	}
+	
+	private static class PropertySerializer{
+		
+		private final PropertyBean property;
+		
+		private final JsonBeanSerializer serializer;
+		
+		public PropertySerializer(PropertyBean property, JsonBeanSerializer serializer){
+			this.property   = property;
+			this.serializer = serializer;
+		}
+		
+	}
+	
+	private static class BeanBodySerializer implements JsonBeanSerializer{
+
+		private PropertySerializer[] properties;
+		
+		public void setProperties(List<PropertySerializer> properties){
+			this.properties = 
+				properties.toArray(new PropertySerializer[properties.size()]);
+		}
+		
+		public void write(Writer out, Object value) throws Throwable {
+			int fieldIndex = 0;
+			
+			for(PropertySerializer p: this.properties){
+				
+				Object fbValue = p.property.getValueFromSource(value);
+				
+				if(fbValue != null){
+					
+					if(fieldIndex++ > 0){
+						COMMA.write(out);
+					}
+					
+					p.serializer.write(out, fbValue);
+				}
+			}
+		}
+		
+	}
+	
+}
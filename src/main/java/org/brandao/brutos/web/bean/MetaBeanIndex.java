@@ -0,0 +1,167 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.bean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.brandao.brutos.mapping.DependencyBean;
+import org.brandao.brutos.mapping.MetaBean;
+
+/**
+ * Índice das classes de um {@link MetaBean}.
+ * <p>Associa cada classe ao seu discriminador e mapeamento. Uma classe que 
+ * não foi mapeada usa o mapeamento da superclasse ou interface mais 
+ * próxima. O resultado de cada classe é mantido, assim cada valor é 
+ * resolvido com uma única consulta.</p>
+ * <p>Os índices são mantidos pelo {@link JsonBeanSerializerFactory} da 
+ * aplicação, que recria o índice se o número de mapeamentos do 
+ * {@link MetaBean} for alterado.</p>
+ * 
+ * @author Brandao
+ *
+ */
+public final class MetaBeanIndex {
+
+	private static final MetaValue NOT_FOUND = new MetaValue(null, null);
+	
+	private final int size;
+	
+	private final Map<Class<?>, MetaValue> declared;
+	
+	private final ConcurrentMap<Class<?>, MetaValue> resolved;
+	
+	public MetaBeanIndex(MetaBean metaBean){
+		this(metaBean.getMetaValues().size(), getDeclared(metaBean));
+	}
+	
+	MetaBeanIndex(int size, Map<Class<?>, MetaValue> declared){
+		this.size     = size;
+		this.declared = declared;
+		this.resolved = new ConcurrentHashMap<Class<?>, MetaValue>(declared);
+	}
+	
+	private static Map<Class<?>, MetaValue> getDeclared(MetaBean metaBean){
+		Map<Class<?>, MetaValue> declared = new HashMap<Class<?>, MetaValue>();
+		
+		//se duas chaves usam a mesma classe, vale a última.
+		for(Entry<Object, DependencyBean> e: metaBean.getMetaValues().entrySet()){
+			Class<?> type = e.getValue().getClassType();
+			
+			if(type != null){
+				declared.put(type, new MetaValue(e.getKey(), e.getValue()));
+			}
+		}
+		
+		return declared;
+	}
+	
+	/**
+	 * Verifica se o índice ainda corresponde ao {@link MetaBean}.
+	 * @param metaBean Mapeamento.
+	 * @return Verdadeiro se o número de mapeamentos não foi alterado.
+	 */
+	public boolean isCurrent(MetaBean metaBean){
+		return this.size == metaBean.getMetaValues().size();
+	}
+	
+	/**
+	 * Obtém o discriminador e o mapeamento de uma classe.
+	 * @param type Classe.
+	 * @return Discriminador e mapeamento ou <code>null</code>, se a classe
+	 * não foi mapeada.
+	 */
+	public MetaValue get(Class<?> type){
+		MetaValue value = this.resolved.get(type);
+		
+		if(value == null){
+			value = this.resolve(type);
+			this.resolved.put(type, value == null? NOT_FOUND : value);
+		}
+		
+		return value == NOT_FOUND? null : value;
+	}
+	
+	private MetaValue resolve(Class<?> type){
+		
+		for(Class<?> c = type; c != null; c = c.getSuperclass()){
+			
+			MetaValue value = this.declared.get(c);
+			
+			if(value != null){
+				return value;
+			}
+			
+			for(Class<?> i: c.getInterfaces()){
+				value = this.resolveInterface(i);
+				
+				if(value != null){
+					return value;
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	private MetaValue resolveInterface(Class<?> type){
+		MetaValue value = this.declared.get(type);
+		
+		if(value != null){
+			return value;
+		}
+		
+		for(Class<?> i: type.getInterfaces()){
+			value = this.resolveInterface(i);
+			
+			if(value != null){
+				return value;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Discriminador e mapeamento de uma classe.
+	 */
+	public static class MetaValue{
+		
+		private final Object key;
+		
+		private final DependencyBean dependency;
+		
+		public MetaValue(Object key, DependencyBean dependency){
+			this.key        = key;
+			this.dependency = dependency;
+		}
+
+		public Object getKey() {
+			return key;
+		}
+
+		public DependencyBean getDependency() {
+			return dependency;
+		}
+		
+	}
+	
+}
@@ -31,6 +31,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.brandao.brutos.BrutosConstants;
 import org.brandao.brutos.ConfigurableApplicationContext;
 import org.brandao.brutos.web.ContextLoader;
+import org.brandao.brutos.web.RequestContext;
 import org.brandao.brutos.web.WebApplicationContext;
 import org.brandao.brutos.web.WebInvoker;
 
@@ -41,7 +42,6 @@ import org.brandao.brutos.web.WebInvoker;
 public class BrutosRequestFilter implements Filter{
 
     private FilterConfig filterConfig = null;
-    private static ThreadLocal<FilterChain> currentFilter = new ThreadLocal<FilterChain>();
     private WebApplicationContext webApplicationContext;
     private WebInvoker invoker;
 
@@ -67,21 +67,18 @@ public class BrutosRequestFilter implements Filter{
     }
 
     public static FilterChain getCurrentFilterChain(){
-        return currentFilter.get();
+    	RequestContext context = RequestContext.getCurrent();
+        return context == null? null : context.getFilterChain();
     }
+    
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) 
             throws IOException, ServletException {
         
-        try{
-            if( filterConfig == null )
-                return;
-            currentFilter.set(chain);
-            invoker.invoker((HttpServletRequest)request, 
-            		(HttpServletResponse)response, chain);
-        }
-        finally{
-            currentFilter.remove();
-        }
+        if( filterConfig == null )
+            return;
+        
+        invoker.invoker((HttpServletRequest)request, 
+        		(HttpServletResponse)response, chain);
     }
 
     public void destroy() {
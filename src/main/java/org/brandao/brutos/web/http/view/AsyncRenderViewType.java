@@ -0,0 +1,236 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.http.view;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.brandao.brutos.MutableMvcResponse;
+import org.brandao.brutos.MvcRequest;
+import org.brandao.brutos.MvcResponse;
+import org.brandao.brutos.RenderViewException;
+import org.brandao.brutos.RenderViewType;
+import org.brandao.brutos.RequestInstrument;
+import org.brandao.brutos.StackRequest;
+import org.brandao.brutos.StackRequestElement;
+import org.brandao.brutos.mapping.Action;
+import org.brandao.brutos.mapping.Controller;
+import org.brandao.brutos.web.AsyncExecutors;
+import org.brandao.brutos.web.BrutosWebConstants;
+import org.brandao.brutos.web.RequestContext;
+import org.brandao.brutos.web.WebApplicationContext;
+import org.brandao.brutos.web.mapping.WebAction;
+import org.brandao.brutos.web.mapping.WebController;
+import org.brandao.brutos.web.util.AsyncResult;
+
+/**
+ * Exibe o resultado de ações que retornam {@link java.util.concurrent.Future},
+ * {@link java.util.concurrent.Callable} ou
+ * <code>java.util.concurrent.CompletionStage</code>.
+ * <p>Se a requisição aceita o processamento assíncrono (Servlet 3), a
+ * thread do servidor é liberada e a vista é exibida quando o resultado é
+ * concluído. Caso contrário, o resultado é aguardado na própria
+ * requisição. Os demais resultados são exibidos pela vista sem
+ * alteração.</p>
+ * <p>Se a ação tem prazo e ele termina, a resposta recebe o status
+ * definido na ação, o resultado é cancelado e a vista não é exibida.</p>
+ * <p>Esta classe não depende da API da Servlet 3. O processamento
+ * assíncrono é feito por {@link ServletAsyncSupport}, que somente é
+ * carregada quando a API está disponível.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class AsyncRenderViewType implements RenderViewType{
+
+	private static final boolean asyncApi;
+
+	static{
+		boolean api;
+		try{
+			Class.forName("javax.servlet.AsyncContext");
+			api = true;
+		}
+		catch(Throwable e){
+			api = false;
+		}
+		asyncApi = api;
+	}
+
+	private final RenderViewType renderViewType;
+
+	public AsyncRenderViewType(RenderViewType renderViewType){
+		this.renderViewType = renderViewType;
+	}
+
+	public void configure(Properties properties) {
+		this.renderViewType.configure(properties);
+	}
+
+	public void show(MvcRequest request, MvcResponse response) {
+
+		Object result = response.getResult();
+
+		if(!AsyncResult.isAsync(result)){
+			this.renderViewType.show(request, response);
+			return;
+		}
+
+		RequestContext context = RequestContext.getCurrent();
+
+		if(asyncApi && context != null && ServletAsyncSupport.isAsyncSupported(context)){
+			ServletAsyncSupport.start(this, context, request, response, result);
+			return;
+		}
+
+		Object value;
+
+		try{
+			value = AsyncResult.get(result, this.getTimeout(request));
+		}
+		catch(TimeoutException e){
+			if(context != null){
+				context.cancel();
+			}
+			this.sendTimeout(request, response, e);
+			return;
+		}
+		catch(RuntimeException e){
+			throw e;
+		}
+		catch(Throwable e){
+			throw new RenderViewException(e);
+		}
+
+		((MutableMvcResponse)response).setResult(value);
+		request.getStackRequestElement().setResultAction(value);
+		this.renderViewType.show(request, response);
+	}
+
+	/**
+	 * Exibe o valor de um resultado concluído. É executado na thread do
+	 * executor, depois que a requisição original foi concluída.
+	 * @param request Requisição.
+	 * @param response Resposta.
+	 * @param value Valor do resultado.
+	 */
+	void render(MvcRequest request, MvcResponse response, Object value){
+		RequestInstrument requestInstrument = request.getRequestInstrument();
+		StackRequest stackRequest           = requestInstrument.getStackRequest();
+		StackRequestElement element         = request.getStackRequestElement();
+
+		((MutableMvcResponse)response).setResult(value);
+
+		//a requisição original já foi concluída.
+		requestInstrument.setHasViewProcessed(false);
+		element.setResultAction(value);
+		stackRequest.push(element);
+
+		try{
+			this.renderViewType.show(request, response);
+		}
+		finally{
+			stackRequest.pop();
+		}
+	}
+
+	/**
+	 * Obtém o executor que aguarda os resultados e exibe a vista. É usado
+	 * o executor definido na ação, no controlador ou na configuração da
+	 * aplicação.
+	 * @param request Requisição.
+	 * @return Executor ou <code>null</code>, se devem ser usadas as threads
+	 * assíncronas do servidor.
+	 */
+	protected Executor getExecutor(MvcRequest request){
+		AsyncExecutors executors = getAsyncExecutors(request);
+		return executors == null? 
+				null : 
+				executors.getExecutor(getController(request), getAction(request));
+	}
+
+	/**
+	 * Obtém o prazo da ação.
+	 * @param request Requisição.
+	 * @return Prazo em milissegundos ou zero, se a ação não tem prazo.
+	 */
+	protected long getTimeout(MvcRequest request){
+		AsyncExecutors executors = getAsyncExecutors(request);
+		return executors == null? 
+				0 : 
+				executors.getTimeout(getController(request), getAction(request));
+	}
+
+	/**
+	 * Obtém o status da resposta quando o prazo da ação termina.
+	 * @param request Requisição.
+	 * @return Status.
+	 */
+	protected int getTimeoutStatus(MvcRequest request){
+		AsyncExecutors executors = getAsyncExecutors(request);
+		return executors == null? 
+				BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT_STATUS : 
+				executors.getTimeoutStatus(getController(request), getAction(request));
+	}
+
+	private void sendTimeout(MvcRequest request, MvcResponse response, 
+			TimeoutException e){
+
+		if(!(response instanceof HttpServletResponse)){
+			throw new RenderViewException(e);
+		}
+
+		try{
+			((HttpServletResponse)response).sendError(this.getTimeoutStatus(request));
+		}
+		catch(IOException ex){
+			throw new RenderViewException(ex);
+		}
+	}
+
+	private static AsyncExecutors getAsyncExecutors(MvcRequest request){
+		Object applicationContext = request.getRequestInstrument().getContext();
+		return request.getResourceAction() != null && 
+				applicationContext instanceof WebApplicationContext?
+					((WebApplicationContext)applicationContext).getAsyncExecutors() :
+					null;
+	}
+
+	private static WebController getController(MvcRequest request){
+		Controller controller = request.getResourceAction().getController();
+		return controller instanceof WebController? (WebController)controller : null;
+	}
+
+	private static WebAction getAction(MvcRequest request){
+		Action action = request.getResourceAction().getMethodForm();
+		return action instanceof WebAction? (WebAction)action : null;
+	}
+
+	public void destroy() {
+		this.renderViewType.destroy();
+	}
+
+	public RenderViewType getRenderViewType(){
+		return this.renderViewType;
+	}
+
+}
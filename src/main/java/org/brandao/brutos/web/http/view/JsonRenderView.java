@@ -1,6 +1,16 @@
 package org.brandao.brutos.web.http.view;
 
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 
@@ -14,25 +24,111 @@ import org.brandao.brutos.RenderViewType;
 import org.brandao.brutos.RequestInstrument;
 import org.brandao.brutos.StackRequest;
 import org.brandao.brutos.StackRequestElement;
+import org.brandao.brutos.mapping.Bean;
+import org.brandao.brutos.mapping.CollectionBean;
+import org.brandao.brutos.mapping.Element;
 import org.brandao.brutos.mapping.ResultAction;
+import org.brandao.brutos.mapping.UseBeanData;
+import org.brandao.brutos.web.BrutosWebConstants;
 import org.brandao.brutos.web.MediaType;
 import org.brandao.brutos.web.WebMvcRequest;
 import org.brandao.brutos.web.WebMvcResponse;
 import org.brandao.brutos.web.bean.JsonBeanEncoder;
+import org.brandao.brutos.web.bean.JsonBeanSerializerFactory;
+import org.brandao.brutos.web.io.BufferedUTF8Writer;
 import org.brandao.brutos.web.mapping.WebAction;
 import org.brandao.brutos.web.mapping.WebThrowableSafeData;
+import org.brandao.brutos.web.util.StreamResult;
 import org.brandao.jbrgates.DefaultJSONContext;
 import org.brandao.jbrgates.JSONContext;
 
+/**
+ * Exibe o resultado da ação em json.
+ * <p>Por padrão, o resultado é codificado em um buffer e enviado em uma 
+ * única escrita, com o cabeçalho <code>Content-Length</code>. Se o 
+ * resultado ultrapassa o limite do buffer, ele é enviado em partes.</p>
+ * <p>Os codificadores dos mapeamentos são criados uma única vez e 
+ * reutilizados ({@link JsonBeanSerializerFactory}).</p>
+ * <p>Um resultado sem mapeamento percorrido elemento a elemento 
+ * ({@link StreamResult}) é enviado à medida que é percorrido, sem ser 
+ * mantido em memória, como um array json ou, no tipo 
+ * <code>application/x-ndjson</code>, com um elemento por linha. No 
+ * <code>application/x-ndjson</code>, os elementos de uma coleção são 
+ * codificados pelo mapeamento dos elementos. A resposta é enviada ao cliente sempre que acumula 
+ * o tamanho definido em <code>org.brandao.brutos.web.json.stream_flush_size</code>. 
+ * Como a escrita bloqueia enquanto o cliente não consome a resposta, o 
+ * resultado é percorrido no ritmo do cliente.</p>
+ * 
+ * @author Brandao
+ *
+ */
 public class JsonRenderView implements RenderViewType{
 
 	private JSONContext jsonContext;
 	
+	private JsonBeanSerializerFactory serializerFactory;
+	
+	private boolean buffered;
+	
+	private int bufferSize;
+	
+	private int highWaterMark;
+	
+	private int streamFlushSize;
+	
+	private MediaType mediaType;
+	
+	private boolean ndjson;
+	
 	public JsonRenderView(){
-		this.jsonContext = new DefaultJSONContext();
+		this(MediaType.APPLICATION_JSON);
+	}
+	
+	public JsonRenderView(MediaType mediaType){
+		this.mediaType         = mediaType;
+		this.ndjson            = MediaType.APPLICATION_X_NDJSON.equals(mediaType);
+		this.jsonContext       = new DefaultJSONContext();
+		this.serializerFactory = new JsonBeanSerializerFactory();
+		this.buffered      = BrutosWebConstants.DEFAULT_JSON_BUFFERED;
+		this.bufferSize    = BrutosWebConstants.DEFAULT_JSON_BUFFER_SIZE;
+		this.highWaterMark = BrutosWebConstants.DEFAULT_JSON_HIGH_WATER_MARK;
+		this.streamFlushSize = BrutosWebConstants.DEFAULT_JSON_STREAM_FLUSH_SIZE;
 	}
 	
 	public void configure(Properties properties) {
+		this.buffered = Boolean.valueOf(
+				properties.getProperty(
+					BrutosWebConstants.JSON_BUFFERED, 
+					String.valueOf(BrutosWebConstants.DEFAULT_JSON_BUFFERED)).trim()).booleanValue();
+		
+		this.bufferSize = getIntProperty(properties, 
+				BrutosWebConstants.JSON_BUFFER_SIZE, 
+				BrutosWebConstants.DEFAULT_JSON_BUFFER_SIZE);
+		
+		this.highWaterMark = getIntProperty(properties, 
+				BrutosWebConstants.JSON_HIGH_WATER_MARK, 
+				BrutosWebConstants.DEFAULT_JSON_HIGH_WATER_MARK);
+		
+		this.streamFlushSize = getIntProperty(properties, 
+				BrutosWebConstants.JSON_STREAM_FLUSH_SIZE, 
+				BrutosWebConstants.DEFAULT_JSON_STREAM_FLUSH_SIZE);
+	}
+	
+	private static int getIntProperty(Properties config, String name, int defaultValue){
+		String value = config.getProperty(name, String.valueOf(defaultValue));
+		
+		try{
+			int result = Integer.parseInt(value.trim());
+			
+			if(result <= 0){
+				throw new BrutosException("invalid " + name + ": " + value);
+			}
+			
+			return result;
+		}
+		catch(NumberFormatException e){
+			throw new BrutosException("invalid " + name + ": " + value, e);
+		}
 	}
 
 	public void show(MvcRequest request, MvcResponse response) {
@@ -47,7 +143,7 @@ public class JsonRenderView implements RenderViewType{
 		HttpServletResponse servletResponse = 
 				(HttpServletResponse) mvcResponse.getServletResponse();
 		
-		servletResponse.setContentType(MediaType.APPLICATION_JSON.getName());
+		servletResponse.setContentType(this.mediaType.getName());
 		servletResponse.setCharacterEncoding("UTF-8");
 		
 		if(element.getThrowableSafeData() != null){
@@ -72,11 +168,28 @@ public class JsonRenderView implements RenderViewType{
 				.getMethodForm().getResultAction(); 
 			
 			try{
-				resultAction.encode(
-						new JsonBeanEncoder(
-								servletResponse.getOutputStream(), 
-								"UTF-8"), 
-						result);
+				//somente esses resultados podem ser enviados em partes.
+				if(this.ndjson || StreamResult.isStream(result, Iterable.class)){
+					UseBeanData entity = this.getEntity(resultAction, result);
+					
+					if(entity != null && this.stream(entity, result, servletResponse)){
+						return;
+					}
+				}
+				
+				if(this.buffered){
+					this.encode(resultAction, result, servletResponse, 
+							element.getThrowableSafeData() == null);
+				}
+				else{
+					resultAction.encode(
+							new JsonBeanEncoder(
+									new OutputStreamWriter(
+										servletResponse.getOutputStream(), 
+										"UTF-8"),
+									this.serializerFactory), 
+							result);
+				}
 			}
 			catch(Throwable e){
 				throw new BrutosException(e);
@@ -85,7 +198,244 @@ public class JsonRenderView implements RenderViewType{
 		
 	}
 
+	private void encode(ResultAction resultAction, Object result, 
+			HttpServletResponse servletResponse, boolean contentLength) throws Throwable{
+		
+		BufferedUTF8Writer writer = 
+			new BufferedUTF8Writer(
+					servletResponse.getOutputStream(), 
+					this.bufferSize, 
+					this.highWaterMark);
+		
+		try{
+			resultAction.encode(
+					new JsonBeanEncoder(writer, this.serializerFactory), result);
+			
+			if(contentLength && !writer.isCommitted()){
+				servletResponse.setContentLength(writer.getSize());
+			}
+			
+			writer.close();
+		}
+		finally{
+			writer.discard();
+		}
+	}
+	
+	/*
+	 * Obtém o mapeamento do resultado, informado pela ação ao codificador.
+	 */
+	private UseBeanData getEntity(ResultAction resultAction, 
+			Object result) throws Throwable{
+		EntityEncoder encoder = new EntityEncoder();
+		resultAction.encode(encoder, result);
+		return encoder.getEntity();
+	}
+	
+	/*
+	 * Obtém o mapeamento dos elementos, se o resultado é uma coleção 
+	 * enviada como um array json.
+	 */
+	private CollectionBean getElements(UseBeanData entity){
+		Bean mapping = entity.getMapping();
+		
+		if(mapping == null || !mapping.isCollection() || mapping.isMap()){
+			return null;
+		}
+		
+		//uma coleção com propriedades é codificada como um objeto.
+		CollectionBean bean = (CollectionBean)mapping;
+		return ((Element)bean.getCollection()).getParameterName() == null? 
+				bean : 
+				null;
+	}
+	
+	/*
+	 * Envia o resultado em partes. Retorna falso se o resultado deve ser
+	 * codificado de uma única vez.
+	 */
+	private boolean stream(UseBeanData entity, Object result, 
+			HttpServletResponse servletResponse) throws Throwable{
+		
+		boolean mapped = entity.getMapping() != null || entity.getMetaBean() != null;
+		
+		//um resultado com mapeamento é codificado pelo seu mapeamento.
+		if(!mapped){
+			Iterator<?> iterator = StreamResult.iterator(result, entity.getClassType());
+			
+			if(iterator != null){
+				this.stream(null, null, result, iterator, servletResponse);
+				return true;
+			}
+		}
+		
+		if(!this.ndjson){
+			return false;
+		}
+		
+		//no ndjson todo resultado é enviado como uma sequência de elementos.
+		CollectionBean elements = 
+				entity.getMetaBean() == null? this.getElements(entity) : null;
+		
+		if(result instanceof Collection && (!mapped || elements != null)){
+			this.stream(null, elements, result, 
+					((Collection<?>)result).iterator(), servletResponse);
+		}
+		else
+		if(result instanceof Object[] && !mapped){
+			this.stream(null, null, result, 
+					Arrays.asList((Object[])result).iterator(), servletResponse);
+		}
+		else{
+			this.stream(entity, null, result, 
+					Collections.singletonList(result).iterator(), servletResponse);
+		}
+		
+		return true;
+	}
+	
+	/*
+	 * Os elementos são codificados com o mapeamento do resultado (entity), 
+	 * com o mapeamento dos elementos da coleção (elements) ou, se não 
+	 * houver mapeamento, pelo JSONContext.
+	 */
+	private void stream(UseBeanData entity, CollectionBean elements, 
+			Object result, Iterator<?> iterator, 
+			HttpServletResponse servletResponse) throws Throwable{
+		
+		ElementOutputStream out = 
+			new ElementOutputStream(
+				new BufferedOutputStream(
+					servletResponse.getOutputStream(), 
+					this.streamFlushSize));
+		
+		JsonBeanEncoder encoder = 
+			entity == null && elements == null? 
+				null : 
+				new JsonBeanEncoder(
+						new OutputStreamWriter(out, "UTF-8"), 
+						this.serializerFactory);
+		
+		try{
+			long sent     = 0;
+			boolean first = true;
+			
+			if(!this.ndjson){
+				out.write('[');
+			}
+			
+			while(iterator.hasNext()){
+				Object value = iterator.next();
+				
+				if(!first && !this.ndjson){
+					out.write(',');
+				}
+				
+				first = false;
+				
+				if(value == null){
+					out.write(NULL);
+				}
+				else
+				if(entity != null){
+					encoder.encode(entity, value);
+				}
+				else
+				if(elements != null){
+					encoder.encodeElement(elements, value);
+				}
+				else{
+					this.jsonContext.encode(value, out);
+				}
+				
+				if(this.ndjson){
+					out.write('\n');
+				}
+				
+				//a escrita bloqueia enquanto o cliente não consome a resposta.
+				if(out.getCount() - sent >= this.streamFlushSize){
+					out.send();
+					sent = out.getCount();
+				}
+			}
+			
+			if(!this.ndjson){
+				out.write(']');
+			}
+			
+			out.send();
+		}
+		finally{
+			StreamResult.close(result, iterator);
+		}
+	}
+	
 	public void destroy() {
 	}
+	
+	private static final byte[] NULL = new byte[]{'n', 'u', 'l', 'l'};
+	
+	/*
+	 * Registra o mapeamento informado pela ação. Nada é escrito.
+	 */
+	private static class EntityEncoder extends JsonBeanEncoder{
+		
+		private UseBeanData entity;
+		
+		public EntityEncoder(){
+			super((Writer)null);
+		}
+		
+		public void encode(UseBeanData entity, Object value){
+			this.entity = entity;
+		}
+		
+		public UseBeanData getEntity(){
+			return this.entity;
+		}
+		
+	}
+	
+	/*
+	 * Recebe os elementos codificados. O codificador não pode fechar nem
+	 * enviar a resposta. O envio é feito somente por send().
+	 */
+	private static class ElementOutputStream extends FilterOutputStream{
+		
+		private long count;
+		
+		public ElementOutputStream(OutputStream out){
+			super(out);
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.count++;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.count += len;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+		}
+		
+		@Override
+		public void close() throws IOException {
+		}
+		
+		public void send() throws IOException{
+			this.out.flush();
+		}
+		
+		public long getCount(){
+			return this.count;
+		}
+		
+	}
 
 }
@@ -0,0 +1,300 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.http.view;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.brandao.brutos.MvcRequest;
+import org.brandao.brutos.MvcResponse;
+import org.brandao.brutos.logger.LoggerProvider;
+import org.brandao.brutos.web.RequestContext;
+import org.brandao.brutos.web.util.AsyncResult;
+
+/**
+ * Processamento assíncrono (Servlet 3) de {@link AsyncRenderViewType}.
+ * <p>A classe depende da API da Servlet 3 e somente é carregada quando
+ * essa API está disponível.</p>
+ * <p>A requisição é encerrada uma única vez: pelo resultado, pela recusa
+ * do executor, pelo fim do prazo ou por um erro na conexão.</p>
+ *
+ * @author Brandao
+ *
+ */
+final class ServletAsyncSupport {
+
+	private ServletAsyncSupport(){
+	}
+
+	/**
+	 * Verifica se a requisição aceita o processamento assíncrono.
+	 * @param context Contexto da requisição.
+	 * @return Verdadeiro se a requisição aceita o processamento assíncrono.
+	 */
+	public static boolean isAsyncSupported(RequestContext context){
+		HttpServletRequest request = context.getServletRequest();
+		return request != null && request.isAsyncSupported() && !request.isAsyncStarted();
+	}
+
+	/**
+	 * Inicia o processamento assíncrono da requisição. A vista é exibida
+	 * por {@link AsyncRenderViewType#render(MvcRequest, MvcResponse, Object)}
+	 * quando o resultado é concluído.
+	 * @param view Vista.
+	 * @param context Contexto da requisição.
+	 * @param request Requisição.
+	 * @param response Resposta.
+	 * @param result Resultado assíncrono.
+	 */
+	public static void start(AsyncRenderViewType view, RequestContext context,
+			MvcRequest request, MvcResponse response, Object result){
+
+		//uma falha antes do início é tratada como na requisição síncrona.
+		Executor executor         = view.getExecutor(request);
+		AsyncContext asyncContext = context.getServletRequest().startAsync();
+		AsyncState state          = 
+				new AsyncState(context, asyncContext, view.getTimeoutStatus(request));
+
+		try{
+			//zero indica que não há prazo. Sem esse valor, o servidor usaria o
+			//prazo padrão dele.
+			asyncContext.setTimeout(view.getTimeout(request));
+			asyncContext.addListener(state);
+
+			state.setFuture(
+				AsyncResult.subscribe(
+					result,
+					new ContextExecutor(
+							state, 
+							executor == null? new ContainerExecutor(asyncContext) : executor),
+					new ResultListener(view, state, request, response)));
+		}
+		catch(Throwable e){
+			//a requisição já é assíncrona e deve ser encerrada aqui.
+			if(state.finish()){
+				error("failed to start async request", e);
+				state.end(
+					e instanceof RejectedExecutionException?
+						HttpServletResponse.SC_SERVICE_UNAVAILABLE :
+						HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+		}
+	}
+
+	private static void sendError(AsyncContext asyncContext, int status){
+		HttpServletResponse servletResponse =
+			(HttpServletResponse)asyncContext.getResponse();
+
+		if(servletResponse.isCommitted()){
+			return;
+		}
+
+		try{
+			servletResponse.sendError(status);
+		}
+		catch(Throwable ex){
+			//a conexão foi encerrada.
+		}
+	}
+
+	private static void error(String message, Throwable e){
+		LoggerProvider provider = LoggerProvider.getCurrentLoggerProvider();
+
+		if(provider != null){
+			provider.getLogger(AsyncRenderViewType.class.getName()).error(message, e);
+		}
+	}
+
+	/*
+	 * Estado da requisição assíncrona.
+	 */
+	private static class AsyncState implements AsyncListener{
+
+		private final RequestContext context;
+
+		private final AsyncContext asyncContext;
+
+		private final int timeoutStatus;
+
+		private final AtomicBoolean finished;
+
+		private volatile Future<?> future;
+
+		public AsyncState(RequestContext context, AsyncContext asyncContext, 
+				int timeoutStatus){
+			this.context       = context;
+			this.asyncContext  = asyncContext;
+			this.timeoutStatus = timeoutStatus;
+			this.finished      = new AtomicBoolean(false);
+		}
+
+		public boolean finish(){
+			return this.finished.compareAndSet(false, true);
+		}
+
+		public void setFuture(Future<?> future){
+			this.future = future;
+
+			if(this.context.isCancelled() && future != null){
+				future.cancel(true);
+			}
+		}
+
+		public void end(int status){
+			try{
+				sendError(this.asyncContext, status);
+			}
+			finally{
+				this.asyncContext.complete();
+			}
+		}
+
+		private void cancel(){
+			this.context.cancel();
+
+			Future<?> task = this.future;
+
+			if(task != null){
+				task.cancel(true);
+			}
+		}
+
+		public void onTimeout(AsyncEvent event) throws IOException {
+			if(this.finish()){
+				this.cancel();
+				this.end(this.timeoutStatus);
+			}
+		}
+
+		public void onError(AsyncEvent event) throws IOException {
+			if(this.finish()){
+				error("async request failed", event.getThrowable());
+				this.cancel();
+				this.asyncContext.complete();
+			}
+		}
+
+		public void onComplete(AsyncEvent event) throws IOException {
+		}
+
+		public void onStartAsync(AsyncEvent event) throws IOException {
+		}
+
+	}
+
+	/*
+	 * Threads assíncronas do servidor.
+	 */
+	private static class ContainerExecutor implements Executor{
+
+		private final AsyncContext asyncContext;
+
+		public ContainerExecutor(AsyncContext asyncContext){
+			this.asyncContext = asyncContext;
+		}
+
+		public void execute(Runnable command) {
+			this.asyncContext.start(command);
+		}
+
+	}
+
+	/*
+	 * Executa as tarefas com o contexto da requisição. Uma tarefa recusada
+	 * encerra a requisição com o status 503.
+	 */
+	private static class ContextExecutor implements Executor{
+
+		private final AsyncState state;
+
+		private final Executor executor;
+
+		public ContextExecutor(AsyncState state, Executor executor){
+			this.state    = state;
+			this.executor = executor;
+		}
+
+		public void execute(Runnable command) {
+			try{
+				this.executor.execute(this.state.context.wrap(command));
+			}
+			catch(RejectedExecutionException e){
+				if(this.state.finish()){
+					this.state.end(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				}
+			}
+		}
+
+	}
+
+	private static class ResultListener implements AsyncResult.Listener{
+
+		private final AsyncRenderViewType view;
+
+		private final AsyncState state;
+
+		private final MvcRequest request;
+
+		private final MvcResponse response;
+
+		public ResultListener(AsyncRenderViewType view, AsyncState state,
+				MvcRequest request, MvcResponse response){
+			this.view     = view;
+			this.state    = state;
+			this.request  = request;
+			this.response = response;
+		}
+
+		public void onSuccess(Object value) {
+
+			//o prazo terminou ou a requisição foi encerrada.
+			if(!this.state.finish()){
+				return;
+			}
+
+			try{
+				this.view.render(this.request, this.response, value);
+			}
+			catch(Throwable e){
+				error("failed to render async result", e);
+				sendError(this.state.asyncContext, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+			finally{
+				this.state.asyncContext.complete();
+			}
+		}
+
+		public void onFailure(Throwable e) {
+			if(this.state.finish()){
+				error("async result failed", e);
+				this.state.end(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Escreve os caracteres em um buffer de bytes, codificados em UTF-8.
+ * <p>O conteúdo somente é enviado ao destino em {@link #close()} ou
+ * quando o buffer atinge o limite informado. Assim, o destino recebe uma
+ * única escrita quando o conteúdo cabe no buffer, e o tamanho do conteúdo
+ * é conhecido antes do envio ({@link #isCommitted()} e 
+ * {@link #getSize()}). O método {@link #flush()} não envia o conteúdo.</p>
+ * <p>Os buffers de até {@value #MAX_POOLED_SIZE} bytes são reutilizados 
+ * pela thread que os criou.</p>
+ * 
+ * @author Brandao
+ *
+ */
+public class BufferedUTF8Writer extends Writer{
+
+	public static final int MAX_POOLED_SIZE = 64*1024;
+	
+	private static final ThreadLocal<byte[]> pool = new ThreadLocal<byte[]>();
+	
+	private final OutputStream out;
+	
+	private final int highWaterMark;
+	
+	private byte[] buf;
+	
+	private int count;
+	
+	private char highSurrogate;
+	
+	private boolean committed;
+	
+	private boolean closed;
+	
+	/**
+	 * Cria um novo buffer.
+	 * @param out Destino.
+	 * @param initialSize Tamanho inicial do buffer.
+	 * @param highWaterMark Tamanho a partir do qual o conteúdo é enviado ao
+	 * destino.
+	 */
+	public BufferedUTF8Writer(OutputStream out, int initialSize, int highWaterMark){
+		
+		if(initialSize <= 0 || highWaterMark <= 0){
+			throw new IllegalArgumentException();
+		}
+		
+		this.out           = out;
+		this.highWaterMark = highWaterMark;
+		this.buf           = acquire(Math.min(initialSize, highWaterMark));
+	}
+	
+	private static byte[] acquire(int size){
+		byte[] value = pool.get();
+		
+		if(value != null && value.length >= size){
+			pool.set(null);
+			return value;
+		}
+		
+		return new byte[size];
+	}
+	
+	private static void release(byte[] value){
+		if(value.length <= MAX_POOLED_SIZE){
+			pool.set(value);
+		}
+	}
+	
+	public void write(int c) throws IOException {
+		this.checkClosed();
+		this.put((char)c);
+	}
+	
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		this.checkClosed();
+		for(int i=off;i<off + len;i++){
+			this.put(cbuf[i]);
+		}
+	}
+	
+	public void write(String str, int off, int len) throws IOException {
+		this.checkClosed();
+		for(int i=off;i<off + len;i++){
+			this.put(str.charAt(i));
+		}
+	}
+	
+	public Writer append(CharSequence csq) throws IOException {
+		if(csq == null){
+			csq = "null";
+		}
+		
+		this.checkClosed();
+		
+		int len = csq.length();
+		for(int i=0;i<len;i++){
+			this.put(csq.charAt(i));
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Escreve bytes já codificados em UTF-8.
+	 * @param value Bytes.
+	 * @throws IOException Lançada se o conteúdo não pode ser enviado.
+	 */
+	public void writeUTF8(byte[] value) throws IOException{
+		this.checkClosed();
+		
+		if(this.highSurrogate != 0){
+			this.highSurrogate = 0;
+			this.ensure(1);
+			this.buf[this.count++] = '?';
+		}
+		
+		int off = 0;
+		
+		while(off < value.length){
+			int len = Math.min(value.length - off, this.highWaterMark);
+			this.ensure(len);
+			System.arraycopy(value, off, this.buf, this.count, len);
+			this.count += len;
+			off        += len;
+		}
+	}
+	
+	private void put(char c) throws IOException{
+		
+		if(this.highSurrogate != 0){
+			char high          = this.highSurrogate;
+			this.highSurrogate = 0;
+			
+			if(Character.isLowSurrogate(c)){
+				int cp = Character.toCodePoint(high, c);
+				this.ensure(4);
+				this.buf[this.count++] = (byte)(0xf0 | (cp >> 18));
+				this.buf[this.count++] = (byte)(0x80 | ((cp >> 12) & 0x3f));
+				this.buf[this.count++] = (byte)(0x80 | ((cp >> 6) & 0x3f));
+				this.buf[this.count++] = (byte)(0x80 | (cp & 0x3f));
+				return;
+			}
+			
+			//substituto inválido.
+			this.ensure(1);
+			this.buf[this.count++] = '?';
+		}
+		
+		if(c < 0x80){
+			if(this.count == this.buf.length){
+				this.ensure(1);
+			}
+			this.buf[this.count++] = (byte)c;
+		}
+		else
+		if(c < 0x800){
+			this.ensure(2);
+			this.buf[this.count++] = (byte)(0xc0 | (c >> 6));
+			this.buf[this.count++] = (byte)(0x80 | (c & 0x3f));
+		}
+		else
+		if(Character.isHighSurrogate(c)){
+			this.highSurrogate = c;
+		}
+		else
+		if(Character.isLowSurrogate(c)){
+			this.ensure(1);
+			this.buf[this.count++] = '?';
+		}
+		else{
+			this.ensure(3);
+			this.buf[this.count++] = (byte)(0xe0 | (c >> 12));
+			this.buf[this.count++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+			this.buf[this.count++] = (byte)(0x80 | (c & 0x3f));
+		}
+	}
+	
+	private void ensure(int len) throws IOException{
+		
+		int size = this.count + len;
+		
+		if(size <= this.buf.length){
+			return;
+		}
+		
+		if(size > this.highWaterMark){
+			this.send();
+			
+			if(len <= this.buf.length){
+				return;
+			}
+		}
+		
+		int newLength = Math.max(size, Math.min(this.buf.length << 1, this.highWaterMark));
+		byte[] value  = new byte[newLength];
+		System.arraycopy(this.buf, 0, value, 0, this.count);
+		release(this.buf);
+		this.buf = value;
+	}
+	
+	private void send() throws IOException{
+		this.committed = true;
+		
+		if(this.count > 0){
+			this.out.write(this.buf, 0, this.count);
+			this.count = 0;
+		}
+	}
+	
+	private void checkClosed() throws IOException{
+		if(this.closed){
+			throw new IOException("writer closed");
+		}
+	}
+	
+	/**
+	 * Não envia o conteúdo. O conteúdo é enviado em {@link #close()}.
+	 */
+	public void flush() throws IOException {
+	}
+	
+	/**
+	 * Envia o conteúdo ao destino e libera o buffer.
+	 */
+	public void close() throws IOException {
+		
+		if(this.closed){
+			return;
+		}
+		
+		try{
+			if(this.highSurrogate != 0){
+				this.highSurrogate = 0;
+				this.ensure(1);
+				this.buf[this.count++] = '?';
+			}
+			
+			this.send();
+			this.out.flush();
+		}
+		finally{
+			this.discard();
+		}
+	}
+	
+	/**
+	 * Descarta o conteúdo que não foi enviado e libera o buffer.
+	 */
+	public void discard(){
+		
+		if(this.closed){
+			return;
+		}
+		
+		this.closed = true;
+		this.count  = 0;
+		release(this.buf);
+		this.buf    = null;
+	}
+	
+	/**
+	 * Verifica se parte do conteúdo já foi enviada ao destino.
+	 * @return Verdadeiro se parte do conteúdo foi enviada.
+	 */
+	public boolean isCommitted(){
+		return this.committed;
+	}
+	
+	/**
+	 * Obtém o tamanho, em bytes, do conteúdo que ainda não foi enviado.
+	 * @return Tamanho.
+	 */
+	public int getSize(){
+		return this.count;
+	}
+	
+}
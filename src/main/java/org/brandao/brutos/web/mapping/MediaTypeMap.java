@@ -18,18 +18,36 @@
 package org.brandao.brutos.web.mapping;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.brandao.brutos.BrutosException;
 import org.brandao.brutos.DataType;
 import org.brandao.brutos.mapping.DataTypeMap;
+import org.brandao.brutos.web.AcceptHeader;
 import org.brandao.brutos.web.MediaType;
 
+/**
+ * Tipos de mídia aceitos ou produzidos por um controlador ou ação.
+ * <p>A negociação com a lista de tipos aceitos pelo cliente é feita uma
+ * vez por lista e o resultado é mantido na instância. As listas obtidas
+ * de {@link AcceptHeader} são compartilhadas, logo a negociação de uma
+ * requisição é, em geral, uma consulta ao resultado já calculado.</p>
+ * 
+ * @author Brandao
+ *
+ */
 public class MediaTypeMap extends DataTypeMap{
 
+	private static final int MAX_NEGOTIATIONS = 64;
+	
+	private static final MediaType NOT_ACCEPTABLE = new MediaType("*/*", "*", "*");
+	
 	private Map<String, Map<String, MediaType>> map;
 	
 	private boolean hasAll;
@@ -38,16 +56,21 @@ public class MediaTypeMap extends DataTypeMap{
 
 	private Set<DataType> publicSet;
 	
+	private volatile MediaType[] types;
+	
+	private volatile ConcurrentMap<AcceptKey, MediaType> negotiations;
+	
 	public MediaTypeMap(){
-		this.map       = new HashMap<String, Map<String, MediaType>>();
-		this.hasAll    = false;
-		this.set       = new HashSet<DataType>();
-		this.publicSet = Collections.unmodifiableSet(this.set);
+		this.map          = new LinkedHashMap<String, Map<String, MediaType>>();
+		this.hasAll       = false;
+		this.set          = new LinkedHashSet<DataType>();
+		this.publicSet    = Collections.unmodifiableSet(this.set);
+		this.types        = new MediaType[0];
+		this.negotiations = new ConcurrentHashMap<AcceptKey, MediaType>();
 	}
 
 	public MediaTypeMap(Set<DataType> value){
-		this.map    = new HashMap<String, Map<String, MediaType>>();
-		this.hasAll = false;
+		this();
 		
 		for(DataType v: value){
 			this.add((MediaType)v);
@@ -62,6 +85,8 @@ public class MediaTypeMap extends DataTypeMap{
 	public void clear(){
 		set.clear();
 		map.clear();
+		this.hasAll = false;
+		this.compile();
 	}
 	
 	public void add(DataType value){
@@ -72,7 +97,7 @@ public class MediaTypeMap extends DataTypeMap{
 		Map<String, MediaType> subtypes = this.map.get(type);
 		
 		if(subtypes == null){
-			subtypes = new HashMap<String, MediaType>();
+			subtypes = new LinkedHashMap<String, MediaType>();
 			subtypes.put(subtype, mediaType);
 			this.map.put(type, subtypes);
 			this.set.add(mediaType);
@@ -91,6 +116,7 @@ public class MediaTypeMap extends DataTypeMap{
 			this.hasAll = true;
 		}
 		
+		this.compile();
 	}
 	
 	public void remove(DataType value){
@@ -108,10 +134,9 @@ public class MediaTypeMap extends DataTypeMap{
 				throw new BrutosException("subtype not found: " + subtype);
 			}
 			else{
-				subtypes.remove(subtype);
+				this.set.remove(subtypes.remove(subtype));
 				if(subtypes.isEmpty()){
 					this.map.remove(type);
-					this.set.remove(mediaType);
 				}
 			}
 		}
@@ -120,37 +145,43 @@ public class MediaTypeMap extends DataTypeMap{
 			this.hasAll = false;
 		}
 		
+		this.compile();
 	}
 	
 	public MediaType getMatch(DataType value){
-		MediaType mediaType = (MediaType)value;
-		String type         = mediaType.getType();
-		String subtype      = mediaType.getSubType();
-		
-		if(type.equals("*")){
-			
-			if(!subtype.equals("*")){
-				throw new IllegalStateException("invalid subtype: " + subtype);
-			}
-			
-			return (MediaType)this.set.iterator().next();
-		}
-		
-		Map<String, MediaType> subtypes = this.map.get(type);
+		return negotiate(this.types, Collections.singletonList(value));
+	}
+	
+	/**
+	 * Seleciona o tipo a ser usado na resposta.
+	 * <p>Cada tipo da instância recebe o valor de <code>q</code> do tipo
+	 * mais específico do cliente que o aceita. Prevalece o maior valor
+	 * de <code>q</code>, depois a ordem do cliente e, por fim, a ordem
+	 * de registro. Um tipo com curinga da instância, por exemplo
+	 * <code>text/*</code>, seleciona o tipo do cliente. Um tipo com 
+	 * <code>q=0</code> é excluído pelo cliente e não é selecionado.</p>
+	 * @param accept Tipos aceitos pelo cliente, na ordem de preferência.
+	 * @return Tipo selecionado ou <code>null</code> se nenhum
+	 * tipo é aceito.
+	 */
+	public MediaType getMatch(List<DataType> accept){
+		ConcurrentMap<AcceptKey, MediaType> negotiations = this.negotiations;
+		AcceptKey key                                    = new AcceptKey(accept);
+		MediaType result                                 = negotiations.get(key);
 		
-		if(subtypes != null){
+		if(result == null){
+			result = negotiate(this.types, accept);
+			result = result == null? NOT_ACCEPTABLE : result;
 			
-			if(!subtype.equals("*")){
-				return subtypes.values().iterator().next();
-			}
-			else{
-				return subtypes.get(subtype);
+			//mantém somente os resultados recentes.
+			if(negotiations.size() >= MAX_NEGOTIATIONS){
+				negotiations.clear();
 			}
 			
+			negotiations.put(key, result);
 		}
 		
-		return null;
-		
+		return result == NOT_ACCEPTABLE? null : result;
 	}
 	
 	public boolean accept(DataType value){
@@ -202,4 +233,113 @@ public class MediaTypeMap extends DataTypeMap{
 		return this.publicSet;
 	}
 	
+	private void compile(){
+		this.types        = this.set.toArray(new MediaType[this.set.size()]);
+		this.negotiations = new ConcurrentHashMap<AcceptKey, MediaType>();
+	}
+	
+	private static MediaType negotiate(MediaType[] types, List<DataType> accept){
+		
+		//sem preferência do cliente, qualquer tipo é aceito.
+		if(accept == null || accept.isEmpty()){
+			for(MediaType type: types){
+				if(!isRange(type)){
+					return type;
+				}
+			}
+			return null;
+		}
+		
+		MediaType result = null;
+		double resultQ   = 0.0;
+		int resultIndex  = Integer.MAX_VALUE;
+		
+		for(MediaType type: types){
+			
+			if(isRange(type)){
+				for(int i=0;i<accept.size();i++){
+					MediaType client = (MediaType)accept.get(i);
+					double q         = AcceptHeader.getQuality(client);
+					
+					if(q > 0.0 && !isRange(client) && covers(type, client) && 
+							(q > resultQ || (q == resultQ && i < resultIndex))){
+						result      = client;
+						resultQ     = q;
+						resultIndex = i;
+					}
+				}
+			}
+			else{
+				int index       = -1;
+				int specificity = -1;
+				
+				for(int i=0;i<accept.size();i++){
+					MediaType client = (MediaType)accept.get(i);
+					int s            = getSpecificity(client);
+					
+					if(s > specificity && covers(client, type)){
+						index       = i;
+						specificity = s;
+					}
+				}
+				
+				if(index != -1){
+					double q = AcceptHeader.getQuality((MediaType)accept.get(index));
+					
+					//o tipo mais específico do cliente com q=0 exclui o tipo.
+					if(q > 0.0 && (q > resultQ || (q == resultQ && index < resultIndex))){
+						result      = type;
+						resultQ     = q;
+						resultIndex = index;
+					}
+				}
+			}
+		}
+		
+		return result;
+	}
+
+	private static boolean isRange(MediaType value){
+		return value.getType().equals("*") || value.getSubType().equals("*");
+	}
+	
+	private static boolean covers(MediaType range, MediaType value){
+		if(range.getType().equals("*")){
+			return true;
+		}
+		
+		if(!range.getType().equals(value.getType())){
+			return false;
+		}
+		
+		return range.getSubType().equals("*") || range.getSubType().equals(value.getSubType());
+	}
+	
+	private static int getSpecificity(MediaType value){
+		return value.getType().equals("*")? 0 : value.getSubType().equals("*")? 1 : 2;
+	}
+	
+	/*
+	 * As listas de tipos aceitos são comparadas pela identidade.
+	 */
+	private static class AcceptKey{
+		
+		private final List<DataType> value;
+		
+		public AcceptKey(List<DataType> value){
+			this.value = value;
+		}
+		
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.value);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof AcceptKey && ((AcceptKey)obj).value == this.value;
+		}
+		
+	}
+	
 }
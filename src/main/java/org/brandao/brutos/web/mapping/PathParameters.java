@@ -0,0 +1,165 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.brandao.brutos.web.StringPattern;
+
+/**
+ * Valores das variáveis de uma rota.
+ * <p>Os nomes e os valores são mantidos em vetores paralelos, na ordem
+ * em que aparecem na rota. Uma instância não é alterada depois de criada,
+ * logo pode ser compartilhada entre requisições.</p>
+ *
+ * @author Brandao
+ *
+ */
+public final class PathParameters {
+
+	private final String[] names;
+
+	private final Object[] values;
+
+	private PathParameters(String[] names, Object[] values){
+		this.names  = names;
+		this.values = values;
+	}
+
+	/**
+	 * Cria os valores das variáveis de um segmento.
+	 * @param pattern Padrão do segmento.
+	 * @param values Valores extraídos por {@link StringPattern#match(String)}.
+	 */
+	public PathParameters(StringPattern pattern, Object[] values){
+		this.names  = new String[values.length];
+		this.values = values.clone();
+
+		for(int i=0;i<values.length;i++){
+			this.names[i] = pattern.getVars().get(i).getId();
+		}
+	}
+
+	/**
+	 * Junta os valores das variáveis dos próximos segmentos. Se a mesma
+	 * variável existir nos dois, prevalecem os valores desta instância.
+	 * @param next Valores dos próximos segmentos.
+	 * @return Nova instância com os valores das duas.
+	 */
+	public PathParameters merge(PathParameters next){
+
+		if(next == null || next.names.length == 0){
+			return this;
+		}
+
+		int length = this.names.length;
+
+		for(int i=0;i<next.names.length;i++){
+			if(this.indexOf(next.names[i]) == -1){
+				length++;
+			}
+		}
+
+		String[] names  = new String[length];
+		Object[] values = new Object[length];
+		int index       = this.names.length;
+
+		System.arraycopy(this.names, 0, names, 0, index);
+		System.arraycopy(this.values, 0, values, 0, index);
+
+		for(int i=0;i<next.names.length;i++){
+			if(this.indexOf(next.names[i]) == -1){
+				names[index]  = next.names[i];
+				values[index] = next.values[i];
+				index++;
+			}
+		}
+
+		return new PathParameters(names, values);
+	}
+
+	public int size(){
+		return this.names.length;
+	}
+
+	public String getName(int index){
+		return this.names[index];
+	}
+
+	public Object getValue(int index){
+		return this.values[index];
+	}
+
+	/**
+	 * Obtém o primeiro valor de uma variável.
+	 * @param name Nome da variável.
+	 * @return Valor ou <code>null</code>.
+	 */
+	public Object getValue(String name){
+		int index = this.indexOf(name);
+		return index == -1? null : this.values[index];
+	}
+
+	/**
+	 * Obtém os valores de uma variável.
+	 * @param name Nome da variável.
+	 * @return Valores ou <code>null</code>.
+	 */
+	public List<Object> getValues(String name){
+		List<Object> result = null;
+
+		for(int i=0;i<this.names.length;i++){
+			if(this.names[i].equals(name)){
+				if(result == null){
+					result = new ArrayList<Object>(1);
+				}
+				result.add(this.values[i]);
+			}
+		}
+
+		return result == null? null : Collections.unmodifiableList(result);
+	}
+
+	public boolean contains(String name){
+		return this.indexOf(name) != -1;
+	}
+
+	public Set<String> getNames(){
+		Set<String> result = new LinkedHashSet<String>();
+
+		for(String name: this.names){
+			result.add(name);
+		}
+
+		return result;
+	}
+
+	private int indexOf(String name){
+		for(int i=0;i<this.names.length;i++){
+			if(this.names[i].equals(name)){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,569 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.brandao.brutos.web.RequestMethodType;
+import org.brandao.brutos.web.StringPattern;
+import org.brandao.brutos.web.util.WebUtil;
+
+/**
+ * Tabela de rotas organizada em uma árvore radix compactada.
+ * <p>Os trechos estáticos das rotas são compartilhados e comparados
+ * caractere a caractere diretamente sobre a identificação da requisição,
+ * sem criar substrings ou listas. Somente os segmentos variáveis
+ * são extraídos, para obter os valores das variáveis.</p>
+ * <p>A resolução segue as mesmas regras da {@link TrieRequestMappingTree}:
+ * em cada segmento, uma rota estática tem precedência sobre uma rota com
+ * variáveis e, uma vez escolhido o segmento, não há retrocesso.</p>
+ * <p>Os nós publicados não são alterados. A inclusão e a remoção copiam
+ * os nós do caminho da rota e publicam uma nova raiz.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class RadixRequestMappingTree implements RequestMappingTree{
+
+	private static final char SEPARATOR = WebUtil.REQUEST_SEPARATOR;
+
+	private volatile Node root;
+
+	public RadixRequestMappingTree(){
+		this(new Node(new char[0]));
+	}
+
+	private RadixRequestMappingTree(Node root){
+		this.root = root;
+	}
+
+	public RequestMappingTree copy(){
+		return new RadixRequestMappingTree(this.root);
+	}
+
+	public synchronized boolean add(String id, RequestMappingEntry value) throws MalformedURLException{
+		List<String> parts = WebUtil.parserURI(id, true);
+		Node root          = this.root.copy();
+		Node node          = root;
+		StringBuilder text = new StringBuilder();
+
+		for(String part: parts){
+			text.append(SEPARATOR);
+
+			if(part.indexOf("{") == -1){
+				text.append(part);
+			}
+			else{
+				node = this.addStatic(node, text.toString());
+				node = node.getDynamicChildToAdd(part);
+				text.setLength(0);
+			}
+		}
+
+		node = this.addStatic(node, text.toString());
+
+		if(!node.putRequestEntry(value.getRequestMethodType(), value)){
+			return false;
+		}
+
+		this.root = root;
+		return true;
+	}
+
+	public synchronized boolean remove(String id, RequestMappingEntry value) throws MalformedURLException{
+		List<String> parts = WebUtil.parserURI(id, true);
+		List<Node> stack   = new ArrayList<Node>();
+		Node root          = this.root.copy();
+		Node node          = root;
+		StringBuilder text = new StringBuilder();
+
+		stack.add(node);
+
+		for(String part: parts){
+			text.append(SEPARATOR);
+
+			if(part.indexOf("{") == -1){
+				text.append(part);
+			}
+			else{
+				node = this.findStatic(node, text.toString(), stack);
+
+				if(node == null){
+					return false;
+				}
+
+				Node child = node.getDynamicChild(part);
+
+				if(child == null){
+					return false;
+				}
+
+				node = node.copyChild(child);
+				stack.add(node);
+				text.setLength(0);
+			}
+		}
+
+		node = this.findStatic(node, text.toString(), stack);
+
+		if(node == null || !node.removeRequestEntry(value.getRequestMethodType())){
+			return false;
+		}
+
+		for(int i=stack.size() - 1;i>0;i--){
+			Node current = stack.get(i);
+			Node parent  = stack.get(i - 1);
+
+			if(current.isEmpty()){
+				parent.removeChild(current);
+			}
+			else{
+				current.compact();
+			}
+		}
+
+		this.root = root;
+		return true;
+	}
+
+	public RequestEntry get(String id, RequestMethodType methodType) throws MalformedURLException{
+
+		int length = id.length();
+		int pos    = id.indexOf(SEPARATOR);
+
+		Node root  = this.root;
+
+		if(pos == -1){
+			return this.createEntry(root, methodType, null);
+		}
+
+		//posição atual: caractere offset do trecho estático do nó.
+		Node node                        = root;
+		int offset                       = 0;
+		PathParameters params            = null;
+
+		while(true){
+
+			while(pos + 1 < length && id.charAt(pos + 1) == SEPARATOR){
+				pos++;
+			}
+
+			int start = pos + 1;
+			int end   = start == length? -1 : id.indexOf(SEPARATOR, start);
+			end       = end == -1? length : end;
+
+			//segmento estático: compara o separador e os caracteres do segmento.
+			Node staticNode  = node;
+			int staticOffset = offset;
+			boolean matched  = true;
+
+			for(int i=pos;i<end;i++){
+				char c = id.charAt(i);
+
+				if(staticOffset == staticNode.prefix.length){
+					Node child = staticNode.getStaticChild(c);
+
+					if(child == null){
+						matched = false;
+						break;
+					}
+
+					staticNode   = child;
+					staticOffset = 1;
+				}
+				else
+				if(staticNode.prefix[staticOffset] == c){
+					staticOffset++;
+				}
+				else{
+					matched = false;
+					break;
+				}
+			}
+
+			//o segmento somente existe se for seguido de um separador ou
+			//se alguma rota terminar nele.
+			if(matched){
+				matched =
+					staticOffset < staticNode.prefix.length?
+						staticNode.prefix[staticOffset] == SEPARATOR :
+						staticNode.requestMethodTypes != null ||
+						staticNode.getStaticChild(SEPARATOR) != null;
+			}
+
+			if(matched){
+				node   = staticNode;
+				offset = staticOffset;
+
+				if(end == length){
+					return offset == node.prefix.length?
+							this.createEntry(node, methodType, params) :
+							null;
+				}
+
+				pos = end;
+				continue;
+			}
+
+			//segmento variável: os nós variáveis ficam logo após o separador.
+			Node separatorNode;
+
+			if(offset == node.prefix.length){
+				separatorNode = node.getStaticChild(SEPARATOR);
+
+				if(separatorNode == null || separatorNode.prefix.length != 1){
+					return null;
+				}
+			}
+			else
+			if(node.prefix[offset] == SEPARATOR && offset + 1 == node.prefix.length){
+				separatorNode = node;
+			}
+			else{
+				return null;
+			}
+
+			Node[] children  = separatorNode.dynamicChildren;
+			Node dynamicNode = null;
+			Object[] values  = null;
+
+			for(int i=0;i<children.length && values == null;i++){
+				dynamicNode = children[i];
+				values      = dynamicNode.pattern.match(id, start, end);
+			}
+
+			if(values == null){
+				return null;
+			}
+
+			params = this.putParameters(params, dynamicNode, values);
+			node   = dynamicNode;
+			offset = 0;
+
+			if(end == length){
+				return this.createEntry(node, methodType, params);
+			}
+
+			pos = end;
+		}
+
+	}
+
+	private RequestEntry createEntry(Node node, RequestMethodType methodType,
+			PathParameters params){
+		RequestMappingEntry entry = node.getRequestEntry(methodType);
+
+		if(entry == null){
+			//o caminho existe, mas não para o método da requisição.
+			RequestMethodType[] allowedMethods = node.getAllowedMethods();
+			return allowedMethods == null? null : new RequestEntry(allowedMethods);
+		}
+
+		return new RequestEntry(entry, params, node.getAllowedMethods());
+	}
+
+	private PathParameters putParameters(PathParameters params,
+			Node node, Object[] values){
+
+		PathParameters nodeParams = new PathParameters(node.pattern, values);
+
+		//as variáveis dos segmentos anteriores têm precedência.
+		return params == null? nodeParams : params.merge(nodeParams);
+	}
+
+	/* -- registry -- */
+
+	private Node addStatic(Node node, String text){
+		int i = 0;
+
+		while(i < text.length()){
+			Node child = node.getStaticChild(text.charAt(i));
+
+			if(child == null){
+				child = new Node(text.substring(i).toCharArray());
+				node.addStaticChild(child);
+				return child;
+			}
+
+			child = node.copyChild(child);
+			int j = 0;
+
+			while(j < child.prefix.length && i + j < text.length() &&
+					child.prefix[j] == text.charAt(i + j)){
+				j++;
+			}
+
+			if(j < child.prefix.length){
+				child = node.split(child, j);
+			}
+
+			node = child;
+			i   += j;
+		}
+
+		return node;
+	}
+
+	private Node findStatic(Node node, String text, List<Node> stack){
+		int i = 0;
+
+		while(i < text.length()){
+			Node child = node.getStaticChild(text.charAt(i));
+
+			if(child == null || child.prefix.length > text.length() - i){
+				return null;
+			}
+
+			for(int j=0;j<child.prefix.length;j++){
+				if(child.prefix[j] != text.charAt(i + j)){
+					return null;
+				}
+			}
+
+			child = node.copyChild(child);
+			stack.add(child);
+			node = child;
+			i   += child.prefix.length;
+		}
+
+		return node;
+	}
+
+	private static class Node{
+
+		private char[] prefix;
+
+		private final String value;
+
+		private final StringPattern pattern;
+
+		private Node[] staticChildren;
+
+		private Node[] dynamicChildren;
+
+		private RequestMethodTable requestMethodTypes;
+
+		public Node(char[] prefix){
+			this.prefix          = prefix;
+			this.value           = null;
+			this.pattern         = null;
+			this.staticChildren  = new Node[0];
+			this.dynamicChildren = new Node[0];
+		}
+
+		public Node(String value) throws MalformedURLException{
+			this.prefix          = new char[0];
+			this.value           = value;
+			this.pattern         = new StringPattern(value);
+			this.staticChildren  = new Node[0];
+			this.dynamicChildren = new Node[0];
+		}
+
+		private Node(Node node){
+			this.prefix             = node.prefix;
+			this.value              = node.value;
+			this.pattern            = node.pattern;
+			this.staticChildren     = node.staticChildren;
+			this.dynamicChildren    = node.dynamicChildren;
+			this.requestMethodTypes =
+				node.requestMethodTypes == null? null : node.requestMethodTypes.copy();
+		}
+
+		/*
+		 * Os vetores de nós e de caracteres são substituídos, nunca
+		 * alterados, logo podem ser compartilhados pela cópia.
+		 */
+		public Node copy(){
+			return new Node(this);
+		}
+
+		/*
+		 * Substitui o nó filho por uma cópia.
+		 */
+		public Node copyChild(Node child){
+			Node copy = child.copy();
+
+			if(child.pattern == null){
+				this.replaceStaticChild(child, copy);
+			}
+			else{
+				Node[] children = this.dynamicChildren.clone();
+				for(int i=0;i<children.length;i++){
+					if(children[i] == child){
+						children[i] = copy;
+					}
+				}
+				this.dynamicChildren = children;
+			}
+
+			return copy;
+		}
+
+		public Node getStaticChild(char c){
+			Node[] children = this.staticChildren;
+			for(int i=0;i<children.length;i++){
+				if(children[i].prefix[0] == c){
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		public void addStaticChild(Node node){
+			Node[] children = new Node[this.staticChildren.length + 1];
+			System.arraycopy(this.staticChildren, 0, children, 0, this.staticChildren.length);
+			children[children.length - 1] = node;
+			this.staticChildren = children;
+		}
+
+		public Node split(Node child, int index){
+			char[] top    = new char[index];
+			char[] bottom = new char[child.prefix.length - index];
+
+			System.arraycopy(child.prefix, 0, top, 0, top.length);
+			System.arraycopy(child.prefix, index, bottom, 0, bottom.length);
+
+			Node node = new Node(top);
+			child.prefix = bottom;
+			node.staticChildren = new Node[]{child};
+
+			this.replaceStaticChild(child, node);
+			return node;
+		}
+
+		public void compact(){
+			if(this.pattern != null || this.requestMethodTypes != null ||
+				this.dynamicChildren.length != 0 || this.staticChildren.length != 1 ||
+				this.prefix.length == 0){
+				return;
+			}
+
+			Node child    = this.staticChildren[0];
+			char[] merged = new char[this.prefix.length + child.prefix.length];
+			System.arraycopy(this.prefix, 0, merged, 0, this.prefix.length);
+			System.arraycopy(child.prefix, 0, merged, this.prefix.length, child.prefix.length);
+
+			this.prefix             = merged;
+			this.staticChildren     = child.staticChildren;
+			this.dynamicChildren    = child.dynamicChildren;
+			this.requestMethodTypes = child.requestMethodTypes;
+		}
+
+		private void replaceStaticChild(Node oldNode, Node newNode){
+			Node[] children = this.staticChildren.clone();
+			for(int i=0;i<children.length;i++){
+				if(children[i] == oldNode){
+					children[i] = newNode;
+				}
+			}
+			this.staticChildren = children;
+		}
+
+		public Node getDynamicChild(String value){
+			for(Node node: this.dynamicChildren){
+				if(node.value.equals(value)){
+					return node;
+				}
+			}
+			return null;
+		}
+
+		public Node getDynamicChildToAdd(String value) throws MalformedURLException{
+			Node node = this.getDynamicChild(value);
+
+			if(node != null){
+				node = this.copyChild(node);
+			}
+			else{
+				node = new Node(value);
+				Node[] children = new Node[this.dynamicChildren.length + 1];
+				int index       = 0;
+
+				//ordem de especificidade. Nós equivalentes mantêm a ordem de registro.
+				while(index < this.dynamicChildren.length &&
+						StringPattern.SPECIFICITY.compare(
+							this.dynamicChildren[index].pattern, node.pattern) <= 0){
+					index++;
+				}
+
+				System.arraycopy(this.dynamicChildren, 0, children, 0, index);
+				System.arraycopy(this.dynamicChildren, index, children, index + 1,
+						this.dynamicChildren.length - index);
+				children[index] = node;
+				this.dynamicChildren = children;
+			}
+
+			return node;
+		}
+
+		public void removeChild(Node node){
+			this.staticChildren  = remove(this.staticChildren, node);
+			this.dynamicChildren = remove(this.dynamicChildren, node);
+		}
+
+		private static Node[] remove(Node[] nodes, Node node){
+			List<Node> list = new ArrayList<Node>();
+			for(Node n: nodes){
+				if(n != node){
+					list.add(n);
+				}
+			}
+			return list.size() == nodes.length? nodes : list.toArray(new Node[list.size()]);
+		}
+
+		public boolean isEmpty(){
+			return this.requestMethodTypes == null &&
+					this.staticChildren.length == 0 &&
+					this.dynamicChildren.length == 0;
+		}
+
+		public RequestMappingEntry getRequestEntry(RequestMethodType value) {
+			return requestMethodTypes == null? null : requestMethodTypes.get(value);
+		}
+
+		public RequestMethodType[] getAllowedMethods() {
+			return requestMethodTypes == null? null : requestMethodTypes.getAllowedMethods();
+		}
+
+		public boolean putRequestEntry(RequestMethodType requestMethodType,
+				RequestMappingEntry value) {
+			if(this.requestMethodTypes == null){
+				this.requestMethodTypes = new RequestMethodTable();
+			}
+
+			return this.requestMethodTypes.put(requestMethodType, value);
+		}
+
+		public boolean removeRequestEntry(RequestMethodType value) {
+
+			if(requestMethodTypes == null || !this.requestMethodTypes.remove(value)){
+				return false;
+			}
+
+			if(this.requestMethodTypes.isEmpty()){
+				this.requestMethodTypes = null;
+			}
+
+			return true;
+		}
+
+	}
+
+}
@@ -1,35 +1,69 @@
 package org.brandao.brutos.web.mapping;
 
-import java.util.List;
-import java.util.Map;
+import org.brandao.brutos.web.RequestMethodType;
 
+/**
+ * Entrada da rota associada a uma requisição e os valores das variáveis 
+ * da rota. Não é alterada depois de criada, logo pode ser mantida
+ * em cache e compartilhada entre requisições.
+ * <p>Quando o caminho existe, mas não para o método da requisição, a
+ * entrada não tem uma rota e indica os métodos aceitos pelo caminho.</p>
+ * 
+ * @author Brandao
+ *
+ */
 public class RequestEntry {
 
-	private RequestMappingEntry requestMappingEntry;
+	private final RequestMappingEntry requestMappingEntry;
 	
-	private Map<String,List<String>> parameters;
+	private final PathParameters parameters;
+	
+	private final RequestMethodType[] allowedMethods;
+
+	public RequestEntry(RequestMappingEntry requestMappingEntry,
+			PathParameters parameters) {
+		this(requestMappingEntry, parameters, null);
+	}
 
+	/**
+	 * Cria uma entrada para um caminho que aceita o método da requisição.
+	 * @param requestMappingEntry Entrada da rota.
+	 * @param parameters Valores das variáveis da rota.
+	 * @param allowedMethods Métodos aceitos pelo caminho.
+	 */
 	public RequestEntry(RequestMappingEntry requestMappingEntry,
-			Map<String, List<String>> parameters) {
+			PathParameters parameters, RequestMethodType[] allowedMethods) {
 		super();
 		this.requestMappingEntry = requestMappingEntry;
 		this.parameters = parameters;
+		this.allowedMethods = allowedMethods;
 	}
 
-	public RequestMappingEntry getRequestMappingEntry() {
-		return requestMappingEntry;
+	/**
+	 * Cria uma entrada para um caminho que não aceita o método da requisição.
+	 * @param allowedMethods Métodos aceitos pelo caminho.
+	 */
+	public RequestEntry(RequestMethodType[] allowedMethods) {
+		super();
+		this.requestMappingEntry = null;
+		this.parameters = null;
+		this.allowedMethods = allowedMethods;
 	}
 
-	public void setRequestMappingEntry(RequestMappingEntry requestMappingEntry) {
-		this.requestMappingEntry = requestMappingEntry;
+	public RequestMappingEntry getRequestMappingEntry() {
+		return requestMappingEntry;
 	}
 
-	public Map<String, List<String>> getParameters() {
+	public PathParameters getParameters() {
 		return parameters;
 	}
 
-	public void setParameters(Map<String, List<String>> parameters) {
-		this.parameters = parameters;
+	/**
+	 * Obtém os métodos aceitos pelo caminho.
+	 * @return Métodos aceitos ou <code>null</code>.
+	 */
+	public RequestMethodType[] getAllowedMethods() {
+		return allowedMethods;
 	}
 
 }
@@ -18,9 +18,10 @@
 package org.brandao.brutos.web.mapping;
 
 import java.net.MalformedURLException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,17 +41,26 @@ public class RequestMappingNode{
 	
 	private Set<RequestMappingNode> dynamicNext;
 	
-	private Map<RequestMethodType, RequestMappingEntry> requestMethodTypes;
+	private RequestMappingNode[] dynamicNodes;
+	
+	private RequestMethodTable requestMethodTypes;
 	
 	public RequestMappingNode(){
-		this.dynamicNext = new HashSet<RequestMappingNode>();
+		this.dynamicNext  = new LinkedHashSet<RequestMappingNode>();
+		this.dynamicNodes = new RequestMappingNode[0];
 		this.staticNext  = new HashMap<String, RequestMappingNode>();
 		this.pattern     = null;
 		this.staticValue = true;
 	}
 	
-	public Map<String,List<String>> getRequestParameters(MutableMvcRequest request, String value){
-		return this.pattern == null? null : this.pattern.getParameters(value);
+	public PathParameters getRequestParameters(MutableMvcRequest request, String value){
+		
+		if(this.pattern == null){
+			return null;
+		}
+		
+		Object[] values = this.pattern.match(value);
+		return values == null? null : new PathParameters(this.pattern, values);
 
 		/*
         for(String key: params.keySet() ){
@@ -74,21 +84,62 @@ public class RequestMappingNode{
 		else{
 			node.setPattern(new StringPattern(value));
 			this.dynamicNext.add(node);
+			this.sortDynamicNodes();
 		}
 		
 		return node;
 	}
 
+	/**
+	 * Cria uma cópia do nó. Os nós seguintes são compartilhados.
+	 * @return Cópia.
+	 */
+	public RequestMappingNode copy(){
+		RequestMappingNode node = new RequestMappingNode();
+		node.value              = this.value;
+		node.pattern            = this.pattern;
+		node.staticValue        = this.staticValue;
+		node.staticNext         = new HashMap<String, RequestMappingNode>(this.staticNext);
+		node.dynamicNext        = new LinkedHashSet<RequestMappingNode>(this.dynamicNext);
+		node.dynamicNodes       = this.dynamicNodes;
+		node.requestMethodTypes = 
+			this.requestMethodTypes == null? null : this.requestMethodTypes.copy();
+		return node;
+	}
+	
+	/**
+	 * Substitui o nó seguinte que tem o mesmo valor.
+	 * @param node Novo nó.
+	 */
+	public void replace(RequestMappingNode node){
+		
+		if(node.isStaticValue()){
+			this.staticNext.put(node.getValue(), node);
+		}
+		else{
+			Set<RequestMappingNode> dynamicNext = new LinkedHashSet<RequestMappingNode>();
+			
+			for(RequestMappingNode next: this.dynamicNext){
+				dynamicNext.add(next.equals(node)? node : next);
+			}
+			
+			this.dynamicNext = dynamicNext;
+			this.sortDynamicNodes();
+		}
+		
+	}
+	
 	public void remove(String value){
 		
 		RequestMappingNode node = new RequestMappingNode();
 		node.setValue(value);
 		
-		if(value == null || value.startsWith("{")){
+		if(value == null || value.indexOf("{") == -1){
 			this.staticNext.remove(value);
 		}
 		else{
 			this.dynamicNext.remove(node);
+			this.sortDynamicNodes();
 		}
 		
 	}
@@ -119,9 +170,11 @@ public class RequestMappingNode{
 			}
 		}
 		
-		for(RequestMappingNode dynamicNode: this.dynamicNext){
-			if(dynamicNode.pattern.matches(value)){
-				return dynamicNode;
+		RequestMappingNode[] nodes = this.dynamicNodes;
+		
+		for(int i=0;i<nodes.length;i++){
+			if(nodes[i].pattern.matches(value)){
+				return nodes[i];
 			}
 		}
 		
@@ -146,8 +199,29 @@ public class RequestMappingNode{
 		return null;
 	}
 	
+	/*
+	 * Os nós variáveis são verificados do mais específico para o
+	 * menos específico. Nós equivalentes mantêm a ordem de registro.
+	 */
+	private void sortDynamicNodes(){
+		RequestMappingNode[] nodes = 
+				this.dynamicNext.toArray(new RequestMappingNode[this.dynamicNext.size()]);
+		Arrays.sort(nodes, DYNAMIC_ORDER);
+		this.dynamicNodes = nodes;
+	}
+	
+	private static final Comparator<RequestMappingNode> DYNAMIC_ORDER = 
+			new Comparator<RequestMappingNode>(){
+		
+		public int compare(RequestMappingNode o1, RequestMappingNode o2) {
+			return StringPattern.SPECIFICITY.compare(o1.pattern, o2.pattern);
+		}
+		
+	};
+	
 	public boolean isEmpty(){
-		return this.dynamicNext.isEmpty() && this.staticNext.isEmpty();
+		return this.dynamicNext.isEmpty() && this.staticNext.isEmpty() &&
+				(this.requestMethodTypes == null || this.requestMethodTypes.isEmpty());
 	}
 	
 	public StringPattern getPattern() {
@@ -162,19 +236,24 @@ public class RequestMappingNode{
 		return requestMethodTypes == null? null : requestMethodTypes.get(value);
 	}
 
+	/**
+	 * Obtém os métodos aceitos pelo nó.
+	 * @return Métodos aceitos ou <code>null</code> se o nó não
+	 * tem entradas.
+	 */
+	public RequestMethodType[] getAllowedMethods() {
+		return requestMethodTypes == null || requestMethodTypes.isEmpty()? 
+				null : 
+				requestMethodTypes.getAllowedMethods();
+	}
+	
 	public boolean putRequestEntry(RequestMethodType requestMethodType, 
 			RequestMappingEntry value) {
 		if(this.requestMethodTypes == null){
-			this.requestMethodTypes = 
-					new HashMap<RequestMethodType, RequestMappingEntry>();
-		}
-		
-		if(this.requestMethodTypes.containsKey(requestMethodType)){
-			return false; 
+			this.requestMethodTypes = new RequestMethodTable();
 		}
 		
-		this.requestMethodTypes.put(requestMethodType, value);
-		return true;
+		return this.requestMethodTypes.put(requestMethodType, value);
 	}
 
 	public boolean removeRequestEntry(RequestMethodType value) {
@@ -183,12 +262,7 @@ public class RequestMappingNode{
 			return false;
 		}
 
-		if(!this.requestMethodTypes.containsKey(value)){
-			return false;
-		}
-		
-		this.requestMethodTypes.remove(value);
-		return true;
+		return this.requestMethodTypes.remove(value);
 	}
 	
 	public String getValue() {
@@ -221,6 +295,7 @@ public class RequestMappingNode{
 
 	public void setDynamicNext(Set<RequestMappingNode> dynamicNext) {
 		this.dynamicNext = dynamicNext;
+		this.sortDynamicNodes();
 	}
 
 	@Override
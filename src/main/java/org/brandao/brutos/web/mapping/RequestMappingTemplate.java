@@ -0,0 +1,123 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import org.brandao.brutos.web.RequestMethodType;
+
+/**
+ * Caminho de nós que formam uma rota com variáveis.
+ * <p>Permite identificar novamente uma requisição que segue o mesmo
+ * modelo de uma rota já resolvida, sem percorrer a árvore de
+ * mapeamento, e extrair os valores das variáveis.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class RequestMappingTemplate {
+
+	private final RequestMappingNode[] parents;
+
+	private final RequestMappingNode[] path;
+
+	private final RequestMappingNode leaf;
+
+	private final String firstPart;
+
+	public RequestMappingTemplate(RequestMappingNode root, RequestMappingNode[] path){
+		this.path    = path;
+		this.parents = new RequestMappingNode[path.length];
+		this.leaf    = path[path.length - 1];
+
+		for(int i=0;i<path.length;i++){
+			this.parents[i] = i == 0? root : path[i - 1];
+		}
+
+		this.firstPart = path[0].isStaticValue()? path[0].getValue() : null;
+	}
+
+	/**
+	 * Verifica se o caminho informado segue este modelo e obtém a entrada
+	 * associada ao método da requisição.
+	 * @param methodType Método da requisição.
+	 * @param parts Segmentos do caminho da requisição.
+	 * @return Entrada com as variáveis extraídas ou <code>null</code> se o caminho
+	 * não segue o modelo.
+	 */
+	public RequestEntry getRequestEntry(RequestMethodType methodType, String[] parts){
+
+		if(parts.length != this.path.length){
+			return null;
+		}
+
+		for(int i=0;i<parts.length;i++){
+			RequestMappingNode node = this.path[i];
+
+			if(node.isStaticValue()){
+				if(!node.getValue().equals(parts[i])){
+					return null;
+				}
+			}
+			else
+			if(this.parents[i].getNext(parts[i]) != node){
+				return null;
+			}
+		}
+
+		RequestMappingEntry entry = this.leaf.getRequestEntry(methodType);
+
+		if(entry == null){
+			RequestMethodType[] allowedMethods = this.leaf.getAllowedMethods();
+			return allowedMethods == null? null : new RequestEntry(allowedMethods);
+		}
+
+		PathParameters params = null;
+
+		for(int i=parts.length - 1;i>=0;i--){
+			RequestMappingNode node = this.path[i];
+
+			if(!node.isStaticValue()){
+				PathParameters nodeParams =
+						node.getRequestParameters(null, parts[i]);
+
+				if(nodeParams != null){
+					params = nodeParams.merge(params);
+				}
+			}
+		}
+
+		return new RequestEntry(entry, params, this.leaf.getAllowedMethods());
+	}
+
+	public int getLength(){
+		return this.path.length;
+	}
+
+	/**
+	 * Obtém o primeiro segmento do modelo.
+	 * @return Segmento ou <code>null</code> se o primeiro segmento
+	 * for variável.
+	 */
+	public String getFirstPart() {
+		return firstPart;
+	}
+
+	public RequestMappingNode getLeaf(){
+		return this.leaf;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import java.net.MalformedURLException;
+
+import org.brandao.brutos.web.RequestMethodType;
+
+/**
+ * Tabela de rotas usada pelo {@link org.brandao.brutos.web.WebActionResolver}.
+ *
+ * @author Brandao
+ *
+ */
+public interface RequestMappingTree {
+
+	/**
+	 * Adiciona uma rota.
+	 * @param id Identificação da rota. Pode conter variáveis.
+	 * @param value Entrada da rota.
+	 * @return <code>false</code> se já existir uma entrada para o método
+	 * da requisição.
+	 * @throws MalformedURLException Lançada se a identificação for inválida.
+	 */
+	boolean add(String id, RequestMappingEntry value) throws MalformedURLException;
+
+	/**
+	 * Remove uma rota.
+	 * @param id Identificação da rota.
+	 * @param value Entrada da rota.
+	 * @return <code>false</code> se a rota não existir.
+	 * @throws MalformedURLException Lançada se a identificação for inválida.
+	 */
+	boolean remove(String id, RequestMappingEntry value) throws MalformedURLException;
+
+	/**
+	 * Obtém a entrada associada a uma requisição.
+	 * @param id Identificação da requisição.
+	 * @param methodType Método da requisição.
+	 * @return Entrada da rota ou <code>null</code>. Se a rota não tiver
+	 * variáveis, os parâmetros da entrada são <code>null</code>.
+	 * @throws MalformedURLException Lançada se a identificação for inválida.
+	 */
+	RequestEntry get(String id, RequestMethodType methodType) throws MalformedURLException;
+
+	/**
+	 * Cria uma cópia da tabela. Os nós são compartilhados e somente os 
+	 * alterados são copiados, logo a tabela original não é afetada pelas 
+	 * alterações da cópia.
+	 * @return Cópia da tabela.
+	 */
+	RequestMappingTree copy();
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.brandao.brutos.web.RequestMethodType;
+
+/**
+ * Entradas de uma rota por método da requisição.
+ * <p>Os métodos padrão ocupam posições fixas de um vetor, indicadas por
+ * {@link RequestMethodType#getIndex()}. Os demais métodos são mantidos
+ * em um mapa. Os métodos aceitos são calculados a cada alteração.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class RequestMethodTable {
+
+	private static final RequestMethodType[] standardTypes =
+			RequestMethodType.getStandardTypes();
+
+	private RequestMappingEntry[] entries;
+
+	private Map<RequestMethodType, RequestMappingEntry> otherEntries;
+
+	private RequestMethodType[] allowedMethods;
+
+	public RequestMethodTable(){
+		this.entries        = new RequestMappingEntry[standardTypes.length];
+		this.otherEntries   = null;
+		this.allowedMethods = new RequestMethodType[0];
+	}
+
+	/**
+	 * Cria uma cópia da tabela.
+	 * @return Cópia.
+	 */
+	public RequestMethodTable copy(){
+		RequestMethodTable table = new RequestMethodTable();
+		table.entries            = this.entries.clone();
+		table.otherEntries       =
+			this.otherEntries == null?
+				null :
+				new LinkedHashMap<RequestMethodType, RequestMappingEntry>(this.otherEntries);
+		table.allowedMethods     = this.allowedMethods;
+		return table;
+	}
+
+	public RequestMappingEntry get(RequestMethodType value){
+
+		if(value == null){
+			return null;
+		}
+
+		int index = value.getIndex();
+
+		if(index != -1){
+			return this.entries[index];
+		}
+
+		return this.otherEntries == null? null : this.otherEntries.get(value);
+	}
+
+	public boolean put(RequestMethodType requestMethodType, RequestMappingEntry value){
+
+		if(this.get(requestMethodType) != null){
+			return false;
+		}
+
+		int index = requestMethodType.getIndex();
+
+		if(index != -1){
+			this.entries[index] = value;
+		}
+		else{
+			if(this.otherEntries == null){
+				this.otherEntries =
+					new LinkedHashMap<RequestMethodType, RequestMappingEntry>();
+			}
+			this.otherEntries.put(requestMethodType, value);
+		}
+
+		this.updateAllowedMethods();
+		return true;
+	}
+
+	public boolean remove(RequestMethodType value){
+
+		if(this.get(value) == null){
+			return false;
+		}
+
+		int index = value.getIndex();
+
+		if(index != -1){
+			this.entries[index] = null;
+		}
+		else{
+			this.otherEntries.remove(value);
+		}
+
+		this.updateAllowedMethods();
+		return true;
+	}
+
+	public boolean isEmpty(){
+		return this.allowedMethods.length == 0;
+	}
+
+	/**
+	 * Obtém os métodos que têm uma entrada na tabela. O vetor não
+	 * deve ser alterado.
+	 * @return Métodos aceitos.
+	 */
+	public RequestMethodType[] getAllowedMethods(){
+		return this.allowedMethods;
+	}
+
+	private void updateAllowedMethods(){
+		List<RequestMethodType> list = new ArrayList<RequestMethodType>();
+
+		for(int i=0;i<this.entries.length;i++){
+			if(this.entries[i] != null){
+				list.add(standardTypes[i]);
+			}
+		}
+
+		if(this.otherEntries != null){
+			list.addAll(this.otherEntries.keySet());
+		}
+
+		this.allowedMethods = list.toArray(new RequestMethodType[list.size()]);
+	}
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.mapping;
+
+import java.net.MalformedURLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.brandao.brutos.web.RequestMethodType;
+import org.brandao.brutos.web.util.WebUtil;
+
+/**
+ * Tabela de rotas organizada em uma árvore com um nó por segmento.
+ * <p>Opcionalmente mantém um índice com os modelos das rotas com variáveis
+ * já resolvidas. Uma requisição que segue um modelo conhecido é
+ * identificada sem percorrer a árvore.</p>
+ * <p>Os nós publicados não são alterados. A inclusão e a remoção copiam
+ * os nós do caminho da rota e publicam uma nova raiz.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class TrieRequestMappingTree implements RequestMappingTree{
+
+	private volatile RequestMappingNode root;
+
+	private boolean templateIndex;
+
+	private ConcurrentMap<TemplateKey, List<RequestMappingTemplate>> templates;
+
+	public TrieRequestMappingTree(){
+		this(false);
+	}
+
+	public TrieRequestMappingTree(boolean templateIndex){
+		this(new RequestMappingNode(), templateIndex);
+	}
+
+	private TrieRequestMappingTree(RequestMappingNode root, boolean templateIndex){
+		this.root          = root;
+		this.templateIndex = templateIndex;
+		this.templates     = new ConcurrentHashMap<TemplateKey, List<RequestMappingTemplate>>();
+	}
+
+	public synchronized boolean add(String id, RequestMappingEntry value) throws MalformedURLException{
+		String[] parts          = WebUtil.parserURI(id, true).toArray(new String[0]);
+		RequestMappingNode root = this.root.copy();
+		boolean added           = this.addNode(root, value, parts, 0);
+
+		if(added){
+			this.root = root;
+			this.templates.clear();
+		}
+
+		return added;
+	}
+
+	public synchronized boolean remove(String id, RequestMappingEntry value) throws MalformedURLException{
+		String[] parts          = WebUtil.parserURI(id, true).toArray(new String[0]);
+		RequestMappingNode root = this.root.copy();
+		boolean removed         = this.removeNode(root, value, parts, 0);
+
+		if(removed){
+			this.root = root;
+			this.templates.clear();
+		}
+
+		return removed;
+	}
+
+	public RequestMappingTree copy(){
+		return new TrieRequestMappingTree(this.root, this.templateIndex);
+	}
+
+	public RequestEntry get(String id, RequestMethodType methodType) throws MalformedURLException{
+
+    	String[] parts          = WebUtil.parserURI(id, false).toArray(new String[0]);
+    	RequestMappingNode root = this.root;
+
+    	if(parts.length == 0){
+    		return this.createEntry(root, methodType, null);
+    	}
+
+    	if(!this.templateIndex){
+    		return this.getNode(root, methodType, parts, 0, null);
+    	}
+
+    	RequestEntry entry = this.getTemplate(methodType, parts);
+
+    	if(entry != null){
+    		return entry;
+    	}
+
+    	RequestMappingNode[] path = new RequestMappingNode[parts.length];
+    	entry = this.getNode(root, methodType, parts, 0, path);
+
+    	if(entry != null && entry.getParameters() != null){
+    		this.addTemplate(new RequestMappingTemplate(root, path));
+
+    		//a raiz foi substituída durante a busca.
+    		if(root != this.root){
+    			this.templates.clear();
+    		}
+    	}
+
+    	return entry;
+	}
+
+	public RequestMappingNode getRoot(){
+		return this.root;
+	}
+
+	/**
+	 * Obtém o número de modelos mantidos no índice.
+	 * @return Número de modelos.
+	 */
+	public int getTemplateCount(){
+		int count = 0;
+
+		for(List<RequestMappingTemplate> list: this.templates.values()){
+			count += list.size();
+		}
+
+		return count;
+	}
+
+    private RequestEntry getTemplate(RequestMethodType methodType, String[] parts){
+
+    	List<RequestMappingTemplate> list =
+			this.templates.get(new TemplateKey(parts.length, parts[0]));
+
+    	if(list != null){
+    		for(RequestMappingTemplate template: list){
+    			RequestEntry entry = template.getRequestEntry(methodType, parts);
+    			if(entry != null){
+    				return entry;
+    			}
+    		}
+    	}
+
+    	list = this.templates.get(new TemplateKey(parts.length, null));
+
+    	if(list != null){
+    		for(RequestMappingTemplate template: list){
+    			RequestEntry entry = template.getRequestEntry(methodType, parts);
+    			if(entry != null){
+    				return entry;
+    			}
+    		}
+    	}
+
+    	return null;
+    }
+
+    private void addTemplate(RequestMappingTemplate template){
+    	TemplateKey key =
+			new TemplateKey(template.getLength(), template.getFirstPart());
+
+    	List<RequestMappingTemplate> list = this.templates.get(key);
+
+    	if(list == null){
+    		list = new CopyOnWriteArrayList<RequestMappingTemplate>();
+    		List<RequestMappingTemplate> current = this.templates.putIfAbsent(key, list);
+    		list = current == null? list : current;
+    	}
+
+    	for(RequestMappingTemplate t: list){
+    		if(t.getLeaf() == template.getLeaf()){
+    			return;
+    		}
+    	}
+
+    	list.add(template);
+    }
+
+    private boolean addNode(RequestMappingNode node,
+    		RequestMappingEntry value, String[] parts, int index) throws MalformedURLException{
+
+    	if(index == 0 && parts.length == 0){
+    		return node.putRequestEntry(value.getRequestMethodType(), value);
+    	}
+    	else
+    	if(index == parts.length){
+    		return node.putRequestEntry(value.getRequestMethodType(), value);
+    	}
+    	else{
+    		RequestMappingNode next = node.getNextToAdd(parts[index]);
+    		if(next == null){
+    			next = node.add(parts[index], null);
+    		}
+    		else{
+    			next = next.copy();
+    			node.replace(next);
+    		}
+    		return this.addNode(next, value, parts, index + 1);
+    	}
+
+    }
+
+    private RequestEntry getNode(RequestMappingNode node,
+    		 RequestMethodType methodType, String[] parts,
+    		 int index, RequestMappingNode[] path) throws MalformedURLException{
+
+    	if(index == parts.length){
+    		return this.createEntry(node, methodType, parts[index-1]);
+    	}
+    	else{
+    		RequestMappingNode next = node.getNext(parts[index]);
+
+    		if(next == null){
+    			return null;
+    		}
+
+    		if(path != null){
+    			path[index] = next;
+    		}
+
+    		RequestEntry e = this.getNode(next, methodType, parts, index + 1, path);
+
+    		//as variáveis dos segmentos anteriores têm precedência.
+    		if(e != null && e.getRequestMappingEntry() != null && !node.isStaticValue()){
+    			PathParameters nodeParams = node.getRequestParameters(null, parts[index-1]);
+
+    			if(nodeParams != null){
+    				e = new RequestEntry(
+    						e.getRequestMappingEntry(), 
+    						nodeParams.merge(e.getParameters()), 
+    						e.getAllowedMethods());
+    			}
+
+    		}
+
+    		return e;
+    	}
+
+    }
+
+    private RequestEntry createEntry(RequestMappingNode node,
+    		RequestMethodType methodType, String value){
+
+		RequestMappingEntry rme = node.getRequestEntry(methodType);
+
+		if(rme == null){
+			//o caminho existe, mas não para o método da requisição.
+			RequestMethodType[] allowedMethods = node.getAllowedMethods();
+			return allowedMethods == null? null : new RequestEntry(allowedMethods);
+		}
+
+		return new RequestEntry(
+				rme,
+				value == null? null : node.getRequestParameters(null, value),
+				node.getAllowedMethods());
+    }
+
+    private boolean removeNode(RequestMappingNode node,
+    		RequestMappingEntry value, String[] parts, int index){
+
+    	if(index == 0 && parts.length == 0){
+    		return node.removeRequestEntry(value.getRequestMethodType());
+    	}
+    	else
+    	if(index == parts.length){
+    		return node.removeRequestEntry(value.getRequestMethodType());
+    	}
+    	else{
+    		RequestMappingNode next = node.getNextToAdd(parts[index]);
+    		if(next == null){
+    			return false;
+    		}
+
+    		next = next.copy();
+    		node.replace(next);
+
+			boolean removed =
+				this.removeNode(next, value, parts, index + 1);
+
+			if(next.isEmpty()){
+				node.remove(parts[index]);
+			}
+
+			return removed;
+    	}
+
+    }
+
+    private static class TemplateKey{
+
+    	private final int length;
+
+    	private final String firstPart;
+
+    	private final int hash;
+
+		public TemplateKey(int length, String firstPart) {
+			this.length    = length;
+			this.firstPart = firstPart;
+			this.hash      = 31*length + (firstPart == null? 0 : firstPart.hashCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			TemplateKey other = (TemplateKey) obj;
+			if (length != other.length)
+				return false;
+			if (firstPart == null) {
+				if (other.firstPart != null)
+					return false;
+			} else if (!firstPart.equals(other.firstPart))
+				return false;
+			return true;
+		}
+
+    }
+
+}
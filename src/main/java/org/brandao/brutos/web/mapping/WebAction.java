@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.brandao.brutos.mapping.Action;
+import org.brandao.brutos.web.AsyncExecutorType;
 import org.brandao.brutos.web.RequestMethodType;
 
 public class WebAction extends Action{
@@ -31,6 +32,14 @@ public class WebAction extends Action{
 	
 	private Map<Class<?>, Integer> responseErrors;
 	
+	private AsyncExecutorType asyncExecutor;
+	
+	private String asyncPriority;
+	
+	private long asyncTimeout;
+	
+	private int asyncTimeoutStatus;
+	
 	public WebAction(){
 		super();
 		super.setRequestTypes(new MediaTypeMap());
@@ -61,5 +70,37 @@ public class WebAction extends Action{
 	public void setResponseErrors(Map<Class<?>, Integer> responseErrors) {
 		this.responseErrors = responseErrors;
 	}
+
+	public AsyncExecutorType getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	public void setAsyncExecutor(AsyncExecutorType asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	public String getAsyncPriority() {
+		return asyncPriority;
+	}
+
+	public void setAsyncPriority(String asyncPriority) {
+		this.asyncPriority = asyncPriority;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	public void setAsyncTimeout(long asyncTimeout) {
+		this.asyncTimeout = asyncTimeout;
+	}
+
+	public int getAsyncTimeoutStatus() {
+		return asyncTimeoutStatus;
+	}
+
+	public void setAsyncTimeoutStatus(int asyncTimeoutStatus) {
+		this.asyncTimeoutStatus = asyncTimeoutStatus;
+	}
 	
 }
@@ -21,6 +21,7 @@ import org.brandao.brutos.ConfigurableApplicationContext;
 import org.brandao.brutos.mapping.Action;
 import org.brandao.brutos.mapping.ActionID;
 import org.brandao.brutos.mapping.Controller;
+import org.brandao.brutos.web.AsyncExecutorType;
 import org.brandao.brutos.web.RequestMethodType;
 
 /**
@@ -34,6 +35,16 @@ public class WebController extends Controller{
 	
 	private RequestMethodType requestMethod;
 	
+	private AsyncExecutorType asyncExecutor;
+	
+	private int asyncExecutorThreads;
+	
+	private String asyncPriority;
+	
+	private long asyncTimeout;
+	
+	private int asyncTimeoutStatus;
+	
 	public WebController(ConfigurableApplicationContext context) {
 		super(context);
 		super.setRequestTypes(new MediaTypeMap());
@@ -80,5 +91,45 @@ public class WebController extends Controller{
 	public void setRequestMethod(RequestMethodType requestMethod) {
 		this.requestMethod = requestMethod;
 	}
+
+	public AsyncExecutorType getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	public void setAsyncExecutor(AsyncExecutorType asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	public int getAsyncExecutorThreads() {
+		return asyncExecutorThreads;
+	}
+
+	public void setAsyncExecutorThreads(int asyncExecutorThreads) {
+		this.asyncExecutorThreads = asyncExecutorThreads;
+	}
+
+	public String getAsyncPriority() {
+		return asyncPriority;
+	}
+
+	public void setAsyncPriority(String asyncPriority) {
+		this.asyncPriority = asyncPriority;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	public void setAsyncTimeout(long asyncTimeout) {
+		this.asyncTimeout = asyncTimeout;
+	}
+
+	public int getAsyncTimeoutStatus() {
+		return asyncTimeoutStatus;
+	}
+
+	public void setAsyncTimeoutStatus(int asyncTimeoutStatus) {
+		this.asyncTimeoutStatus = asyncTimeoutStatus;
+	}
 	
 }
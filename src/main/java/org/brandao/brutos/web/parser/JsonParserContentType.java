@@ -24,10 +24,18 @@ import org.brandao.brutos.AbstractParserContentType;
 import org.brandao.brutos.CodeGenerator;
 import org.brandao.brutos.MutableMvcRequest;
 import org.brandao.brutos.MutableRequestParserEvent;
+import org.brandao.brutos.web.BrutosWebConstants;
+import org.brandao.brutos.web.WebMvcRequest;
 import org.brandao.brutos.web.bean.JsonBeanDecoder;
+import org.brandao.brutos.web.util.JsonStreamReader;
 import org.brandao.jbrgates.JSONDecoder;
 
 /**
+ * Lê as requisições com o conteúdo em json.
+ * <p>Por padrão, o conteúdo é lido pelo {@link JsonStreamReader}. Os
+ * objetos e vetores são criados somente quando são usados pelos 
+ * parâmetros e entidades da ação, e os membros que não são usados nunca
+ * são criados.</p>
  * 
  * @author Brandao
  *
@@ -41,8 +49,16 @@ public class JsonParserContentType extends AbstractParserContentType{
 		try{
 			InputStream stream = request.getStream();
 			//String charset = params.get("charset");
-	        JSONDecoder decoder = new JSONDecoder(stream);
-	        Object data         = decoder.decode();
+			Object data;
+			
+			if(this.isStreaming(config)){
+				data = new JsonStreamReader(
+						stream, "UTF-8", this.getContentLength(request)).read();
+			}
+			else{
+		        JSONDecoder decoder = new JSONDecoder(stream);
+		        data                = decoder.decode();
+			}
 
 	        JsonBeanDecoder beanDecoder = new JsonBeanDecoder();
 	        beanDecoder.setCodeGenerator(codeGenerator);
@@ -57,4 +73,21 @@ public class JsonParserContentType extends AbstractParserContentType{
 		
 	}
 	
+	private int getContentLength(MutableMvcRequest request){
+		return request instanceof WebMvcRequest? 
+				((WebMvcRequest)request).getServletRequest().getContentLength() : 
+				-1;
+	}
+	
+	private boolean isStreaming(Properties config){
+		String value = 
+			config == null? 
+				null : 
+				config.getProperty(BrutosWebConstants.JSON_STREAMING_PARSER);
+		
+		return value == null? 
+				BrutosWebConstants.DEFAULT_JSON_STREAMING_PARSER : 
+				Boolean.valueOf(value.trim()).booleanValue();
+	}
+	
 }
@@ -45,7 +45,7 @@ public class FlashScope implements Scope{
         Scope session = context.getScopes().get(WebScopeType.SESSION);
 
         FlashInstrument instrument =
-                getInstrument( session );
+                getInstrument( session, true );
 
         instrument.put(name, value);
     }
@@ -58,10 +58,10 @@ public class FlashScope implements Scope{
         Scope session = context.getScopes().get(WebScopeType.SESSION);
 
         FlashInstrument instrument =
-                getInstrument( session );
+                getInstrument( session, false );
                     
         
-        return instrument.get( name );
+        return instrument == null? null : instrument.get( name );
     }
 
     public Object getCollection( String name ){
@@ -76,9 +76,11 @@ public class FlashScope implements Scope{
         Scope session = context.getScopes().get(WebScopeType.SESSION);
 
         FlashInstrument instrument =
-                getInstrument( session );
+                getInstrument( session, false );
 
-        instrument.remove( name );
+        if(instrument != null){
+        	instrument.remove( name );
+        }
     }
 
 	public List<String> getNamesStartsWith(String value) {
@@ -89,20 +91,27 @@ public class FlashScope implements Scope{
         Scope session = context.getScopes().get(WebScopeType.SESSION);
 
         FlashInstrument instrument =
-                getInstrument( session );
+                getInstrument( session, false );
         
-        return instrument.getNamesStartsWith(value);
+        return instrument == null? 
+        		new ArrayList<String>() : 
+    			instrument.getNamesStartsWith(value);
 	}
     
-    private FlashInstrument getInstrument( Scope session){
-        if( session.get( BrutosWebConstants.FLASH_INSTRUMENT ) == null ){
-            FlashInstrument instrument = create();
+    /*
+     * A sessão somente é criada quando um valor é incluído. As consultas
+     * de uma requisição sem sessão não criam o instrumento.
+     */
+    private FlashInstrument getInstrument( Scope session, boolean create){
+        FlashInstrument instrument = (FlashInstrument)
+                session.get( BrutosWebConstants.FLASH_INSTRUMENT );
+        
+        if( instrument == null && create ){
+            instrument = create();
             session.put( BrutosWebConstants.FLASH_INSTRUMENT , instrument);
-            return instrument;
         }
-        else
-            return (FlashInstrument)
-                    session.get( BrutosWebConstants.FLASH_INSTRUMENT );
+        
+        return instrument;
     }
 
     private FlashInstrument create(){
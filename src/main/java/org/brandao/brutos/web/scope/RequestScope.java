@@ -24,6 +24,8 @@ import java.util.Set;
 
 import org.brandao.brutos.MutableMvcRequest;
 import org.brandao.brutos.scope.Scope;
+import org.brandao.brutos.web.MutableWebMvcRequest;
+import org.brandao.brutos.web.RequestContext;
 import org.brandao.brutos.web.http.ParameterList;
 
 /**
@@ -32,29 +34,40 @@ import org.brandao.brutos.web.http.ParameterList;
  */
 public class RequestScope implements Scope{
 
-	private static final ThreadLocal<MutableMvcRequest> currentRequest =
-			new ThreadLocal<MutableMvcRequest>();
-	
+    /**
+     * Associa a requisição à thread atual.
+     * @param value Requisição. Deve implementar {@link MutableWebMvcRequest}.
+     * @deprecated A requisição é obtida do {@link RequestContext} associado
+     * pelo invocador.
+     */
+    @Deprecated
     public static void setRequest(MutableMvcRequest value){
-    	currentRequest.set(value);
+    	RequestContext.push(null, (MutableWebMvcRequest)value);
     }
 
+    /**
+     * Remove a requisição associada por {@link #setRequest(MutableMvcRequest)}.
+     * @param value Requisição.
+     * @deprecated A requisição é obtida do {@link RequestContext} associado
+     * pelo invocador.
+     */
+    @Deprecated
     public static void removeRequest(MutableMvcRequest value){
-    	currentRequest.remove();
+    	RequestContext.pop();
     }
 
     public void put(String name, Object value) {
-    	MutableMvcRequest request = currentRequest.get();
+    	MutableMvcRequest request = RequestContext.getCurrent().getRequest();
         request.setProperty(name, value);
     }
 
     public Object get(String name) {
-    	MutableMvcRequest request = currentRequest.get();
+    	MutableMvcRequest request = RequestContext.getCurrent().getRequest();
         return request.getProperty(name);
     }
 
     public Object getCollection( String name ){
-    	MutableMvcRequest request = currentRequest.get();
+    	MutableMvcRequest request = RequestContext.getCurrent().getRequest();
         return new ParameterList(
                 Arrays.asList(request.getProperty(name)));
     }
@@ -63,7 +76,7 @@ public class RequestScope implements Scope{
     }
 
 	public List<String> getNamesStartsWith(String value) {
-    	MutableMvcRequest request = currentRequest.get();
+    	MutableMvcRequest request = RequestContext.getCurrent().getRequest();
 		
 		List<String> result = new ArrayList<String>();
 		
@@ -25,37 +25,54 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import org.brandao.brutos.scope.Scope;
+import org.brandao.brutos.web.RequestContext;
 
 /**
+ * Escopo da sessão.
+ * <p>Somente a inclusão de um valor cria a sessão. As consultas e as
+ * remoções usam a sessão existente, logo uma requisição que não grava
+ * valores na sessão não cria uma.</p>
  * 
  * @author Brandao
  */
 public class SessionScope implements Scope{
     
-	private static final ThreadLocal<HttpServletRequest> currentRequest =
-		new ThreadLocal<HttpServletRequest>();
-	
     public SessionScope() {
     }
 
+    /**
+     * Associa a requisição HTTP à thread atual.
+     * @param value Requisição HTTP.
+     * @deprecated A requisição é obtida do {@link RequestContext} associado
+     * pelo invocador.
+     */
+    @Deprecated
     public static void setServletRequest(HttpServletRequest value){
-    	currentRequest.set(value);
+    	RequestContext.push(value, null);
     }
 
+    /**
+     * Remove a requisição associada por 
+     * {@link #setServletRequest(HttpServletRequest)}.
+     * @param value Requisição HTTP.
+     * @deprecated A requisição é obtida do {@link RequestContext} associado
+     * pelo invocador.
+     */
+    @Deprecated
     public static void removeServletRequest(HttpServletRequest value){
-    	currentRequest.remove();
+    	RequestContext.pop();
     }
-    
+
     public void put(String name, Object value) {
-    	HttpServletRequest request = currentRequest.get();
+    	HttpServletRequest request = RequestContext.getCurrent().getServletRequest();
         HttpSession session = request.getSession();
         session.setAttribute( name, value );
     }
 
     public Object get(String name) {
-    	HttpServletRequest request = currentRequest.get();
-        HttpSession session = request.getSession();
-        return session.getAttribute( name );
+    	HttpServletRequest request = RequestContext.getCurrent().getServletRequest();
+        HttpSession session = request.getSession(false);
+        return session == null? null : session.getAttribute( name );
     }
 
     public Object getCollection( String name ){
@@ -63,18 +80,25 @@ public class SessionScope implements Scope{
     }
 
     public void remove( String name ){
-    	HttpServletRequest request = currentRequest.get();
-        HttpSession session = request.getSession();
-        session.removeAttribute( name );
+    	HttpServletRequest request = RequestContext.getCurrent().getServletRequest();
+        HttpSession session = request.getSession(false);
+        
+        if(session != null){
+        	session.removeAttribute( name );
+        }
     }
 
 	@SuppressWarnings("unchecked")
 	public List<String> getNamesStartsWith(String value) {
-    	HttpServletRequest request = currentRequest.get();
-        HttpSession session = request.getSession();
+    	HttpServletRequest request = RequestContext.getCurrent().getServletRequest();
+        HttpSession session = request.getSession(false);
         
 		List<String> result = new ArrayList<String>();
 		
+		if(session == null){
+			return result;
+		}
+		
 		Enumeration<String> names = 
 				session.getAttributeNames();
 		
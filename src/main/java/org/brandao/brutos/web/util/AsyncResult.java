@@ -0,0 +1,328 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resultados de ações que são concluídos depois do retorno da ação.
+ * <p>São aceitos {@link Future}, {@link Callable} e
+ * <code>java.util.concurrent.CompletionStage</code>. Como o código é
+ * compatível com o Java 5, o <code>CompletionStage</code> é acessado por
+ * reflexão, quando disponível.</p>
+ *
+ * @author Brandao
+ *
+ */
+public final class AsyncResult {
+
+	private static final Class<?> completionStageClass;
+
+	private static final Class<?> biConsumerClass;
+
+	private static final Method whenCompleteMethod;
+
+	private static final Method toCompletableFutureMethod;
+
+	static{
+		Class<?> stage    = null;
+		Class<?> consumer = null;
+		Method method     = null;
+		Method toFuture   = null;
+
+		try{
+			stage    = Class.forName("java.util.concurrent.CompletionStage");
+			consumer = Class.forName("java.util.function.BiConsumer");
+			method   = stage.getMethod("whenComplete", consumer);
+			toFuture = stage.getMethod("toCompletableFuture");
+		}
+		catch(Throwable e){
+			stage    = null;
+			consumer = null;
+			method   = null;
+			toFuture = null;
+		}
+
+		completionStageClass      = stage;
+		biConsumerClass           = consumer;
+		whenCompleteMethod        = method;
+		toCompletableFutureMethod = toFuture;
+	}
+
+	private AsyncResult(){
+	}
+
+	/**
+	 * Notificação da conclusão de um resultado.
+	 */
+	public static interface Listener{
+
+		void onSuccess(Object value);
+
+		void onFailure(Throwable e);
+
+	}
+
+	/**
+	 * Verifica se o valor é um resultado assíncrono.
+	 * @param value Valor.
+	 * @return Verdadeiro se o valor é um resultado assíncrono.
+	 */
+	public static boolean isAsync(Object value){
+		return value instanceof Future ||
+				value instanceof Callable ||
+				isCompletionStage(value);
+	}
+
+	private static boolean isCompletionStage(Object value){
+		return completionStageClass != null && completionStageClass.isInstance(value);
+	}
+
+	/**
+	 * Obtém o valor do resultado, aguardando sua conclusão.
+	 * @param value Resultado.
+	 * @return Valor.
+	 * @throws Throwable Lançada se o resultado foi concluído com falha.
+	 */
+	public static Object get(Object value) throws Throwable{
+		try{
+			if(value instanceof Future){
+				return ((Future<?>)value).get();
+			}
+			else
+			if(value instanceof Callable){
+				return ((Callable<?>)value).call();
+			}
+			else
+			if(isCompletionStage(value)){
+				return toFuture(value).get();
+			}
+			else{
+				return value;
+			}
+		}
+		catch(Throwable e){
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * Obtém o valor do resultado, aguardando sua conclusão até o prazo
+	 * informado. Se o prazo termina, o resultado é cancelado.
+	 * <p>Um {@link Callable} é executado na thread atual e não é limitado
+	 * pelo prazo.</p>
+	 * @param value Resultado.
+	 * @param timeout Prazo em milissegundos. Zero indica que não há prazo.
+	 * @return Valor.
+	 * @throws TimeoutException Lançada se o prazo terminou.
+	 * @throws Throwable Lançada se o resultado foi concluído com falha.
+	 */
+	public static Object get(Object value, long timeout) throws Throwable{
+
+		Future<?> future =
+			value instanceof Future?
+				(Future<?>)value :
+				isCompletionStage(value)?
+					toFuture(value) :
+					null;
+
+		if(timeout <= 0 || future == null){
+			return get(value);
+		}
+
+		try{
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e){
+			future.cancel(true);
+			throw e;
+		}
+		catch(Throwable e){
+			throw unwrap(e);
+		}
+	}
+
+	private static Future<?> toFuture(Object stage) throws Throwable{
+		try{
+			return (Future<?>)toCompletableFutureMethod.invoke(stage);
+		}
+		catch(InvocationTargetException e){
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * Registra a notificação da conclusão do resultado.
+	 * <p>Um <code>CompletionStage</code> não ocupa nenhuma thread enquanto
+	 * não é concluído. Um {@link Callable} e um {@link Future} que não é um
+	 * <code>CompletionStage</code> são aguardados em uma thread do
+	 * executor. A notificação sempre é feita em uma thread do executor.</p>
+	 * <p>O {@link Future} retornado permite cancelar o resultado. O
+	 * cancelamento de um {@link Callable} interrompe a thread que o 
+	 * executa.</p>
+	 * @param value Resultado.
+	 * @param executor Executor.
+	 * @param listener Notificação.
+	 * @return Resultado que pode ser cancelado.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Future<?> subscribe(final Object value, final Executor executor,
+			final Listener listener){
+
+		if(isCompletionStage(value)){
+			whenComplete(value, new Listener(){
+
+				public void onSuccess(final Object result) {
+					executor.execute(new Runnable(){
+
+						public void run() {
+							listener.onSuccess(result);
+						}
+
+					});
+				}
+
+				public void onFailure(final Throwable e) {
+					executor.execute(new Runnable(){
+
+						public void run() {
+							listener.onFailure(e);
+						}
+
+					});
+				}
+
+			});
+
+			try{
+				return toFuture(value);
+			}
+			catch(Throwable e){
+				return null;
+			}
+		}
+		else{
+			final FutureTask<Object> task =
+				value instanceof Future?
+					null :
+					new FutureTask<Object>((Callable<Object>)value);
+
+			final Future<?> future = task == null? (Future<?>)value : task;
+
+			executor.execute(new Runnable(){
+
+				public void run() {
+					Object result;
+
+					if(task != null){
+						task.run();
+					}
+
+					try{
+						result = get(future);
+					}
+					catch(Throwable e){
+						listener.onFailure(e);
+						return;
+					}
+
+					listener.onSuccess(result);
+				}
+
+			});
+
+			return future;
+		}
+
+	}
+
+	private static void whenComplete(Object stage, final Listener listener){
+
+		InvocationHandler handler = new InvocationHandler(){
+
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+				if(method.getDeclaringClass() == Object.class){
+					if(method.getName().equals("equals")){
+						return Boolean.valueOf(proxy == args[0]);
+					}
+					else
+					if(method.getName().equals("hashCode")){
+						return Integer.valueOf(System.identityHashCode(proxy));
+					}
+					else{
+						return "AsyncResult.Listener";
+					}
+				}
+
+				//BiConsumer.accept(valor, exceção)
+				if(args[1] != null){
+					listener.onFailure(unwrap((Throwable)args[1]));
+				}
+				else{
+					listener.onSuccess(args[0]);
+				}
+
+				return null;
+			}
+
+		};
+
+		Object consumer =
+			Proxy.newProxyInstance(
+				AsyncResult.class.getClassLoader(),
+				new Class<?>[]{biConsumerClass},
+				handler);
+
+		try{
+			whenCompleteMethod.invoke(stage, consumer);
+		}
+		catch(InvocationTargetException e){
+			listener.onFailure(unwrap(e));
+		}
+		catch(IllegalAccessException e){
+			listener.onFailure(e);
+		}
+	}
+
+	/**
+	 * Obtém a causa de uma falha lançada por um resultado.
+	 * @param e Exceção.
+	 * @return Causa.
+	 */
+	public static Throwable unwrap(Throwable e){
+		while(e.getCause() != null &&
+				(e instanceof ExecutionException ||
+				 e instanceof InvocationTargetException ||
+				 e.getClass().getName().equals("java.util.concurrent.CompletionException"))){
+			e = e.getCause();
+		}
+		return e;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+/**
+ * Estimativa da frequência de acesso de chaves em espaço fixo
+ * (count-min sketch).
+ * <p>Cada chave é associada a quatro contadores da tabela. A frequência
+ * estimada é o menor deles, limitado a {@link #MAX_FREQUENCY}. Após um
+ * número de registros igual ao dobro da capacidade, todos os contadores
+ * são divididos por dois, logo as chaves que deixam de ser acessadas
+ * perdem frequência com o tempo e as chaves únicas não se acumulam.</p>
+ * <p>As atualizações não são sincronizadas. Em acessos concorrentes,
+ * alguns registros podem ser perdidos, o que apenas torna a estimativa
+ * menos precisa.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class FrequencySketch {
+
+	public static final int MAX_FREQUENCY = 15;
+
+	private static final int[] SEEDS = new int[]{
+		0x97cb3127, 0xb19a5a45, 0x2a9f6e1d, 0xc2b2ae35};
+
+	private final int[] table;
+
+	private final int mask;
+
+	private final int sampleSize;
+
+	private int size;
+
+	public FrequencySketch(int capacity){
+
+		if(capacity <= 0){
+			throw new IllegalArgumentException("invalid capacity: " + capacity);
+		}
+
+		//16 contadores por chave esperada reduzem as colisões.
+		int length = 16;
+
+		while(length < capacity*16L && length < (1 << 26)){
+			length <<= 1;
+		}
+
+		this.table      = new int[length];
+		this.mask       = length - 1;
+		this.sampleSize = 2*capacity;
+		this.size       = 0;
+	}
+
+	/**
+	 * Registra um acesso da chave.
+	 * @param key Chave.
+	 */
+	public void increment(Object key){
+		int hash = spread(key == null? 0 : key.hashCode());
+		int min  = this.frequency(hash);
+
+		//somente os menores contadores são incrementados.
+		if(min < MAX_FREQUENCY){
+			for(int i=0;i<SEEDS.length;i++){
+				int index = this.indexOf(hash, i);
+				if(this.table[index] == min){
+					this.table[index] = min + 1;
+				}
+			}
+		}
+
+		if(++this.size >= this.sampleSize){
+			this.reset();
+		}
+	}
+
+	/**
+	 * Obtém a frequência estimada da chave.
+	 * @param key Chave.
+	 * @return Frequência entre 0 e {@link #MAX_FREQUENCY}.
+	 */
+	public int frequency(Object key){
+		return this.frequency(spread(key == null? 0 : key.hashCode()));
+	}
+
+	private int frequency(int hash){
+		int min = MAX_FREQUENCY;
+
+		for(int i=0;i<SEEDS.length;i++){
+			min = Math.min(min, this.table[this.indexOf(hash, i)]);
+		}
+
+		return min;
+	}
+
+	private int indexOf(int hash, int row){
+		int h = hash*SEEDS[row];
+		h ^= h >>> 16;
+		return h & this.mask;
+	}
+
+	private void reset(){
+		for(int i=0;i<this.table.length;i++){
+			this.table[i] >>>= 1;
+		}
+		this.size >>>= 1;
+	}
+
+	private static int spread(int h){
+		h ^= (h >>> 20) ^ (h >>> 12);
+		return h ^ (h >>> 7) ^ (h >>> 4);
+	}
+
+}
@@ -0,0 +1,742 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.brandao.brutos.BrutosException;
+import org.brandao.jbrgates.JSONDecoder;
+
+/**
+ * Leitor de documentos json sob demanda.
+ * <p>O documento é lido e validado uma única vez, sem criar objetos. Os
+ * objetos e vetores são oferecidos como {@link Map} e {@link java.util.List}
+ * que mantêm somente a posição dos seus membros no documento. Um valor é
+ * criado quando é obtido, assim os membros que não são usados nunca são 
+ * criados.</p>
+ * <p>Os valores não são mantidos. Cada consulta cria um novo valor, e os
+ * elementos de um vetor podem ser descartados depois de usados. O fim de 
+ * cada objeto e vetor é registrado na validação, assim um novo valor 
+ * percorre somente os seus membros.</p>
+ * <p>Os números são convertidos pelo {@link JSONDecoder}, assim têm os 
+ * mesmos tipos da leitura completa do documento.</p>
+ * 
+ * @author Brandao
+ *
+ */
+public class JsonStreamReader {
+
+	public static final int MAX_DEPTH = 512;
+	
+	private static final int INDEX_THRESHOLD = 16;
+	
+	private static final int BUFFER_SIZE = 8192;
+	
+	private static final int MAX_INITIAL_BUFFER_SIZE = 65536;
+	
+	private final char[] data;
+	
+	private final int length;
+	
+	/*
+	 * Início e fim de cada objeto e vetor, na ordem do documento.
+	 */
+	private int[] containers;
+	
+	private int containerCount;
+	
+	public JsonStreamReader(InputStream in, String charset) throws IOException{
+		this(in, charset, -1);
+	}
+	
+	/**
+	 * Cria um leitor com o tamanho previsto do conteúdo.
+	 * @param in Conteúdo.
+	 * @param charset Codificação.
+	 * @param contentLength Tamanho do conteúdo em bytes ou <code>-1</code>, 
+	 * se não for conhecido.
+	 * @throws IOException Lançada se ocorrer falha na leitura.
+	 */
+	public JsonStreamReader(InputStream in, String charset, 
+			int contentLength) throws IOException{
+		Reader reader = new InputStreamReader(in, charset);
+		
+		/*
+		 * O tamanho informado pelo cliente é somente uma previsão. O número
+		 * de caracteres não é maior que o número de bytes.
+		 */
+		char[] buf    = 
+			new char[
+				contentLength < 0? 
+					BUFFER_SIZE : 
+					Math.min(contentLength, MAX_INITIAL_BUFFER_SIZE - 1) + 1];
+		int len       = 0;
+		int read;
+		
+		while((read = reader.read(buf, len, buf.length - len)) != -1){
+			len += read;
+			
+			if(len == buf.length){
+				char[] value = new char[buf.length << 1];
+				System.arraycopy(buf, 0, value, 0, len);
+				buf = value;
+			}
+		}
+		
+		//o documento é mantido durante toda a leitura.
+		if(buf.length - len > buf.length >> 2){
+			char[] value = new char[len];
+			System.arraycopy(buf, 0, value, 0, len);
+			buf = value;
+		}
+		
+		this.data   = buf;
+		this.length = len;
+	}
+	
+	public JsonStreamReader(String value){
+		this.data   = value.toCharArray();
+		this.length = this.data.length;
+	}
+	
+	/**
+	 * Valida o documento e obtém o seu valor.
+	 * @return Valor ou <code>null</code>, se o documento está vazio.
+	 */
+	public Object read(){
+		int pos = this.skipWhitespace(0);
+		
+		if(pos == this.length){
+			return null;
+		}
+		
+		this.containers     = new int[16];
+		this.containerCount = 0;
+		
+		int end = this.skipValue(pos, 0);
+		
+		if(this.skipWhitespace(end) != this.length){
+			throw this.error("unexpected character", end);
+		}
+		
+		return this.getValue(pos);
+	}
+	
+	/* leitura */
+	
+	private Object getValue(int pos){
+		char c = this.data[pos];
+		
+		switch (c) {
+		case '{':
+			return new JsonObject(pos);
+		case '[':
+			return new JsonArray(pos);
+		case '"':
+			return this.getString(pos);
+		case 't':
+			return Boolean.TRUE;
+		case 'f':
+			return Boolean.FALSE;
+		case 'n':
+			return null;
+		default:
+			return this.getNumber(pos);
+		}
+	}
+	
+	private String getString(int pos){
+		int start = pos + 1;
+		int i     = start;
+		
+		while(this.data[i] != '"'){
+			
+			if(this.data[i] == '\\'){
+				return this.getEscapedString(start);
+			}
+			
+			i++;
+		}
+		
+		return new String(this.data, start, i - start);
+	}
+	
+	private String getEscapedString(int start){
+		StringBuilder value = new StringBuilder();
+		int i               = start;
+		
+		for(;;){
+			char c = this.data[i++];
+			
+			if(c == '"'){
+				return value.toString();
+			}
+			
+			if(c != '\\'){
+				value.append(c);
+				continue;
+			}
+			
+			c = this.data[i++];
+			
+			switch (c) {
+			case 'b':
+				value.append('\b');
+				break;
+			case 'f':
+				value.append('\f');
+				break;
+			case 'n':
+				value.append('\n');
+				break;
+			case 'r':
+				value.append('\r');
+				break;
+			case 't':
+				value.append('\t');
+				break;
+			case 'u':
+				value.append((char)Integer.parseInt(new String(this.data, i, 4), 16));
+				i += 4;
+				break;
+			default:
+				value.append(c);
+			}
+		}
+	}
+	
+	private Object getNumber(int pos){
+		int end = this.skipNumber(pos);
+		
+		try{
+			return new JSONDecoder(new String(this.data, pos, end - pos)).decode();
+		}
+		catch(Throwable e){
+			throw new BrutosException("invalid number at " + pos, e);
+		}
+	}
+	
+	/* validação */
+	
+	private int skipWhitespace(int pos){
+		while(pos < this.length){
+			char c = this.data[pos];
+			
+			if(c != ' ' && c != '\t' && c != '\n' && c != '\r'){
+				break;
+			}
+			
+			pos++;
+		}
+		
+		return pos;
+	}
+	
+	private int skipValue(int pos, int depth){
+		
+		if(pos >= this.length){
+			throw this.error("unexpected end", pos);
+		}
+		
+		char c = this.data[pos];
+		
+		switch (c) {
+		case '{':
+		case '[':
+			return this.skipContainer(pos, depth + 1);
+		case '"':
+			return this.skipString(pos);
+		case 't':
+			return this.skipLiteral(pos, "true");
+		case 'f':
+			return this.skipLiteral(pos, "false");
+		case 'n':
+			return this.skipLiteral(pos, "null");
+		default:
+			return this.skipNumber(pos);
+		}
+	}
+	
+	private int skipContainer(int pos, int depth){
+		
+		if(this.containerCount*2 == this.containers.length){
+			int[] value = new int[this.containers.length << 1];
+			System.arraycopy(this.containers, 0, value, 0, this.containers.length);
+			this.containers = value;
+		}
+		
+		int index = this.containerCount++;
+		
+		this.containers[index*2] = pos;
+		
+		int end = 
+			this.data[pos] == '{'? 
+				this.skipObject(pos, depth) : 
+				this.skipArray(pos, depth);
+		
+		this.containers[index*2 + 1] = end;
+		return end;
+	}
+	
+	/*
+	 * Obtém o fim de um valor já validado. O fim dos objetos e vetores foi 
+	 * registrado na validação.
+	 */
+	private int skipMember(int pos){
+		char c = this.data[pos];
+		
+		if(c != '{' && c != '['){
+			return this.skipValue(pos, 0);
+		}
+		
+		int low  = 0;
+		int high = this.containerCount - 1;
+		
+		while(low <= high){
+			int mid   = (low + high) >>> 1;
+			int start = this.containers[mid*2];
+			
+			if(start < pos){
+				low = mid + 1;
+			}
+			else
+			if(start > pos){
+				high = mid - 1;
+			}
+			else{
+				return this.containers[mid*2 + 1];
+			}
+		}
+		
+		throw this.error("unexpected value", pos);
+	}
+	
+	private int skipObject(int pos, int depth){
+		
+		if(depth > MAX_DEPTH){
+			throw this.error("too deep", pos);
+		}
+		
+		pos = this.skipWhitespace(pos + 1);
+		
+		if(pos < this.length && this.data[pos] == '}'){
+			return pos + 1;
+		}
+		
+		for(;;){
+			if(pos >= this.length || this.data[pos] != '"'){
+				throw this.error("expected name", pos);
+			}
+			
+			pos = this.skipWhitespace(this.skipString(pos));
+			
+			if(pos >= this.length || this.data[pos] != ':'){
+				throw this.error("expected ':'", pos);
+			}
+			
+			pos = this.skipWhitespace(pos + 1);
+			pos = this.skipWhitespace(this.skipValue(pos, depth));
+			
+			if(pos < this.length && this.data[pos] == ','){
+				pos = this.skipWhitespace(pos + 1);
+			}
+			else
+			if(pos < this.length && this.data[pos] == '}'){
+				return pos + 1;
+			}
+			else{
+				throw this.error("expected ',' or '}'", pos);
+			}
+		}
+	}
+	
+	private int skipArray(int pos, int depth){
+		
+		if(depth > MAX_DEPTH){
+			throw this.error("too deep", pos);
+		}
+		
+		pos = this.skipWhitespace(pos + 1);
+		
+		if(pos < this.length && this.data[pos] == ']'){
+			return pos + 1;
+		}
+		
+		for(;;){
+			pos = this.skipWhitespace(this.skipValue(pos, depth));
+			
+			if(pos < this.length && this.data[pos] == ','){
+				pos = this.skipWhitespace(pos + 1);
+			}
+			else
+			if(pos < this.length && this.data[pos] == ']'){
+				return pos + 1;
+			}
+			else{
+				throw this.error("expected ',' or ']'", pos);
+			}
+		}
+	}
+	
+	private int skipString(int pos){
+		int i = pos + 1;
+		
+		while(i < this.length){
+			char c = this.data[i++];
+			
+			if(c == '"'){
+				return i;
+			}
+			
+			if(c == '\\'){
+				
+				if(i >= this.length){
+					break;
+				}
+				
+				c = this.data[i++];
+				
+				if(c == 'u'){
+					
+					if(i + 4 > this.length){
+						break;
+					}
+					
+					for(int k=0;k<4;k++){
+						if(Character.digit(this.data[i++], 16) < 0){
+							throw this.error("invalid escape", i - 1);
+						}
+					}
+				}
+				else
+				if("\"\\/bfnrt".indexOf(c) < 0){
+					throw this.error("invalid escape", i - 1);
+				}
+			}
+			else
+			if(c < 0x20){
+				throw this.error("invalid character", i - 1);
+			}
+		}
+		
+		throw this.error("unterminated string", pos);
+	}
+	
+	private int skipLiteral(int pos, String literal){
+		int len = literal.length();
+		
+		if(pos + len > this.length){
+			throw this.error("unexpected end", pos);
+		}
+		
+		for(int i=0;i<len;i++){
+			if(this.data[pos + i] != literal.charAt(i)){
+				throw this.error("unexpected character", pos + i);
+			}
+		}
+		
+		return pos + len;
+	}
+	
+	private int skipNumber(int pos){
+		int i = pos;
+		
+		if(i < this.length && this.data[i] == '-'){
+			i++;
+		}
+		
+		if(i < this.length && this.data[i] == '0'){
+			i++;
+		}
+		else{
+			i = this.skipDigits(i);
+		}
+		
+		if(i < this.length && this.data[i] == '.'){
+			i = this.skipDigits(i + 1);
+		}
+		
+		if(i < this.length && (this.data[i] == 'e' || this.data[i] == 'E')){
+			i++;
+			
+			if(i < this.length && (this.data[i] == '+' || this.data[i] == '-')){
+				i++;
+			}
+			
+			i = this.skipDigits(i);
+		}
+		
+		return i;
+	}
+	
+	private int skipDigits(int pos){
+		int i = pos;
+		
+		while(i < this.length && this.data[i] >= '0' && this.data[i] <= '9'){
+			i++;
+		}
+		
+		if(i == pos){
+			throw this.error("expected digit", pos);
+		}
+		
+		return i;
+	}
+	
+	private BrutosException error(String message, int pos){
+		return new BrutosException("invalid json: " + message + " at " + pos);
+	}
+	
+	/*
+	 * Objeto json. Mantém a posição do nome e do valor de cada membro.
+	 */
+	private class JsonObject extends AbstractMap<String, Object>{
+		
+		private int[] members;
+		
+		private int size;
+		
+		private Map<String, Integer> names;
+		
+		public JsonObject(int start){
+			this.members = new int[8];
+			this.size    = 0;
+			
+			int pos = skipWhitespace(start + 1);
+			
+			if(data[pos] == '}'){
+				return;
+			}
+			
+			for(;;){
+				int name = pos;
+				pos      = skipWhitespace(skipString(pos));
+				pos      = skipWhitespace(pos + 1);
+				
+				if(this.size*2 == this.members.length){
+					int[] value = new int[this.members.length << 1];
+					System.arraycopy(this.members, 0, value, 0, this.members.length);
+					this.members = value;
+				}
+				
+				this.members[this.size*2]     = name;
+				this.members[this.size*2 + 1] = pos;
+				this.size++;
+				
+				pos = skipWhitespace(skipMember(pos));
+				
+				if(data[pos] == '}'){
+					return;
+				}
+				
+				pos = skipWhitespace(pos + 1);
+			}
+		}
+		
+		public Object get(Object key){
+			int index = this.indexOf(key);
+			return index < 0? null : getValue(this.members[index*2 + 1]);
+		}
+		
+		public boolean containsKey(Object key){
+			return this.indexOf(key) >= 0;
+		}
+		
+		public int size(){
+			return this.getNames().size();
+		}
+		
+		public boolean isEmpty(){
+			return this.size == 0;
+		}
+		
+		private int indexOf(Object key){
+			
+			if(!(key instanceof String)){
+				return -1;
+			}
+			
+			if(this.size > INDEX_THRESHOLD){
+				Integer index = this.getNames().get(key);
+				return index == null? -1 : index.intValue();
+			}
+			
+			//o último membro prevalece.
+			for(int i=this.size - 1;i>=0;i--){
+				if(this.isName(this.members[i*2], (String)key)){
+					return i;
+				}
+			}
+			
+			return -1;
+		}
+		
+		private boolean isName(int pos, String name){
+			int len = name.length();
+			int i   = pos + 1;
+			
+			for(int k=0;k<len;k++, i++){
+				char c = data[i];
+				
+				if(c == '\\'){
+					return getString(pos).equals(name);
+				}
+				
+				if(c != name.charAt(k)){
+					return false;
+				}
+			}
+			
+			return data[i] == '"';
+		}
+		
+		private Map<String, Integer> getNames(){
+			if(this.names == null){
+				Map<String, Integer> value = new LinkedHashMap<String, Integer>();
+				
+				for(int i=0;i<this.size;i++){
+					value.put(getString(this.members[i*2]), Integer.valueOf(i));
+				}
+				
+				this.names = value;
+			}
+			
+			return this.names;
+		}
+		
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>(){
+
+				public Iterator<Entry<String, Object>> iterator() {
+					final Iterator<Entry<String, Integer>> i = 
+							getNames().entrySet().iterator();
+					
+					return new Iterator<Entry<String, Object>>(){
+
+						public boolean hasNext() {
+							return i.hasNext();
+						}
+
+						public Entry<String, Object> next() {
+							return new Member(i.next());
+						}
+
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+						
+					};
+				}
+
+				public int size() {
+					return getNames().size();
+				}
+				
+			};
+		}
+		
+		private class Member implements Entry<String, Object>{
+
+			private final Entry<String, Integer> entry;
+			
+			public Member(Entry<String, Integer> entry){
+				this.entry = entry;
+			}
+			
+			public String getKey() {
+				return this.entry.getKey();
+			}
+
+			public Object getValue() {
+				return JsonStreamReader.this.getValue(
+						members[this.entry.getValue().intValue()*2 + 1]);
+			}
+
+			public Object setValue(Object value) {
+				throw new UnsupportedOperationException();
+			}
+			
+		}
+		
+	}
+	
+	/*
+	 * Vetor json. Mantém a posição de cada elemento.
+	 */
+	private class JsonArray extends AbstractList<Object> implements RandomAccess{
+		
+		private int[] elements;
+		
+		private int size;
+		
+		public JsonArray(int start){
+			this.elements = new int[8];
+			this.size     = 0;
+			
+			int pos = skipWhitespace(start + 1);
+			
+			if(data[pos] == ']'){
+				return;
+			}
+			
+			for(;;){
+				
+				if(this.size == this.elements.length){
+					int[] value = new int[this.elements.length << 1];
+					System.arraycopy(this.elements, 0, value, 0, this.size);
+					this.elements = value;
+				}
+				
+				this.elements[this.size++] = pos;
+				
+				pos = skipWhitespace(skipMember(pos));
+				
+				if(data[pos] == ']'){
+					return;
+				}
+				
+				pos = skipWhitespace(pos + 1);
+			}
+		}
+		
+		public Object get(int index) {
+			if(index < 0 || index >= this.size){
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			}
+			
+			return getValue(this.elements[index]);
+		}
+
+		public int size() {
+			return this.size;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,372 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executor com classes de prioridade.
+ * <p>Cada classe tem um peso e uma fila limitada. Uma tarefa é recusada
+ * com {@link RejectedExecutionException} quando a fila de sua classe está
+ * cheia, sem afetar as demais classes.</p>
+ * <p>As threads retiram as tarefas das filas por uma das políticas:</p>
+ * <ul>
+ * <li><b>weighted</b>: rodízio ponderado. Cada classe com tarefas
+ * recebe uma parte das execuções proporcional ao seu peso.</li>
+ * <li><b>strict</b>: a fila da classe de maior peso é sempre esvaziada
+ * antes das demais.</li>
+ * </ul>
+ * <p>As classes devem ser incluídas antes do primeiro uso. Uma classe
+ * desconhecida é tratada como a classe {@link #DEFAULT_CLASS}.</p>
+ *
+ * @author Brandao
+ *
+ */
+public class PriorityScheduler {
+
+	public static final String DEFAULT_CLASS = "default";
+
+	public static final String WEIGHTED = "weighted";
+
+	public static final String STRICT   = "strict";
+
+	private final ReentrantLock lock;
+
+	private final Condition notEmpty;
+
+	private final List<PriorityClass> classes;
+
+	private final Map<String, PriorityClass> classMap;
+
+	private final boolean strict;
+
+	private final Thread[] workers;
+
+	private int size;
+
+	private volatile boolean shutdown;
+
+	private volatile boolean started;
+
+	/**
+	 * Cria o executor.
+	 * @param name Nome usado nas threads.
+	 * @param threads Número de threads.
+	 * @param policy Política: {@link #WEIGHTED} ou {@link #STRICT}.
+	 * @param defaultQueueSize Tamanho da fila da classe padrão.
+	 */
+	public PriorityScheduler(String name, int threads, String policy, int defaultQueueSize){
+
+		if(threads <= 0){
+			throw new IllegalArgumentException("invalid threads: " + threads);
+		}
+
+		if(!WEIGHTED.equals(policy) && !STRICT.equals(policy)){
+			throw new IllegalArgumentException("invalid policy: " + policy);
+		}
+
+		this.lock     = new ReentrantLock();
+		this.notEmpty = this.lock.newCondition();
+		this.classes  = new ArrayList<PriorityClass>();
+		this.classMap = new ConcurrentHashMap<String, PriorityClass>();
+		this.strict   = STRICT.equals(policy);
+		this.workers  = new Thread[threads];
+		this.size     = 0;
+
+		this.addClass(DEFAULT_CLASS, 1, defaultQueueSize);
+
+		for(int i=0;i<threads;i++){
+			this.workers[i] = new Thread(new Worker(), "brutos-async-" + name + "-" + (i+1));
+			this.workers[i].setDaemon(true);
+		}
+	}
+
+	/**
+	 * Inclui ou substitui uma classe de prioridade.
+	 * @param name Nome da classe.
+	 * @param weight Peso.
+	 * @param queueSize Tamanho máximo da fila.
+	 */
+	public void addClass(String name, int weight, int queueSize){
+
+		if(this.started){
+			throw new IllegalStateException("scheduler already started");
+		}
+
+		if(weight <= 0){
+			throw new IllegalArgumentException("invalid weight: " + name);
+		}
+
+		if(queueSize <= 0){
+			throw new IllegalArgumentException("invalid queue size: " + name);
+		}
+
+		PriorityClass value = new PriorityClass(name, weight, queueSize);
+		PriorityClass old   = this.classMap.put(name, value);
+
+		if(old != null){
+			this.classes.remove(old);
+		}
+
+		//na política strict, as classes são consultadas pela ordem do peso.
+		int index = 0;
+		while(index < this.classes.size() && this.classes.get(index).weight >= weight){
+			index++;
+		}
+
+		this.classes.add(index, value);
+	}
+
+	/**
+	 * Obtém um executor que inclui as tarefas na fila de uma classe.
+	 * @param priorityClass Nome da classe.
+	 * @return Executor.
+	 */
+	public Executor getExecutor(String priorityClass){
+		return this.getClass(priorityClass);
+	}
+
+	/**
+	 * Inclui uma tarefa na fila de uma classe.
+	 * @param priorityClass Nome da classe.
+	 * @param task Tarefa.
+	 */
+	public void execute(String priorityClass, Runnable task){
+		this.getClass(priorityClass).execute(task);
+	}
+
+	private PriorityClass getClass(String priorityClass){
+		PriorityClass value = priorityClass == null? null : this.classMap.get(priorityClass);
+		return value == null? this.classMap.get(DEFAULT_CLASS) : value;
+	}
+
+	private void start(){
+		if(!this.started){
+			synchronized(this.workers){
+				if(!this.started){
+					for(Thread worker: this.workers){
+						worker.start();
+					}
+					this.started = true;
+				}
+			}
+		}
+	}
+
+	private void offer(PriorityClass priorityClass, Runnable task){
+
+		if(task == null){
+			throw new NullPointerException();
+		}
+
+		this.start();
+
+		this.lock.lock();
+		try{
+			if(this.shutdown){
+				throw new RejectedExecutionException("scheduler has been shut down");
+			}
+
+			if(priorityClass.queue.size() >= priorityClass.queueSize){
+				priorityClass.rejected.incrementAndGet();
+				throw new RejectedExecutionException(
+						"queue of priority class is full: " + priorityClass.name);
+			}
+
+			priorityClass.queue.add(task);
+			this.size++;
+			this.notEmpty.signal();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	private Runnable take() throws InterruptedException{
+		this.lock.lock();
+		try{
+			while(this.size == 0){
+				if(this.shutdown){
+					return null;
+				}
+				this.notEmpty.await();
+			}
+
+			PriorityClass next = this.strict? this.nextStrict() : this.nextWeighted();
+			this.size--;
+			return next.queue.removeFirst();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	private PriorityClass nextStrict(){
+		for(PriorityClass c: this.classes){
+			if(!c.queue.isEmpty()){
+				return c;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	/*
+	 * Rodízio ponderado suave: cada classe com tarefas acumula seu peso e a
+	 * escolhida desconta o total. As classes sem tarefas não acumulam.
+	 */
+	private PriorityClass nextWeighted(){
+		PriorityClass best = null;
+		int total          = 0;
+
+		for(PriorityClass c: this.classes){
+			if(c.queue.isEmpty()){
+				c.current = 0;
+				continue;
+			}
+
+			c.current += c.weight;
+			total     += c.weight;
+
+			if(best == null || c.current > best.current){
+				best = c;
+			}
+		}
+
+		best.current -= total;
+		return best;
+	}
+
+	/**
+	 * Obtém o número de tarefas na fila de uma classe.
+	 * @param priorityClass Nome da classe.
+	 * @return Número de tarefas.
+	 */
+	public int getQueueSize(String priorityClass){
+		this.lock.lock();
+		try{
+			return this.getClass(priorityClass).queue.size();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Obtém o número de tarefas recusadas de uma classe.
+	 * @param priorityClass Nome da classe.
+	 * @return Número de tarefas.
+	 */
+	public long getRejectedCount(String priorityClass){
+		return this.getClass(priorityClass).rejected.get();
+	}
+
+	/**
+	 * Encerra o executor. As tarefas nas filas são executadas.
+	 */
+	public void shutdown(){
+		this.lock.lock();
+		try{
+			this.shutdown = true;
+			this.notEmpty.signalAll();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	private class PriorityClass implements Executor{
+
+		public final String name;
+
+		public final int weight;
+
+		public final int queueSize;
+
+		public final LinkedList<Runnable> queue;
+
+		public final AtomicLong rejected;
+
+		public int current;
+
+		public PriorityClass(String name, int weight, int queueSize){
+			this.name      = name;
+			this.weight    = weight;
+			this.queueSize = queueSize;
+			this.queue     = new LinkedList<Runnable>();
+			this.rejected  = new AtomicLong();
+			this.current   = 0;
+		}
+
+		public void execute(Runnable command) {
+			offer(this, command);
+		}
+
+	}
+
+	private class Worker implements Runnable{
+
+		public void run() {
+			while(true){
+				Runnable task;
+
+				try{
+					task = take();
+				}
+				catch(InterruptedException e){
+					//a thread é encerrada somente pelo shutdown().
+					if(shutdown){
+						return;
+					}
+					continue;
+				}
+
+				if(task == null){
+					return;
+				}
+
+				/*
+				 * O cancelamento de uma tarefa (FutureTask.cancel(true))
+				 * interrompe a thread e a interrupção não pode passar para
+				 * a próxima tarefa nem encerrar a thread.
+				 */
+				Thread.interrupted();
+
+				try{
+					task.run();
+				}
+				catch(Throwable e){
+					//a falha de uma tarefa não encerra a thread.
+				}
+				finally{
+					Thread.interrupted();
+				}
+			}
+		}
+
+	}
+
+}
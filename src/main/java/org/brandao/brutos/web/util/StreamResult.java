@@ -0,0 +1,168 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Resultados de ações que são percorridos elemento a elemento.
+ * <p>São aceitos {@link Iterator}, <code>java.util.stream.BaseStream</code>
+ * e {@link Iterable} que não é uma {@link Collection}. O {@link Iterable}
+ * é aceito somente se o resultado é declarado como {@link Iterable}, assim
+ * outros tipos, como <code>java.nio.file.Path</code> ou uma página de 
+ * resultados, mantêm a sua codificação. Como o
+ * código é compatível com o Java 5, o <code>BaseStream</code> é acessado
+ * por reflexão, quando disponível.</p>
+ * <p>Os elementos não são mantidos em memória. O resultado é percorrido
+ * uma única vez e deve ser fechado com {@link #close(Object)}.</p>
+ *
+ * @author Brandao
+ *
+ */
+public final class StreamResult {
+
+	private static final Class<?> baseStreamClass;
+
+	private static final Method iteratorMethod;
+
+	private static final Class<?> autoCloseableClass;
+
+	private static final Method closeMethod;
+
+	static{
+		Class<?> stream    = null;
+		Method iterator    = null;
+		Class<?> closeable = null;
+		Method close       = null;
+
+		try{
+			stream   = Class.forName("java.util.stream.BaseStream");
+			iterator = stream.getMethod("iterator");
+		}
+		catch(Throwable e){
+			stream   = null;
+			iterator = null;
+		}
+
+		try{
+			closeable = Class.forName("java.lang.AutoCloseable");
+			close     = closeable.getMethod("close");
+		}
+		catch(Throwable e){
+			closeable = null;
+			close     = null;
+		}
+
+		baseStreamClass    = stream;
+		iteratorMethod     = iterator;
+		autoCloseableClass = closeable;
+		closeMethod        = close;
+	}
+
+	private StreamResult(){
+	}
+
+	/**
+	 * Verifica se o valor é percorrido elemento a elemento.
+	 * @param value Valor.
+	 * @param type Tipo declarado do resultado.
+	 * @return Verdadeiro se o valor é percorrido elemento a elemento.
+	 */
+	public static boolean isStream(Object value, Class<?> type){
+		return value instanceof Iterator ||
+				isIterable(value, type) ||
+				isBaseStream(value);
+	}
+
+	private static boolean isIterable(Object value, Class<?> type){
+		return type == Iterable.class &&
+				value instanceof Iterable && !(value instanceof Collection);
+	}
+
+	private static boolean isBaseStream(Object value){
+		return baseStreamClass != null && baseStreamClass.isInstance(value);
+	}
+
+	/**
+	 * Obtém o iterador do resultado.
+	 * @param value Resultado.
+	 * @param type Tipo declarado do resultado.
+	 * @return Iterador ou <code>null</code>, se o valor não é percorrido
+	 * elemento a elemento.
+	 * @throws Throwable Lançada se não foi possível obter o iterador.
+	 */
+	public static Iterator<?> iterator(Object value, Class<?> type) throws Throwable{
+		if(value instanceof Iterator){
+			return (Iterator<?>)value;
+		}
+		else
+		if(isIterable(value, type)){
+			return ((Iterable<?>)value).iterator();
+		}
+		else
+		if(isBaseStream(value)){
+			try{
+				return (Iterator<?>)iteratorMethod.invoke(value);
+			}
+			catch(InvocationTargetException e){
+				throw AsyncResult.unwrap(e);
+			}
+		}
+		else{
+			return null;
+		}
+	}
+
+	/**
+	 * Fecha o resultado e o seu iterador, se eles puderem ser fechados. Um
+	 * cursor de banco de dados, por exemplo, libera a conexão.
+	 * @param value Resultado.
+	 * @param iterator Iterador do resultado.
+	 * @throws Throwable Lançada se não foi possível fechar o resultado.
+	 */
+	public static void close(Object value, Iterator<?> iterator) throws Throwable{
+		try{
+			if(iterator != value){
+				close(iterator);
+			}
+		}
+		finally{
+			close(value);
+		}
+	}
+
+	private static void close(Object value) throws Throwable{
+		if(value instanceof Closeable){
+			((Closeable)value).close();
+		}
+		else
+		if(autoCloseableClass != null && autoCloseableClass.isInstance(value)){
+			try{
+				closeMethod.invoke(value);
+			}
+			catch(InvocationTargetException e){
+				throw AsyncResult.unwrap(e);
+			}
+		}
+	}
+
+}
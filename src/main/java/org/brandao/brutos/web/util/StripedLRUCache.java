@@ -0,0 +1,244 @@
+/*
+ * Brutos Web MVC http://www.brutosframework.com.br/
+ * Copyright (C) 2009-2017 Afonso Brandao. (afonso.rbn@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.brandao.brutos.web.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache concorrente com descarte LRU aproximado.
+ * <p>As entradas são distribuídas em segmentos pelo hash da chave.
+ * Cada segmento mantém a sua própria ordem de acesso e o seu próprio
+ * bloqueio, logo threads que consultam chaves de segmentos distintos
+ * não disputam o mesmo bloqueio. O descarte ocorre por segmento,
+ * aproximando o LRU global.</p>
+ *
+ * @author Brandao
+ *
+ * @param <K> Tipo da chave.
+ * @param <V> Tipo do valor.
+ */
+public class StripedLRUCache<K, V> {
+
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	private final Segment<K, V>[] segments;
+
+	private final int segmentMask;
+
+	private final int capacity;
+
+	public StripedLRUCache(int capacity){
+		this(capacity, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	@SuppressWarnings("unchecked")
+	public StripedLRUCache(int capacity, int concurrencyLevel){
+
+		if(capacity <= 0){
+			throw new IllegalArgumentException("invalid capacity: " + capacity);
+		}
+
+		if(concurrencyLevel <= 0){
+			throw new IllegalArgumentException("invalid concurrency level: " + concurrencyLevel);
+		}
+
+		//o número de segmentos não excede a capacidade, assim todo
+		//segmento recebe ao menos uma entrada.
+		int maxSegments  = Math.min(capacity, concurrencyLevel);
+		int segmentsSize = 1;
+
+		while((segmentsSize << 1) <= maxSegments){
+			segmentsSize <<= 1;
+		}
+
+		//o resto da divisão é distribuído entre os primeiros segmentos,
+		//logo a soma das capacidades é igual à capacidade informada.
+		int segmentCapacity = capacity / segmentsSize;
+		int remainder       = capacity % segmentsSize;
+
+		this.capacity    = capacity;
+		this.segmentMask = segmentsSize - 1;
+		this.segments    = new Segment[segmentsSize];
+
+		for(int i=0;i<segmentsSize;i++){
+			this.segments[i] = 
+				new Segment<K, V>(i < remainder? segmentCapacity + 1 : segmentCapacity);
+		}
+	}
+
+	public V get(K key){
+		return this.segmentFor(key).get(key);
+	}
+
+	public void put(K key, V value){
+		this.segmentFor(key).put(key, value);
+	}
+
+	public V remove(K key){
+		return this.segmentFor(key).remove(key);
+	}
+
+	public void clear(){
+		for(Segment<K, V> segment: this.segments){
+			segment.clear();
+		}
+	}
+
+	public int size(){
+		int result = 0;
+		for(Segment<K, V> segment: this.segments){
+			result += segment.size();
+		}
+		return result;
+	}
+
+	public int getCapacity(){
+		return this.capacity;
+	}
+
+	public long getHitCount(){
+		long result = 0;
+		for(Segment<K, V> segment: this.segments){
+			result += segment.hits;
+		}
+		return result;
+	}
+
+	public long getMissCount(){
+		long result = 0;
+		for(Segment<K, V> segment: this.segments){
+			result += segment.misses;
+		}
+		return result;
+	}
+
+	public long getEvictionCount(){
+		long result = 0;
+		for(Segment<K, V> segment: this.segments){
+			result += segment.evictions;
+		}
+		return result;
+	}
+
+	public double getHitRate(){
+		long hits     = this.getHitCount();
+		long requests = hits + this.getMissCount();
+		return requests == 0? 0.0 : (double)hits / (double)requests;
+	}
+
+	private Segment<K, V> segmentFor(Object key){
+		int h = key == null? 0 : key.hashCode();
+		//espalha os bits mais altos para os segmentos
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return this.segments[h & this.segmentMask];
+	}
+
+	private static class Segment<K, V> extends ReentrantLock{
+
+		private static final long serialVersionUID = -4021484736785297315L;
+
+		private final LinkedHashMap<K, V> map;
+
+		private volatile long hits;
+
+		private volatile long misses;
+
+		private volatile long evictions;
+
+		public Segment(final int maxSize){
+			this.map = new LinkedHashMap<K, V>(maxSize, 0.75f, true){
+
+				private static final long serialVersionUID = 3318766154651377404L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+					if(super.size() > maxSize){
+						evictions++;
+						return true;
+					}
+					return false;
+				}
+
+			};
+		}
+
+		public V get(K key){
+			this.lock();
+			try{
+				V value = this.map.get(key);
+
+				if(value == null){
+					misses++;
+				}
+				else{
+					hits++;
+				}
+
+				return value;
+			}
+			finally{
+				this.unlock();
+			}
+		}
+
+		public void put(K key, V value){
+			this.lock();
+			try{
+				this.map.put(key, value);
+			}
+			finally{
+				this.unlock();
+			}
+		}
+
+		public V remove(K key){
+			this.lock();
+			try{
+				return this.map.remove(key);
+			}
+			finally{
+				this.unlock();
+			}
+		}
+
+		public void clear(){
+			this.lock();
+			try{
+				this.map.clear();
+			}
+			finally{
+				this.unlock();
+			}
+		}
+
+		public int size(){
+			this.lock();
+			try{
+				return this.map.size();
+			}
+			finally{
+				this.unlock();
+			}
+		}
+
+	}
+
+}
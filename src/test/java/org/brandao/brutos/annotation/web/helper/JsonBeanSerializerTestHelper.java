@@ -0,0 +1,176 @@
+package org.brandao.brutos.annotation.web.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.brandao.brutos.annotation.ActionStrategy;
+import org.brandao.brutos.annotation.Controller;
+import org.brandao.brutos.annotation.web.WebActionStrategyType;
+
+public class JsonBeanSerializerTestHelper {
+
+	public static class Values{
+
+		public static Item item(){
+			Item parent = new Item();
+			parent.setId(1);
+			parent.setName("parent");
+
+			Item item = new Item();
+			item.setId(2);
+			item.setName("item ç");
+			item.setType(ItemType.VALUE2);
+			item.setParent(parent);
+			item.setChild(new Child("child"));
+			item.setChildren(children());
+			item.setTags(tags());
+			return item;
+		}
+
+		public static Item itemWithNulls(){
+			Item item = new Item();
+			item.setId(3);
+			item.setChildren(new ArrayList<Child>());
+			return item;
+		}
+
+		public static List<Child> children(){
+			return Arrays.asList(new Child("a"), null, new Child("b"));
+		}
+
+		public static List<String> tags(){
+			return Arrays.asList("x", "y", "z");
+		}
+
+	}
+
+	public static enum ItemType{
+
+		VALUE1,
+
+		VALUE2;
+
+	}
+
+	public static class Item{
+
+		private int id;
+
+		private String name;
+
+		private ItemType type;
+
+		private Item parent;
+
+		private Child child;
+
+		private List<Child> children;
+
+		private List<String> tags;
+
+		public int getId() {
+			return id;
+		}
+
+		public void setId(int id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public ItemType getType() {
+			return type;
+		}
+
+		public void setType(ItemType type) {
+			this.type = type;
+		}
+
+		public Item getParent() {
+			return parent;
+		}
+
+		public void setParent(Item parent) {
+			this.parent = parent;
+		}
+
+		public Child getChild() {
+			return child;
+		}
+
+		public void setChild(Child child) {
+			this.child = child;
+		}
+
+		public List<Child> getChildren() {
+			return children;
+		}
+
+		public void setChildren(List<Child> children) {
+			this.children = children;
+		}
+
+		public List<String> getTags() {
+			return tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+
+	}
+
+	public static class Child{
+
+		private String value;
+
+		public Child(){
+		}
+
+		public Child(String value){
+			this.value = value;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public void setValue(String value) {
+			this.value = value;
+		}
+
+	}
+
+	public static class Empty{
+	}
+
+	@ActionStrategy(WebActionStrategyType.DETACHED)
+	@Controller
+	public static class ControllerTest{
+
+		public Item itemAction(){
+			return Values.item();
+		}
+
+		public Empty emptyAction(){
+			return new Empty();
+		}
+
+		public List<Child> childrenAction(){
+			return Values.children();
+		}
+
+		public List<String> tagsAction(){
+			return Values.tags();
+		}
+
+	}
+
+}
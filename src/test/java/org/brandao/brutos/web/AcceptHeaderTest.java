@@ -0,0 +1,63 @@
+package org.brandao.brutos.web;
+
+import java.util.List;
+
+import org.brandao.brutos.DataType;
+
+import junit.framework.TestCase;
+
+public class AcceptHeaderTest extends TestCase{
+
+	public void testQualityOrder() throws Exception{
+		List<DataType> types = 
+			AcceptHeader.parse("text/html;q=0.5, application/json, text/plain;q=0.8");
+
+		assertEquals(3, types.size());
+		assertEquals("application/json", types.get(0).getName());
+		assertEquals("text/plain", types.get(1).getName());
+		assertEquals("text/html", types.get(2).getName());
+	}
+
+	public void testSpecificityOrder() throws Exception{
+		List<DataType> types = AcceptHeader.parse("*/*, text/*, text/html");
+
+		assertEquals("text/html", types.get(0).getName());
+		assertEquals("text/*", types.get(1).getName());
+		assertEquals("*/*", types.get(2).getName());
+	}
+
+	public void testNotAcceptable() throws Exception{
+		List<DataType> types = AcceptHeader.parse("text/html;q=0, application/json");
+
+		//o tipo excluído é mantido no fim da lista.
+		assertEquals(2, types.size());
+		assertEquals("application/json", types.get(0).getName());
+		assertEquals("text/html", types.get(1).getName());
+		assertEquals(0.0, AcceptHeader.getQuality((MediaType)types.get(1)), 0.0);
+	}
+
+	public void testQualityOfType() throws Exception{
+		List<DataType> types = AcceptHeader.parse("text/html;q=0, text/*;q=0.5, */*");
+
+		assertEquals(0.0, AcceptHeader.getQuality(types, MediaType.TEXT_HTML), 0.0);
+		assertEquals(0.5, AcceptHeader.getQuality(types, MediaType.TEXT_PLAIN), 0.0);
+		assertEquals(1.0, AcceptHeader.getQuality(types, MediaType.APPLICATION_JSON), 0.0);
+		assertEquals(0.0, 
+			AcceptHeader.getQuality(AcceptHeader.parse("text/plain"), MediaType.TEXT_HTML), 0.0);
+	}
+
+	public void testInvalidValues() throws Exception{
+		List<DataType> types = AcceptHeader.parse("text/html;q=abc, invalid, , application/json");
+
+		assertEquals(2, types.size());
+		assertEquals("text/html", types.get(0).getName());
+	}
+
+	public void testCache() throws Exception{
+		List<DataType> types = AcceptHeader.getMediaTypes("application/json, text/html");
+
+		assertSame(types, AcceptHeader.getMediaTypes("application/json, text/html"));
+		assertTrue(AcceptHeader.getMediaTypes(null).isEmpty());
+	}
+
+}
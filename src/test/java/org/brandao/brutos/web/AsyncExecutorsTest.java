@@ -0,0 +1,235 @@
+package org.brandao.brutos.web;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.brandao.brutos.BrutosException;
+import org.brandao.brutos.annotation.web.test.MockAnnotationWebApplicationContext;
+import org.brandao.brutos.web.mapping.WebAction;
+import org.brandao.brutos.web.mapping.WebController;
+import org.brandao.brutos.web.test.BasicWebApplicationTester;
+import org.brandao.brutos.web.test.WebApplicationContextTester;
+
+import junit.framework.TestCase;
+
+public class AsyncExecutorsTest extends TestCase{
+
+	public void testDefault() throws Exception{
+		AsyncExecutors executors = new AsyncExecutors();
+		executors.configure(new Properties());
+
+		assertSame(AsyncExecutorType.SHARED, executors.getDefaultType());
+		assertNotNull(executors.getExecutor(null, null));
+
+		executors.shutdown();
+	}
+
+	public void testContainer() throws Exception{
+		AsyncExecutors executors = create("container");
+
+		assertSame(AsyncExecutorType.CONTAINER, executors.getDefaultType());
+		assertNull(executors.getExecutor(null, null));
+	}
+
+	public void testShared() throws Exception{
+		AsyncExecutors executors = create("shared");
+
+		Executor executor = executors.getExecutor(null, null);
+		assertNotNull(executor);
+		assertSame(executor, executors.getExecutor(null, null));
+
+		executors.shutdown();
+	}
+
+	public void testVirtual() throws Exception{
+		AsyncExecutors executors = create("virtual");
+		AsyncExecutors shared    = create("shared");
+
+		Executor executor = executors.getExecutor(null, null);
+		assertNotNull(executor);
+
+		if(!AsyncExecutors.isVirtualThreadSupported()){
+			assertEquals(
+					shared.getExecutor(null, null).getClass(), 
+					executor.getClass());
+		}
+
+		executors.shutdown();
+		shared.shutdown();
+	}
+
+	public void testInvalid() throws Exception{
+		try{
+			create("unknown");
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+	public void testPriorityClasses() throws Exception{
+		Properties config = new Properties();
+		config.setProperty(BrutosWebConstants.ASYNC_EXECUTOR, "shared");
+		config.setProperty(BrutosWebConstants.ASYNC_SCHEDULER_CLASSES, "checkout:10:200, reports:1");
+
+		AsyncExecutors executors = new AsyncExecutors();
+		executors.configure(config);
+
+		assertNotNull(executors.getScheduler());
+		assertNotNull(executors.getExecutor(null, null));
+
+		executors.shutdown();
+
+		config.setProperty(BrutosWebConstants.ASYNC_SCHEDULER_CLASSES, "checkout:0");
+
+		try{
+			executors.configure(config);
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+	public void testCheckPriority() throws Exception{
+		Properties config = new Properties();
+		config.setProperty(BrutosWebConstants.ASYNC_SCHEDULER_CLASSES, "checkout:10:200, reports:1");
+
+		AsyncExecutors executors = new AsyncExecutors();
+		executors.configure(config);
+
+		WebController controller = new WebController(null);
+		WebAction action         = new WebAction();
+
+		assertNull(executors.checkPriority(controller, action));
+
+		action.setAsyncPriority("reports");
+		assertNull(executors.checkPriority(controller, action));
+
+		action.setAsyncPriority("default");
+		assertNull(executors.checkPriority(controller, action));
+
+		action.setAsyncPriority("unknown");
+		assertNotNull(executors.checkPriority(controller, action));
+
+		action.setAsyncPriority("reports");
+		action.setAsyncExecutor(AsyncExecutorType.CONTAINER);
+		assertNotNull(executors.checkPriority(controller, action));
+
+		action.setAsyncExecutor(AsyncExecutorType.CONTROLLER);
+		assertNotNull(executors.checkPriority(controller, action));
+
+		action.setAsyncExecutor(null);
+		executors.configure(new Properties());
+		assertNotNull(executors.checkPriority(controller, action));
+	}
+
+	public void testTimeout() throws Exception{
+		Properties config = new Properties();
+		config.setProperty(BrutosWebConstants.ASYNC_TIMEOUT, "5000");
+
+		AsyncExecutors executors = new AsyncExecutors();
+		executors.configure(config);
+
+		WebController controller = new WebController(null);
+		WebAction action         = new WebAction();
+
+		assertEquals(5000, executors.getTimeout(controller, action));
+		assertEquals(504, executors.getTimeoutStatus(controller, action));
+
+		controller.setAsyncTimeout(2000);
+		controller.setAsyncTimeoutStatus(503);
+		assertEquals(2000, executors.getTimeout(controller, action));
+		assertEquals(503, executors.getTimeoutStatus(controller, action));
+
+		action.setAsyncTimeout(100);
+		assertEquals(100, executors.getTimeout(controller, action));
+		assertEquals(503, executors.getTimeoutStatus(controller, action));
+
+		config.setProperty(BrutosWebConstants.ASYNC_TIMEOUT, "-1");
+
+		try{
+			executors.configure(config);
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+	public void testShutdown() throws Exception{
+		AsyncExecutors executors = create("shared");
+		executors.shutdown();
+
+		try{
+			executors.getExecutor(null, null);
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+	/*
+	 * A recarga da aplicação cria novos executores e encerra os anteriores.
+	 */
+	public void testFlush() throws Exception{
+		WebApplicationContextTester.run(
+			"/",
+			new BasicWebApplicationTester(){
+
+                public void prepareContext(Map<String, String> parameters) {
+                    parameters.put(
+                            ContextLoader.CONTEXT_CLASS,
+                            MockAnnotationWebApplicationContext.class.getName()
+                    );
+
+                    parameters.put(
+                            MockAnnotationWebApplicationContext.IGNORE_RESOURCES,
+                            "true"
+                    );
+                }
+
+				public void checkResult(HttpServletRequest request,
+						HttpServletResponse response, ServletContext context,
+						ConfigurableWebApplicationContext applicationContext) {
+					AbstractWebApplicationContext webContext = 
+							(AbstractWebApplicationContext)applicationContext;
+					AsyncExecutors previous = webContext.getAsyncExecutors();
+					assertNotNull(previous.getExecutor(null, null));
+
+					webContext.flush();
+
+					AsyncExecutors current = webContext.getAsyncExecutors();
+					assertNotSame(previous, current);
+					assertNotNull(current.getExecutor(null, null));
+
+					try{
+						previous.getExecutor(null, null);
+						fail();
+					}
+					catch(BrutosException e){
+					}
+				}
+
+				public void checkException(Throwable e) {
+					throw new RuntimeException(e);
+				}
+
+			},
+			new Class<?>[]{}
+		);
+	}
+
+	private static AsyncExecutors create(String type){
+		Properties config = new Properties();
+		config.setProperty(BrutosWebConstants.ASYNC_EXECUTOR, type);
+
+		AsyncExecutors executors = new AsyncExecutors();
+		executors.configure(config);
+		return executors;
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.brandao.brutos.web;
+
+import junit.framework.TestCase;
+
+public class MediaTypeTest extends TestCase{
+
+	public void testDefaultType() throws Exception{
+		assertSame(MediaType.APPLICATION_JSON, MediaType.valueOf("application/json"));
+		assertSame(MediaType.APPLICATION_JSON, MediaType.valueOf("Application/JSON "));
+	}
+
+	public void testParams() throws Exception{
+		MediaType type = MediaType.valueOf("application/json; charset=\"UTF-8\"; invalid");
+
+		assertEquals(MediaType.APPLICATION_JSON, type);
+		assertSame(MediaType.APPLICATION_JSON, type.getBaseType());
+		assertEquals("UTF-8", type.getParams().get("charset"));
+		assertEquals(1, type.getParams().size());
+		assertEquals(MediaType.APPLICATION_JSON.hashCode(), type.hashCode());
+	}
+
+	public void testInterned() throws Exception{
+		MediaType type = MediaType.valueOf("text/csv;charset=UTF-8");
+
+		assertSame(type, MediaType.valueOf("text/csv;charset=UTF-8"));
+		assertSame(type.getBaseType(), MediaType.valueOf("text/csv"));
+		assertEquals("text", type.getType());
+		assertEquals("csv", type.getSubType());
+	}
+
+	public void testBaseTypeAfterEviction() throws Exception{
+		MediaType base = MediaType.valueOf("text/x-base");
+
+		//descarta os tipos com parâmetros e o próprio "text/x-base" do cache.
+		for(int i=0;i<2000;i++){
+			MediaType.valueOf("text/plain;v=" + i);
+		}
+
+		assertSame(base, MediaType.valueOf("text/x-base"));
+		assertSame(base, MediaType.valueOf("text/x-base;charset=UTF-8").getBaseType());
+	}
+
+	public void testMultipart() throws Exception{
+		MediaType type = MediaType.valueOf("multipart/form-data; boundary=abc");
+
+		assertSame(MediaType.MULTIPART_FORM_DATA, type.getBaseType());
+		assertEquals("abc", type.getParams().get("boundary"));
+	}
+
+	public void testInvalid() throws Exception{
+		try{
+			MediaType.valueOf("invalid");
+			fail();
+		}
+		catch(IllegalStateException e){
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+package org.brandao.brutos.web;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.web.scope.HeaderScope;
+import org.brandao.brutos.web.scope.ParamScope;
+import org.brandao.brutos.web.scope.SessionScope;
+
+public class RequestContextTest extends TestCase{
+
+	public void testBindAndRestore() throws Exception{
+		RequestContext outer = new RequestContext(null, null, null, null);
+		RequestContext inner = new RequestContext(null, null, null, null);
+
+		RequestContext previous = outer.bind();
+		assertNull(previous);
+		assertSame(outer, RequestContext.getCurrent());
+
+		RequestContext nested = inner.bind();
+		assertSame(outer, nested);
+		assertSame(inner, RequestContext.getCurrent());
+
+		RequestContext.restore(nested);
+		assertSame(outer, RequestContext.getCurrent());
+
+		RequestContext.restore(previous);
+		assertNull(RequestContext.getCurrent());
+	}
+
+	/*
+	 * Os métodos obsoletos dos escopos substituem a requisição do contexto
+	 * atual e restauram o contexto anterior na remoção.
+	 */
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedScopeMethods() throws Exception{
+		HttpServletRequest servletRequest = create(HttpServletRequest.class);
+		MutableWebMvcRequest request      = create(MutableWebMvcRequest.class);
+		RequestContext context            = new RequestContext(null, null, null, null);
+		RequestContext previous           = context.bind();
+
+		try{
+			SessionScope.setServletRequest(servletRequest);
+			ParamScope.setRequest(request);
+			assertSame(servletRequest, RequestContext.getCurrent().getServletRequest());
+			assertSame(request, RequestContext.getCurrent().getRequest());
+
+			ParamScope.removeRequest(request);
+			SessionScope.removeServletRequest(servletRequest);
+			assertSame(context, RequestContext.getCurrent());
+
+			//o contexto associado por bind() não é removido.
+			ParamScope.removeRequest(request);
+			assertSame(context, RequestContext.getCurrent());
+		}
+		finally{
+			RequestContext.restore(previous);
+		}
+
+		HeaderScope.setRequest(request);
+		assertSame(request, RequestContext.getCurrent().getRequest());
+		assertNull(RequestContext.getCurrent().getServletRequest());
+
+		HeaderScope.removeRequest(request);
+		assertNull(RequestContext.getCurrent());
+	}
+
+	public void testTransfer() throws Exception{
+		final RequestContext context = new RequestContext(null, null, null, null);
+		ExecutorService executor     = Executors.newSingleThreadExecutor();
+
+		try{
+			Callable<RequestContext> task = new Callable<RequestContext>(){
+
+				public RequestContext call() throws Exception {
+					return RequestContext.getCurrent();
+				}
+
+			};
+
+			assertSame(context, executor.submit(context.wrap(task)).get());
+			assertNull(executor.submit(task).get());
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+
+	private static <T> T create(Class<T> type){
+		return type.cast(
+			Proxy.newProxyInstance(
+				type.getClassLoader(),
+				new Class<?>[]{type},
+				new InvocationHandler(){
+
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws Throwable {
+						throw new UnsupportedOperationException(method.getName());
+					}
+
+				}));
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.brandao.brutos.web;
+
+import junit.framework.TestCase;
+
+public class RequestMethodTypeTest extends TestCase{
+
+	public void testStandardMethods() throws Exception{
+		assertSame(RequestMethodType.GET, RequestMethodType.valueOf("GET"));
+		assertSame(RequestMethodType.GET, RequestMethodType.valueOf("get"));
+		assertSame(RequestMethodType.POST, RequestMethodType.valueOf("Post"));
+		assertNull(RequestMethodType.valueOf(null));
+	}
+
+	public void testOtherMethods() throws Exception{
+		RequestMethodType type = RequestMethodType.valueOf("PATCH");
+
+		assertEquals("patch", type.getId());
+		assertEquals(-1, type.getIndex());
+	}
+
+}
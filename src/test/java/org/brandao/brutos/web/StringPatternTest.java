@@ -0,0 +1,137 @@
+package org.brandao.brutos.web;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class StringPatternTest extends TestCase{
+
+	public void testStaticValue() throws Exception{
+		StringPattern pattern = new StringPattern("user");
+
+		assertTrue(pattern.matches("user"));
+		assertTrue(pattern.matches("USER"));
+		assertFalse(pattern.matches("users"));
+		assertEquals(0, pattern.match("user").length);
+		assertNull(pattern.match("users"));
+	}
+
+	public void testSingleVar() throws Exception{
+		StringPattern pattern = new StringPattern("{id}");
+
+		assertTrue(pattern.matches("10"));
+		assertFalse(pattern.matches("a-b"));
+		assertEquals(Arrays.asList("10"), Arrays.asList(pattern.match("10")));
+
+		Map<String, List<String>> params = pattern.getParameters("10");
+		assertEquals(Arrays.asList("10"), params.get("id"));
+	}
+
+	public void testMultipleVars() throws Exception{
+		StringPattern pattern = new StringPattern("p{page:\\d+}-{size:\\d+}.json");
+
+		assertFalse(pattern.matches("p1-a.json"));
+		assertFalse(pattern.matches("p1-2.xml"));
+
+		Object[] values = pattern.match("p12-30.json");
+		assertEquals(Arrays.asList("12", "30"), Arrays.asList(values));
+
+		Map<String, List<String>> params = pattern.getParameters("p12-30.json");
+		assertEquals(Arrays.asList("12"), params.get("page"));
+		assertEquals(Arrays.asList("30"), params.get("size"));
+	}
+
+	public void testVarWithGroups() throws Exception{
+		StringPattern pattern = new StringPattern("{a:(x|y)+}-{b}");
+
+		Object[] values = pattern.match("xyx-end");
+		assertEquals(Arrays.asList("xyx", "end"), Arrays.asList(values));
+	}
+
+	public void testIntVar() throws Exception{
+		StringPattern pattern = new StringPattern("{id:int}");
+
+		assertTrue(pattern.matches("-2147483648"));
+		assertFalse(pattern.matches("2147483648"));
+		assertFalse(pattern.matches("1a"));
+		assertFalse(pattern.matches("-"));
+		assertEquals(Integer.valueOf(42), pattern.match("42")[0]);
+
+		Map<String, List<Object>> params = pattern.getParameterValues("7");
+		assertEquals(Arrays.asList((Object)Integer.valueOf(7)), params.get("id"));
+	}
+
+	public void testLongVar() throws Exception{
+		StringPattern pattern = new StringPattern("item-{id:long}.json");
+
+		assertEquals(Long.valueOf(Long.MAX_VALUE), pattern.match("item-9223372036854775807.json")[0]);
+		assertFalse(pattern.matches("item-9223372036854775808.json"));
+		assertFalse(pattern.matches("item-.json"));
+		assertEquals(Arrays.asList("12"), pattern.getParameters("ITEM-12.JSON").get("id"));
+	}
+
+	public void testUuidVar() throws Exception{
+		StringPattern pattern = new StringPattern("{id:uuid}");
+
+		assertTrue(pattern.matches("123e4567-e89b-12d3-a456-426614174000"));
+		assertFalse(pattern.matches("123e4567-e89b-12d3-a456-42661417400g"));
+		assertFalse(pattern.matches("123e4567e89b12d3a456426614174000"));
+	}
+
+	public void testSegmentVar() throws Exception{
+		StringPattern pattern = new StringPattern("{slug:segment}");
+
+		assertTrue(pattern.matches("my-post.html"));
+		assertFalse(pattern.matches(""));
+		assertFalse(pattern.matches("a/b"));
+	}
+
+	public void testTypedVars() throws Exception{
+		StringPattern pattern = new StringPattern("{a:int}-{b:long}");
+
+		assertEquals(
+			Arrays.asList((Object)Integer.valueOf(1), Long.valueOf(2)), 
+			Arrays.asList(pattern.match("1-2")));
+		assertNull(pattern.match("99999999999-2"));
+	}
+
+	public void testSpecificity() throws Exception{
+		StringPattern regex  = new StringPattern("{id:[a-z]+}");
+		StringPattern typed  = new StringPattern("{id:int}");
+		StringPattern prefix = new StringPattern("p{id}");
+		StringPattern suffix = new StringPattern("{id}.json");
+
+		StringPattern word   = new StringPattern("{id}");
+
+		StringPattern[] patterns = new StringPattern[]{word, regex, suffix, typed, prefix};
+		Arrays.sort(patterns, StringPattern.SPECIFICITY);
+
+		assertEquals(
+			Arrays.asList(prefix, typed, regex, suffix, word), 
+			Arrays.asList(patterns));
+	}
+
+	public void testWordAfterTypes() throws Exception{
+		StringPattern word  = new StringPattern("{name}");
+		StringPattern mixed = new StringPattern("{id:int}-{name}");
+
+		assertTrue(StringPattern.SPECIFICITY.compare(new StringPattern("{id:int}"), word) < 0);
+		assertTrue(StringPattern.SPECIFICITY.compare(new StringPattern("{id:long}"), word) < 0);
+		assertTrue(StringPattern.SPECIFICITY.compare(new StringPattern("{id:uuid}"), word) < 0);
+		assertTrue(StringPattern.SPECIFICITY.compare(new StringPattern("{id:[0-9]+}"), word) < 0);
+
+		//uma variável sem tipo torna o padrão tão específico quanto {name}.
+		assertEquals(0, StringPattern.SPECIFICITY.compare(mixed, word));
+	}
+
+	public void testRegion() throws Exception{
+		StringPattern pattern = new StringPattern("{id:\\d+}");
+		String value          = "/user/10/edit";
+
+		assertEquals(Arrays.asList("10"), Arrays.asList(pattern.match(value, 6, 8)));
+		assertNull(pattern.match(value, 1, 5));
+	}
+
+}
@@ -0,0 +1,530 @@
+package org.brandao.brutos.web;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.BrutosException;
+import org.brandao.brutos.ControllerManager;
+import org.brandao.brutos.ResourceAction;
+import org.brandao.brutos.mapping.Action;
+import org.brandao.brutos.mapping.ActionID;
+import org.brandao.brutos.mapping.Controller;
+import org.brandao.brutos.mapping.ControllerID;
+import org.brandao.brutos.web.mapping.PathParameters;
+import org.brandao.brutos.web.mapping.RadixRequestMappingTree;
+import org.brandao.brutos.web.mapping.RequestEntry;
+import org.brandao.brutos.web.mapping.RequestMappingEntry;
+import org.brandao.brutos.web.mapping.RequestMappingTree;
+import org.brandao.brutos.web.mapping.TrieRequestMappingTree;
+import org.brandao.brutos.web.mapping.WebAction;
+import org.brandao.brutos.web.mapping.WebActionID;
+import org.brandao.brutos.web.mapping.WebController;
+
+/*
+ * As rotas são verificadas com as duas tabelas de rotas. As duas devem 
+ * resolver as requisições da mesma forma.
+ */
+public class WebActionResolverTest extends TestCase{
+
+	private static final String[] ROUTERS = new String[]{"trie", "radix"};
+
+	public void testRouter() throws Exception{
+		assertTrue(createResolver("trie", "request").getRequestMappingTree() 
+				instanceof TrieRequestMappingTree);
+		assertTrue(createResolver("trie", "template").getRequestMappingTree() 
+				instanceof TrieRequestMappingTree);
+		assertTrue(createResolver("radix", "request").getRequestMappingTree() 
+				instanceof RadixRequestMappingTree);
+	}
+
+	public void testTemplateCacheRequiresTrie() throws Exception{
+		try{
+			createResolver("radix", "template");
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+	public void testTemplateReuse() throws Exception{
+		WebActionResolver resolver = createResolver("trie", "template");
+		register(resolver, "/users/{id}");
+
+		TrieRequestMappingTree tree = 
+				(TrieRequestMappingTree)resolver.getRequestMappingTree();
+
+		Request request = new Request("/users/1");
+		assertNotNull(resolver.getResourceAction(
+				(ControllerManager)null, request.create()));
+		assertEquals("1", request.pathParameters.getValue("id"));
+		assertEquals(1, tree.getTemplateCount());
+
+		//a segunda requisição é resolvida pelo mesmo modelo.
+		request = new Request("/users/2");
+		assertNotNull(resolver.getResourceAction(
+				(ControllerManager)null, request.create()));
+		assertEquals("2", request.pathParameters.getValue("id"));
+		assertEquals(1, tree.getTemplateCount());
+
+		//as rotas com variáveis não ocupam o cache de requisições.
+		assertEquals(0, resolver.getCache().size());
+	}
+
+	public void testTemplateStaticSibling() throws Exception{
+		RequestMappingTree tree = createTemplateTree();
+		RequestMappingEntry id  = add(tree, "/users/{id}", RequestMethodType.GET);
+		RequestMappingEntry nw  = add(tree, "/users/new", RequestMethodType.GET);
+
+		assertSame(id, get(tree, "/users/1").getRequestMappingEntry());
+
+		RequestEntry entry = get(tree, "/users/new");
+		assertSame(nw, entry.getRequestMappingEntry());
+		assertNull(entry.getParameters());
+
+		entry = get(tree, "/users/2");
+		assertSame(id, entry.getRequestMappingEntry());
+		assertEquals("2", entry.getParameters().getValue("id"));
+	}
+
+	public void testTemplateTypedSibling() throws Exception{
+		RequestMappingTree tree  = createTemplateTree();
+		RequestMappingEntry name = add(tree, "/users/{name}", RequestMethodType.GET);
+		RequestMappingEntry id   = add(tree, "/users/{id:int}", RequestMethodType.GET);
+
+		RequestEntry entry = get(tree, "/users/john");
+		assertSame(name, entry.getRequestMappingEntry());
+		assertEquals("john", entry.getParameters().getValue("name"));
+
+		//o modelo de {name} não captura o valor que pertence a {id:int}.
+		entry = get(tree, "/users/42");
+		assertSame(id, entry.getRequestMappingEntry());
+		assertEquals(Integer.valueOf(42), entry.getParameters().getValue("id"));
+
+		entry = get(tree, "/users/mary");
+		assertSame(name, entry.getRequestMappingEntry());
+		assertEquals("mary", entry.getParameters().getValue("name"));
+	}
+
+	public void testTemplateIndexCleared() throws Exception{
+		TrieRequestMappingTree tree = createTemplateTree();
+		add(tree, "/users/{name}", RequestMethodType.GET);
+
+		get(tree, "/users/1");
+		assertEquals(1, tree.getTemplateCount());
+
+		RequestMappingEntry id = add(tree, "/users/{id:int}", RequestMethodType.GET);
+		assertEquals(0, tree.getTemplateCount());
+		assertSame(id, get(tree, "/users/1").getRequestMappingEntry());
+		assertEquals(1, tree.getTemplateCount());
+
+		assertTrue(tree.remove("/users/{id:int}", id));
+		assertEquals(0, tree.getTemplateCount());
+		assertEquals("1", get(tree, "/users/1").getParameters().getValue("name"));
+	}
+
+	public void testTemplateIndexClearedByResolver() throws Exception{
+		WebActionResolver resolver = createResolver("trie", "template");
+		register(resolver, "/users/{name}");
+
+		Request request = new Request("/users/1");
+		resolver.getResourceAction((ControllerManager)null, request.create());
+		assertEquals("1", request.pathParameters.getValue("name"));
+		assertEquals(1, ((TrieRequestMappingTree)resolver.getRequestMappingTree())
+				.getTemplateCount());
+
+		WebController controller = register(resolver, "/users/{id:int}");
+		assertEquals(0, ((TrieRequestMappingTree)resolver.getRequestMappingTree())
+				.getTemplateCount());
+
+		request = new Request("/users/1");
+		resolver.getResourceAction((ControllerManager)null, request.create());
+		assertEquals(Integer.valueOf(1), request.pathParameters.getValue("id"));
+
+		resolver.remove(null, controller, null, new WebAction());
+		assertEquals(0, ((TrieRequestMappingTree)resolver.getRequestMappingTree())
+				.getTemplateCount());
+
+		request = new Request("/users/1");
+		resolver.getResourceAction((ControllerManager)null, request.create());
+		assertEquals("1", request.pathParameters.getValue("name"));
+	}
+
+	public void testStaticBeforeDynamic() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree = createTree(router);
+			RequestMappingEntry id  = add(tree, "/users/{id}", RequestMethodType.GET);
+			RequestMappingEntry me  = add(tree, "/users/me", RequestMethodType.GET);
+
+			assertSame(router, me, get(tree, "/users/me").getRequestMappingEntry());
+			assertNull(router, get(tree, "/users/me").getParameters());
+
+			RequestEntry entry = get(tree, "/users/42");
+			assertSame(router, id, entry.getRequestMappingEntry());
+			assertEquals(router, "42", entry.getParameters().getValue("id"));
+		}
+	}
+
+	public void testTypedBeforeUntyped() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree   = createTree(router);
+			RequestMappingEntry name  = add(tree, "/items/{name:[a-z0-9]+}", RequestMethodType.GET);
+			RequestMappingEntry id    = add(tree, "/items/{id:int}", RequestMethodType.GET);
+
+			RequestEntry entry = get(tree, "/items/42");
+			assertSame(router, id, entry.getRequestMappingEntry());
+			assertEquals(router, Integer.valueOf(42), entry.getParameters().getValue("id"));
+
+			entry = get(tree, "/items/a42");
+			assertSame(router, name, entry.getRequestMappingEntry());
+			assertEquals(router, "a42", entry.getParameters().getValue("name"));
+		}
+	}
+
+	public void testTypedBeforeWord() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree  = createTree(router);
+			RequestMappingEntry name = add(tree, "/users/{name}", RequestMethodType.GET);
+			RequestMappingEntry id   = add(tree, "/users/{id:int}", RequestMethodType.GET);
+
+			RequestEntry entry = get(tree, "/users/42");
+			assertSame(router, id, entry.getRequestMappingEntry());
+			assertEquals(router, Integer.valueOf(42), entry.getParameters().getValue("id"));
+
+			entry = get(tree, "/users/john");
+			assertSame(router, name, entry.getRequestMappingEntry());
+			assertEquals(router, "john", entry.getParameters().getValue("name"));
+		}
+	}
+
+	public void testVariablesInSeveralSegments() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree = createTree(router);
+			RequestMappingEntry e   = 
+					add(tree, "/users/{user}/orders/{order:long}", RequestMethodType.GET);
+
+			RequestEntry entry = get(tree, "/users/john/orders/7");
+			assertSame(router, e, entry.getRequestMappingEntry());
+			assertEquals(router, "john", entry.getParameters().getValue("user"));
+			assertEquals(router, Long.valueOf(7), entry.getParameters().getValue("order"));
+
+			assertNull(router, get(tree, "/users/john/orders/x"));
+			assertNull(router, get(tree, "/users/john/orders"));
+		}
+	}
+
+	public void testSeparators() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree   = createTree(router);
+			RequestMappingEntry me    = add(tree, "/users/me", RequestMethodType.GET);
+			RequestMappingEntry index = add(tree, "/users/", RequestMethodType.GET);
+			RequestMappingEntry id    = add(tree, "/users/{id}/", RequestMethodType.GET);
+
+			//separadores repetidos são ignorados.
+			assertSame(router, me, get(tree, "//users//me").getRequestMappingEntry());
+			assertSame(router, index, get(tree, "//users//").getRequestMappingEntry());
+
+			//o separador final indica a rota de índice, que é distinta.
+			assertSame(router, index, get(tree, "/users/").getRequestMappingEntry());
+			assertNull(router, get(tree, "/users"));
+			assertNull(router, get(tree, "/users/me/"));
+
+			RequestEntry entry = get(tree, "/users//42/");
+			assertSame(router, id, entry.getRequestMappingEntry());
+			assertEquals(router, "42", entry.getParameters().getValue("id"));
+			assertNull(router, get(tree, "/users/42"));
+
+			assertNull(router, get(tree, "/use"));
+			assertNull(router, get(tree, "/users/me/x"));
+		}
+	}
+
+	public void testMethodNotAllowed() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree  = createTree(router);
+			RequestMappingEntry get  = add(tree, "/users/{id}", RequestMethodType.GET);
+			RequestMappingEntry put  = add(tree, "/users/{id}", RequestMethodType.PUT);
+
+			assertSame(router, get, get(tree, "/users/1").getRequestMappingEntry());
+			assertSame(router, put, 
+					tree.get("/users/1", RequestMethodType.PUT).getRequestMappingEntry());
+
+			//a entrada resolvida também informa todos os métodos do caminho.
+			assertEquals(router, 
+					Arrays.asList(RequestMethodType.GET, RequestMethodType.PUT), 
+					Arrays.asList(get(tree, "/users/1").getAllowedMethods()));
+
+			RequestEntry entry = tree.get("/users/1", RequestMethodType.POST);
+			assertNull(router, entry.getRequestMappingEntry());
+			assertEquals(router, 
+					Arrays.asList(RequestMethodType.GET, RequestMethodType.PUT), 
+					Arrays.asList(entry.getAllowedMethods()));
+
+			//o mesmo método não pode ser registrado duas vezes.
+			assertFalse(router, tree.add("/users/{id}", 
+					new RequestMappingEntry(RequestMethodType.GET, null, null)));
+		}
+	}
+
+	public void testRemove() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree   = createTree(router);
+			RequestMappingEntry me    = add(tree, "/users/me", RequestMethodType.GET);
+			RequestMappingEntry mine  = add(tree, "/users/mine", RequestMethodType.GET);
+			RequestMappingEntry id    = add(tree, "/users/{id}", RequestMethodType.GET);
+			RequestMappingEntry users = add(tree, "/users", RequestMethodType.GET);
+
+			assertTrue(router, tree.remove("/users/mine", mine));
+			assertFalse(router, tree.remove("/users/mine", mine));
+			assertSame(router, me, get(tree, "/users/me").getRequestMappingEntry());
+			assertSame(router, id, get(tree, "/users/mine").getRequestMappingEntry());
+
+			assertTrue(router, tree.remove("/users/{id}", id));
+			assertNull(router, get(tree, "/users/mine"));
+			assertSame(router, me, get(tree, "/users/me").getRequestMappingEntry());
+
+			//os nós que ficaram vazios são descartados ou compactados.
+			assertTrue(router, tree.remove("/users/me", me));
+			assertNull(router, get(tree, "/users/me"));
+			assertSame(router, users, get(tree, "/users").getRequestMappingEntry());
+
+			assertTrue(router, tree.remove("/users", users));
+			assertNull(router, get(tree, "/users"));
+
+			//a tabela continua aceitando as rotas removidas.
+			me = add(tree, "/users/me", RequestMethodType.GET);
+			assertSame(router, me, get(tree, "/users/me").getRequestMappingEntry());
+		}
+	}
+
+	public void testRemoveMethod() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree  = createTree(router);
+			RequestMappingEntry get  = add(tree, "/users/{id}", RequestMethodType.GET);
+			RequestMappingEntry post = add(tree, "/users/{id}", RequestMethodType.POST);
+
+			assertTrue(router, tree.remove("/users/{id}", post));
+			assertSame(router, get, get(tree, "/users/1").getRequestMappingEntry());
+
+			RequestEntry entry = tree.get("/users/1", RequestMethodType.POST);
+			assertEquals(router, 
+					Arrays.asList(RequestMethodType.GET), 
+					Arrays.asList(entry.getAllowedMethods()));
+		}
+	}
+
+	public void testCopyOnWrite() throws Exception{
+		for(String router: ROUTERS){
+			RequestMappingTree tree = createTree(router);
+			RequestMappingEntry me  = add(tree, "/users/me", RequestMethodType.GET);
+			RequestMappingEntry id  = add(tree, "/users/{id}", RequestMethodType.GET);
+
+			//a cópia é alterada sem afetar a tabela publicada.
+			RequestMappingTree copy  = tree.copy();
+			RequestMappingEntry mine = add(copy, "/users/mine", RequestMethodType.GET);
+			RequestMappingEntry post = add(copy, "/users/{id}", RequestMethodType.POST);
+			assertTrue(router, copy.remove("/users/me", me));
+
+			assertSame(router, me, get(tree, "/users/me").getRequestMappingEntry());
+			assertSame(router, id, get(tree, "/users/mine").getRequestMappingEntry());
+			assertEquals(router, 
+					Arrays.asList(RequestMethodType.GET), 
+					Arrays.asList(tree.get("/users/1", RequestMethodType.POST).getAllowedMethods()));
+
+			assertSame(router, mine, get(copy, "/users/mine").getRequestMappingEntry());
+			assertSame(router, id, get(copy, "/users/me").getRequestMappingEntry());
+			assertSame(router, post, 
+					copy.get("/users/1", RequestMethodType.POST).getRequestMappingEntry());
+		}
+	}
+
+	public void testUnknownResourcesKeepRoutes() throws Exception{
+		WebActionResolver resolver = createResolver("trie", "request");
+
+		for(int i=0;i<10;i++){
+			register(resolver, "/r" + i);
+		}
+
+		for(int i=0;i<10;i++){
+			assertNotNull(resolve(resolver, "/r" + i));
+		}
+
+		assertEquals(10, resolver.getCache().size());
+
+		//uma varredura de URLs únicas não descarta as rotas.
+		for(int i=0;i<500;i++){
+			assertNull(resolve(resolver, "/unknown/" + i));
+		}
+
+		assertEquals(10, resolver.getCache().size());
+		assertEquals(500, resolver.getUnknownResourceCount());
+
+		//cada URL única é recusada ou, por colisão no sketch, admitida.
+		assertEquals(500, 
+			resolver.getRejectedMissCount() + resolver.getNegativeCache().size());
+		assertTrue(resolver.getNegativeCache().size() < 50);
+
+		long hits = resolver.getCache().getHitCount();
+
+		for(int i=0;i<10;i++){
+			assertNotNull(resolve(resolver, "/r" + i));
+		}
+
+		assertEquals(hits + 10, resolver.getCache().getHitCount());
+	}
+
+	public void testRepeatedMiss() throws Exception{
+		WebActionResolver resolver = createResolver("trie", "request");
+		register(resolver, "/users");
+
+		assertNull(resolve(resolver, "/missing"));
+		assertEquals(1, resolver.getRejectedMissCount());
+		assertEquals(0, resolver.getNegativeCache().size());
+
+		//a segunda falha admite a URL no cache negativo.
+		assertNull(resolve(resolver, "/missing"));
+		assertEquals(1, resolver.getRejectedMissCount());
+		assertEquals(1, resolver.getNegativeCache().size());
+
+		long hits = resolver.getNegativeCache().getHitCount();
+
+		assertNull(resolve(resolver, "/missing"));
+		assertEquals(hits + 1, resolver.getNegativeCache().getHitCount());
+		assertEquals(3, resolver.getUnknownResourceCount());
+		assertEquals(0, resolver.getCache().size());
+	}
+
+	public void testRegistryClearsCaches() throws Exception{
+		WebActionResolver resolver = createResolver("trie", "request");
+		register(resolver, "/users");
+
+		assertNotNull(resolve(resolver, "/users"));
+		assertNull(resolve(resolver, "/orders"));
+		assertNull(resolve(resolver, "/orders"));
+
+		assertEquals(1, resolver.getCache().size());
+		assertEquals(1, resolver.getNegativeCache().size());
+
+		register(resolver, "/orders");
+
+		assertEquals(0, resolver.getCache().size());
+		assertEquals(0, resolver.getNegativeCache().size());
+		assertNotNull(resolve(resolver, "/orders"));
+	}
+
+	private static RequestMappingEntry add(RequestMappingTree tree, String id, 
+			RequestMethodType methodType) throws Exception{
+		RequestMappingEntry entry = new RequestMappingEntry(methodType, null, null);
+		assertTrue(id, tree.add(id, entry));
+		return entry;
+	}
+
+	private static RequestEntry get(RequestMappingTree tree, String id) throws Exception{
+		return tree.get(id, RequestMethodType.GET);
+	}
+
+	/*
+	 * Registra as rotas de uma ação pelo resolvedor.
+	 */
+	private static WebController register(WebActionResolver resolver, 
+			String ... ids) throws Exception{
+		final List<ActionID> list = new ArrayList<ActionID>();
+
+		for(String id: ids){
+			list.add(new WebActionID(id, RequestMethodType.GET));
+		}
+
+		WebController controller = new WebController(null);
+		controller.setActionType(new WebActionType(){
+
+			public List<ActionID> getIDs(ControllerID controllerID, Controller controller, 
+					ActionID actionID, Action action){
+				return list;
+			}
+
+		});
+
+		resolver.registry(null, controller, null, new WebAction());
+		return controller;
+	}
+
+	private static ResourceAction resolve(WebActionResolver resolver, 
+			String id) throws Exception{
+		return resolver.getResourceAction((ControllerManager)null, new Request(id).create());
+	}
+
+	private static RequestMappingTree createTree(String router){
+		return createResolver(router, "request").getRequestMappingTree();
+	}
+
+	private static TrieRequestMappingTree createTemplateTree(){
+		return (TrieRequestMappingTree)
+				createResolver("trie", "template").getRequestMappingTree();
+	}
+
+	private static WebActionResolver createResolver(String router, String cacheMode){
+		Properties config = new Properties();
+		config.setProperty(BrutosWebConstants.ACTION_RESOLVER_ROUTER, router);
+		config.setProperty(BrutosWebConstants.ACTION_RESOLVER_CACHE_MODE, cacheMode);
+
+		WebActionResolver resolver = new WebActionResolver();
+		resolver.configure(config);
+		return resolver;
+	}
+
+	/*
+	 * Requisição GET que registra os valores das variáveis da rota.
+	 */
+	private static class Request implements InvocationHandler{
+
+		private final String id;
+
+		public PathParameters pathParameters;
+
+		public Request(String id){
+			this.id = id;
+		}
+
+		public MutableWebMvcRequest create(){
+			return (MutableWebMvcRequest)Proxy.newProxyInstance(
+					MutableWebMvcRequest.class.getClassLoader(), 
+					new Class<?>[]{MutableWebMvcRequest.class}, 
+					this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if(name.equals("getRequestId")){
+				return this.id;
+			}
+			else
+			if(name.equals("getRequestMethodType")){
+				return RequestMethodType.GET;
+			}
+			else
+			if(name.equals("setPathParameters")){
+				this.pathParameters = (PathParameters)args[0];
+				return null;
+			}
+			else
+			if(name.equals("hashCode")){
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			else
+			if(name.equals("equals")){
+				return Boolean.valueOf(proxy == args[0]);
+			}
+
+			return null;
+		}
+
+	}
+
+}
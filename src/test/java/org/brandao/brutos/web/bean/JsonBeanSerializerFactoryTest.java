@@ -0,0 +1,188 @@
+package org.brandao.brutos.web.bean;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.annotation.web.helper.JsonBeanSerializerTestHelper.Child;
+import org.brandao.brutos.annotation.web.helper.JsonBeanSerializerTestHelper.ControllerTest;
+import org.brandao.brutos.annotation.web.helper.JsonBeanSerializerTestHelper.Empty;
+import org.brandao.brutos.annotation.web.helper.JsonBeanSerializerTestHelper.Values;
+import org.brandao.brutos.annotation.web.test.MockAnnotationWebApplicationContext;
+import org.brandao.brutos.mapping.BeanEncoderException;
+import org.brandao.brutos.mapping.CollectionBean;
+import org.brandao.brutos.mapping.ResultAction;
+import org.brandao.brutos.mapping.UseBeanData;
+import org.brandao.brutos.web.BrutosWebConstants;
+import org.brandao.brutos.web.ConfigurableWebApplicationContext;
+import org.brandao.brutos.web.ContextLoader;
+import org.brandao.brutos.web.WebMvcRequest;
+import org.brandao.brutos.web.test.BasicWebApplicationTester;
+import org.brandao.brutos.web.test.WebApplicationContextTester;
+
+/*
+ * Compara a saída dos codificadores criados pela fábrica com a saída do 
+ * JsonBeanEncoder, que percorre o mapeamento.
+ */
+public class JsonBeanSerializerFactoryTest extends TestCase{
+
+	//Item.parent usa o próprio mapeamento de Item.
+	public void testRecursiveBean(){
+		this.check("/item",
+				Values.item(), Values.itemWithNulls(), null);
+	}
+
+	public void testEmptyBean(){
+		this.check("/empty",
+				new Empty(), null);
+	}
+
+	public void testCollectionOfBeans(){
+		this.check("/children",
+				Values.children(), new ArrayList<Child>(), Arrays.asList((Child)null), null);
+	}
+
+	public void testCollectionOfValues(){
+		this.check("/tags",
+				Values.tags(), Arrays.asList("a", null), new ArrayList<String>(), null);
+	}
+
+	private void check(String uri, final Object ... values){
+		WebApplicationContextTester.run(
+			uri, 
+			new BasicWebApplicationTester(){
+
+                public void prepareContext(Map<String, String> parameters) {
+                    parameters.put(
+                            ContextLoader.CONTEXT_CLASS,
+                            MockAnnotationWebApplicationContext.class.getName()
+                    );
+
+                    parameters.put(
+                            MockAnnotationWebApplicationContext.IGNORE_RESOURCES,
+                            "true"
+                    );
+                }
+
+				public void checkResult(HttpServletRequest request,
+						HttpServletResponse response, ServletContext context,
+						ConfigurableWebApplicationContext applicationContext) {
+
+					WebMvcRequest webRequest = 
+							(WebMvcRequest)request.getAttribute(BrutosWebConstants.REQUEST);
+					ResultAction resultAction = 
+							webRequest.getResourceAction().getMethodForm().getResultAction();
+					JsonBeanSerializerFactory factory = new JsonBeanSerializerFactory();
+
+					assertEquals(
+						encode(resultAction, request.getAttribute("result"), null),
+						encode(resultAction, request.getAttribute("result"), factory));
+
+					for(Object value: values){
+						assertEquals(
+							encode(resultAction, value, null),
+							encode(resultAction, value, factory));
+					}
+
+					UseBeanData entity = getEntity(resultAction);
+					
+					//o resultado foi codificado pelo codificador da fábrica.
+					assertNotNull(factory.getSerializer(entity));
+					
+					if(entity.getMapping() instanceof CollectionBean){
+						CollectionBean bean = (CollectionBean)entity.getMapping();
+						
+						for(Object value: values){
+							if(value == null){
+								continue;
+							}
+							
+							for(Object e: (Collection<?>)value){
+								assertEquals(
+									encodeElement(bean, e, null),
+									encodeElement(bean, e, factory));
+							}
+						}
+						
+						assertNotNull(factory.getElementSerializer(bean));
+					}
+				}
+
+				public void checkException(Throwable e) {
+					throw new RuntimeException(e);
+				}
+
+			}, 
+			new Class[]{ControllerTest.class}
+		);
+	}
+
+	private static String encode(ResultAction resultAction, Object value, 
+			JsonBeanSerializerFactory factory){
+		StringWriter out = new StringWriter();
+
+		try{
+			resultAction.encode(new RecordingEncoder(out, factory), value);
+		}
+		catch(Throwable e){
+			throw new RuntimeException(e);
+		}
+
+		return out.toString();
+	}
+
+	private static String encodeElement(CollectionBean bean, Object value, 
+			JsonBeanSerializerFactory factory){
+		StringWriter out = new StringWriter();
+
+		try{
+			new JsonBeanEncoder(out, factory).encodeElement(bean, value);
+		}
+		catch(Throwable e){
+			throw new RuntimeException(e);
+		}
+
+		return out.toString();
+	}
+
+	private static UseBeanData getEntity(ResultAction resultAction){
+		RecordingEncoder encoder = new RecordingEncoder(new StringWriter(), null);
+
+		try{
+			resultAction.encode(encoder, null);
+		}
+		catch(Throwable e){
+			throw new RuntimeException(e);
+		}
+
+		return encoder.entity;
+	}
+
+	/*
+	 * Registra o mapeamento informado pelo resultado da ação.
+	 */
+	private static class RecordingEncoder extends JsonBeanEncoder{
+
+		private UseBeanData entity;
+
+		public RecordingEncoder(Writer writer, JsonBeanSerializerFactory factory){
+			super(writer, factory);
+		}
+
+		public void encode(UseBeanData entity, Object value) throws BeanEncoderException{
+			this.entity = entity;
+			super.encode(entity, value);
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.brandao.brutos.web.bean;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class MetaBeanIndexTest extends TestCase{
+
+	private MetaBeanIndex.MetaValue animal;
+	
+	private MetaBeanIndex.MetaValue named;
+	
+	private MetaBeanIndex.MetaValue dog;
+	
+	private MetaBeanIndex index;
+	
+	public void setUp() throws Exception{
+		this.animal = new MetaBeanIndex.MetaValue("animal", null);
+		this.named  = new MetaBeanIndex.MetaValue("named", null);
+		this.dog    = new MetaBeanIndex.MetaValue("dog", null);
+		
+		Map<Class<?>, MetaBeanIndex.MetaValue> declared = 
+				new HashMap<Class<?>, MetaBeanIndex.MetaValue>();
+		
+		declared.put(Animal.class, this.animal);
+		declared.put(Named.class, this.named);
+		declared.put(Dog.class, this.dog);
+		
+		this.index = new MetaBeanIndex(declared.size(), declared);
+	}
+	
+	public void testExact(){
+		assertSame(this.dog, this.index.get(Dog.class));
+		assertSame(this.animal, this.index.get(Animal.class));
+	}
+	
+	public void testSubclass(){
+		assertSame(this.dog, this.index.get(Puppy.class));
+		assertSame(this.animal, this.index.get(Cat.class));
+	}
+	
+	public void testInterface(){
+		assertSame(this.named, this.index.get(Person.class));
+		assertSame(this.named, this.index.get(Employee.class));
+	}
+	
+	//a interface declarada na classe é mais próxima que a superclasse.
+	public void testNearest(){
+		assertSame(this.named, this.index.get(NamedCat.class));
+	}
+	
+	public void testMiss(){
+		assertNull(this.index.get(String.class));
+		assertNull(this.index.get(String.class));
+		assertNull(this.index.get(Serializable.class));
+	}
+	
+	public static interface Named{
+	}
+	
+	public static interface Titled extends Named{
+	}
+	
+	public static class Animal{
+	}
+	
+	public static class Dog extends Animal{
+	}
+	
+	public static class Puppy extends Dog{
+	}
+	
+	public static class Cat extends Animal{
+	}
+	
+	public static class NamedCat extends Cat implements Named{
+	}
+	
+	public static class Person implements Named{
+	}
+	
+	public static class Employee implements Titled{
+	}
+	
+}
@@ -0,0 +1,428 @@
+package org.brandao.brutos.web.http.view;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.MutableMvcResponse;
+import org.brandao.brutos.MvcRequest;
+import org.brandao.brutos.RenderViewType;
+import org.brandao.brutos.RequestInstrument;
+import org.brandao.brutos.StackRequest;
+import org.brandao.brutos.StackRequestElement;
+import org.brandao.brutos.web.BrutosWebConstants;
+import org.brandao.brutos.web.RequestContext;
+
+public class AsyncRenderViewTypeTest extends TestCase{
+
+	private ExecutorService executor;
+
+	private Mock servletRequest;
+
+	private Mock asyncContext;
+
+	private Mock servletResponse;
+
+	private Mock view;
+
+	private Mock response;
+
+	private RequestContext context;
+
+	private CountDownLatch completed;
+
+	private volatile Thread renderThread;
+
+	private volatile RequestContext renderContext;
+
+	public void setUp() throws Exception{
+		this.executor        = Executors.newSingleThreadExecutor();
+		this.completed       = new CountDownLatch(1);
+		this.servletResponse = new Mock();
+		this.asyncContext    = new Mock();
+		this.view            = new Mock();
+		this.response        = new Mock();
+
+		this.asyncContext.answer("getResponse",
+				this.servletResponse.create(HttpServletResponse.class));
+		this.asyncContext.answer("complete", new Answer(){
+
+			public Object answer(Object[] args) {
+				completed.countDown();
+				return null;
+			}
+
+		});
+
+		this.view.answer("show", new Answer(){
+
+			public Object answer(Object[] args) {
+				renderThread  = Thread.currentThread();
+				renderContext = RequestContext.getCurrent();
+				return null;
+			}
+
+		});
+
+		this.servletRequest = new Mock();
+		this.servletRequest.answer("isAsyncSupported", Boolean.TRUE);
+		this.servletRequest.answer("startAsync", this.asyncContext.create(AsyncContext.class));
+
+		this.context = new RequestContext(
+				this.servletRequest.create(HttpServletRequest.class), null, null, null);
+	}
+
+	public void tearDown() throws Exception{
+		this.executor.shutdownNow();
+	}
+
+	public void testRenderOnExecutorThread() throws Exception{
+		this.show(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return "value";
+			}
+
+		}, this.executor, 0);
+
+		this.awaitExecutor();
+
+		assertNotNull(this.renderThread);
+		assertNotSame(Thread.currentThread(), this.renderThread);
+		assertSame(this.context, this.renderContext);
+		assertEquals("value", this.response.lastArgs("setResult")[0]);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(0, this.servletResponse.count("sendError"));
+	}
+
+	public void testFailure() throws Exception{
+		this.show(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				throw new IllegalStateException();
+			}
+
+		}, this.executor, 0);
+
+		this.awaitExecutor();
+
+		assertNull(this.renderThread);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(
+			Integer.valueOf(HttpServletResponse.SC_INTERNAL_SERVER_ERROR),
+			this.servletResponse.lastArgs("sendError")[0]);
+	}
+
+	public void testRejected() throws Exception{
+		Executor rejected = new Executor(){
+
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+
+		};
+
+		this.show(new FutureTask<Object>(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return "value";
+			}
+
+		}), rejected, 0);
+
+		assertNull(this.renderThread);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(
+			Integer.valueOf(HttpServletResponse.SC_SERVICE_UNAVAILABLE),
+			this.servletResponse.lastArgs("sendError")[0]);
+	}
+
+	public void testExecutorFailure() throws Exception{
+		Executor failed = new Executor(){
+
+			public void execute(Runnable command) {
+				throw new IllegalStateException();
+			}
+
+		};
+
+		this.show(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return "value";
+			}
+
+		}, failed, 0);
+
+		assertNull(this.renderThread);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(
+			Integer.valueOf(HttpServletResponse.SC_INTERNAL_SERVER_ERROR),
+			this.servletResponse.lastArgs("sendError")[0]);
+	}
+
+	public void testExecutorUnavailable() throws Exception{
+		try{
+			this.show(new Callable<Object>(){
+
+				public Object call() throws Exception {
+					return "value";
+				}
+
+			}, null, 0, new IllegalStateException());
+			fail();
+		}
+		catch(IllegalStateException e){
+		}
+
+		//a requisição não foi iniciada e é encerrada pelo servidor.
+		assertEquals(0, this.servletRequest.count("startAsync"));
+	}
+
+	public void testTimeout() throws Exception{
+		FutureTask<Object> result = new FutureTask<Object>(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return "value";
+			}
+
+		});
+
+		this.show(result, this.executor, 1000);
+
+		assertEquals(Long.valueOf(1000), this.asyncContext.lastArgs("setTimeout")[0]);
+
+		AsyncListener listener = (AsyncListener)this.asyncContext.lastArgs("addListener")[0];
+		AsyncEvent event       = new AsyncEvent(this.asyncContext.<AsyncContext>proxy());
+
+		listener.onTimeout(event);
+		listener.onTimeout(event);
+		listener.onError(event);
+
+		this.awaitExecutor();
+
+		assertTrue(result.isCancelled());
+		assertTrue(this.context.isCancelled());
+		assertNull(this.renderThread);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(1, this.servletResponse.count("sendError"));
+		assertEquals(
+			Integer.valueOf(BrutosWebConstants.DEFAULT_ASYNC_TIMEOUT_STATUS),
+			this.servletResponse.lastArgs("sendError")[0]);
+	}
+
+	public void testWithoutTimeout() throws Exception{
+		this.show(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return "value";
+			}
+
+		}, this.executor, 0);
+
+		this.awaitExecutor();
+
+		//zero desativa o prazo padrão do servidor.
+		assertEquals(1, this.asyncContext.count("setTimeout"));
+		assertEquals(Long.valueOf(0), this.asyncContext.lastArgs("setTimeout")[0]);
+		assertNotNull(this.renderThread);
+	}
+
+	public void testErrorBeforeResult() throws Exception{
+		final CountDownLatch release = new CountDownLatch(1);
+
+		this.show(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				release.await();
+				return "value";
+			}
+
+		}, this.executor, 0);
+
+		AsyncListener listener = (AsyncListener)this.asyncContext.lastArgs("addListener")[0];
+		listener.onError(new AsyncEvent(this.asyncContext.<AsyncContext>proxy()));
+		release.countDown();
+
+		this.awaitExecutor();
+
+		assertNull(this.renderThread);
+		assertEquals(1, this.asyncContext.count("complete"));
+		assertEquals(0, this.servletResponse.count("sendError"));
+	}
+
+	private void show(Object result, final Executor executor, final long timeout){
+		this.show(result, executor, timeout, null);
+	}
+
+	private void show(Object result, final Executor executor, final long timeout,
+			final RuntimeException executorFailure){
+		Mock stack        = new Mock();
+		Mock element      = new Mock();
+		Mock instrument   = new Mock();
+		Mock request      = new Mock();
+
+		instrument.answer("getStackRequest", stack.create(StackRequest.class));
+		request.answer("getRequestInstrument", instrument.create(RequestInstrument.class));
+		request.answer("getStackRequestElement", element.create(StackRequestElement.class));
+		this.response.answer("getResult", result);
+
+		AsyncRenderViewType asyncView =
+			new AsyncRenderViewType(this.view.create(RenderViewType.class)){
+
+				protected Executor getExecutor(MvcRequest request){
+					if(executorFailure != null){
+						throw executorFailure;
+					}
+					return executor;
+				}
+
+				protected long getTimeout(MvcRequest request){
+					return timeout;
+				}
+
+			};
+
+		RequestContext previous = this.context.bind();
+		try{
+			asyncView.show(
+				request.create(MvcRequest.class),
+				this.response.create(MutableMvcResponse.class));
+		}
+		finally{
+			RequestContext.restore(previous);
+		}
+	}
+
+	private void awaitExecutor() throws InterruptedException{
+		this.executor.shutdown();
+		assertTrue(this.executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertTrue(this.completed.await(10, TimeUnit.SECONDS));
+	}
+
+	private static interface Answer{
+
+		Object answer(Object[] args);
+
+	}
+
+	/*
+	 * Objeto simulado que registra as chamadas e responde com os valores
+	 * informados.
+	 */
+	private static class Mock implements InvocationHandler{
+
+		private final Map<String, Object> answers;
+
+		private final List<String> calls;
+
+		private final Map<String, Object[]> args;
+
+		private Object proxy;
+
+		public Mock(){
+			this.answers = new HashMap<String, Object>();
+			this.calls   = new ArrayList<String>();
+			this.args    = new HashMap<String, Object[]>();
+		}
+
+		public void answer(String method, Object value){
+			this.answers.put(method, value);
+		}
+
+		public <T> T create(Class<T> type){
+			this.proxy = Proxy.newProxyInstance(
+					type.getClassLoader(), new Class<?>[]{type}, this);
+			return type.cast(this.proxy);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> T proxy(){
+			return (T)this.proxy;
+		}
+
+		public synchronized int count(String method){
+			int count = 0;
+			for(String call: this.calls){
+				if(call.equals(method)){
+					count++;
+				}
+			}
+			return count;
+		}
+
+		public synchronized Object[] lastArgs(String method){
+			return this.args.get(method);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if(method.getDeclaringClass() == Object.class){
+				if(name.equals("equals")){
+					return Boolean.valueOf(proxy == args[0]);
+				}
+				else
+				if(name.equals("hashCode")){
+					return Integer.valueOf(System.identityHashCode(proxy));
+				}
+				else{
+					return "Mock";
+				}
+			}
+
+			synchronized(this){
+				this.calls.add(name);
+				this.args.put(name, args == null? new Object[0] : args);
+			}
+
+			Object value = this.answers.get(name);
+
+			if(value instanceof Answer){
+				return ((Answer)value).answer(args);
+			}
+
+			if(value != null){
+				return value;
+			}
+
+			Class<?> type = method.getReturnType();
+
+			if(type == boolean.class){
+				return Boolean.FALSE;
+			}
+			else
+			if(type == int.class){
+				return Integer.valueOf(0);
+			}
+			else
+			if(type == long.class){
+				return Long.valueOf(0);
+			}
+
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package org.brandao.brutos.web.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class BufferedUTF8WriterTest extends TestCase{
+
+	public void testEncoding() throws Exception{
+		String text = "{ \"name\": \"Ação\", \"symbol\": \"€\", \"emoji\": \"😀\" }";
+
+		CountingStream out        = new CountingStream();
+		BufferedUTF8Writer writer = new BufferedUTF8Writer(out, 4, 1024);
+
+		writer.append(text.substring(0, 10));
+		writer.write(text.toCharArray(), 10, text.length() - 10);
+		writer.flush();
+
+		assertEquals(0, out.writes);
+		assertFalse(writer.isCommitted());
+		assertEquals(text.getBytes("UTF-8").length, writer.getSize());
+
+		writer.close();
+
+		assertEquals(1, out.writes);
+		assertTrue(Arrays.equals(text.getBytes("UTF-8"), out.toByteArray()));
+	}
+
+	public void testSplitSurrogate() throws Exception{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BufferedUTF8Writer writer = new BufferedUTF8Writer(out, 16, 1024);
+
+		writer.write('\ud83d');
+		writer.write('\ude00');
+		writer.write('\ude00');
+		writer.close();
+
+		assertEquals("😀?", new String(out.toByteArray(), "UTF-8"));
+	}
+
+	public void testHighWaterMark() throws Exception{
+		CountingStream out        = new CountingStream();
+		BufferedUTF8Writer writer = new BufferedUTF8Writer(out, 8, 64);
+		StringBuilder text        = new StringBuilder();
+
+		for(int i=0;i<100;i++){
+			text.append("value ").append(i).append(", ");
+		}
+
+		writer.append(text);
+
+		assertTrue(writer.isCommitted());
+		assertTrue(writer.getSize() <= 64);
+
+		writer.close();
+
+		assertTrue(out.writes > 1);
+		assertEquals(text.toString(), new String(out.toByteArray(), "UTF-8"));
+	}
+
+	public void testEncodedBytes() throws Exception{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BufferedUTF8Writer writer = new BufferedUTF8Writer(out, 4, 8);
+
+		writer.write("{ ");
+		writer.writeUTF8("\"descrição\": ".getBytes("UTF-8"));
+		writer.write("1 }");
+		writer.close();
+
+		assertEquals("{ \"descrição\": 1 }", new String(out.toByteArray(), "UTF-8"));
+	}
+
+	public void testClosed() throws Exception{
+		BufferedUTF8Writer writer = 
+				new BufferedUTF8Writer(new ByteArrayOutputStream(), 8, 64);
+
+		writer.discard();
+
+		try{
+			writer.append("a");
+			fail();
+		}
+		catch(IOException e){
+		}
+	}
+
+	private static class CountingStream extends ByteArrayOutputStream{
+
+		public int writes;
+
+		public synchronized void write(byte[] b, int off, int len) {
+			this.writes++;
+			super.write(b, off, len);
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.brandao.brutos.web.mapping;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.brandao.brutos.DataType;
+import org.brandao.brutos.web.AcceptHeader;
+import org.brandao.brutos.web.MediaType;
+
+import junit.framework.TestCase;
+
+public class MediaTypeMapTest extends TestCase{
+
+	private MediaTypeMap create(String ... types){
+		MediaTypeMap map = new MediaTypeMap();
+		for(String type: types){
+			map.add(MediaType.valueOf(type));
+		}
+		return map;
+	}
+
+	public void testQuality() throws Exception{
+		MediaTypeMap map = this.create("text/html", "application/json");
+
+		assertEquals(MediaType.APPLICATION_JSON, 
+			map.getMatch(AcceptHeader.parse("text/html;q=0.5, application/json")));
+		assertEquals(MediaType.TEXT_HTML, 
+			map.getMatch(AcceptHeader.parse("text/html, application/json")));
+	}
+
+	public void testSpecificity() throws Exception{
+		MediaTypeMap map = this.create("text/html", "text/plain");
+
+		//text/html recebe o q do tipo mais específico do cliente.
+		assertEquals(MediaType.TEXT_PLAIN, 
+			map.getMatch(AcceptHeader.parse("text/*, text/html;q=0.1")));
+	}
+
+	public void testNotAcceptable() throws Exception{
+		MediaTypeMap map = this.create("application/json");
+
+		assertNull(map.getMatch(AcceptHeader.parse("text/html, image/*")));
+		assertEquals(MediaType.APPLICATION_JSON, map.getMatch(AcceptHeader.parse("*/*")));
+	}
+
+	public void testExclusion() throws Exception{
+		MediaTypeMap map = this.create("text/html", "application/json");
+
+		//text/html;q=0 prevalece sobre */*.
+		assertEquals(MediaType.APPLICATION_JSON, 
+			map.getMatch(AcceptHeader.parse("text/html;q=0, */*")));
+		assertNull(this.create("text/html").getMatch(
+			AcceptHeader.parse("text/html;q=0, */*")));
+		assertNull(this.create("text/html").getMatch(
+			AcceptHeader.parse("text/*;q=0, */*")));
+		assertEquals(MediaType.TEXT_HTML, this.create("text/html").getMatch(
+			AcceptHeader.parse("text/*;q=0, text/html")));
+
+		//um tipo com curinga não seleciona o tipo excluído.
+		assertEquals(MediaType.TEXT_PLAIN, this.create("text/*").getMatch(
+			AcceptHeader.parse("text/html;q=0, text/plain;q=0.5")));
+		assertNull(this.create("text/*").getMatch(
+			AcceptHeader.parse("text/html;q=0")));
+	}
+
+	public void testRange() throws Exception{
+		MediaTypeMap map = this.create("text/*");
+
+		assertEquals(MediaType.TEXT_PLAIN, 
+			map.getMatch(AcceptHeader.parse("application/json, text/plain;q=0.5")));
+		assertNull(map.getMatch(AcceptHeader.parse("application/json")));
+	}
+
+	public void testEmptyAccept() throws Exception{
+		MediaTypeMap map = this.create("application/json", "text/html");
+		List<DataType> empty = Collections.emptyList();
+
+		assertEquals(MediaType.APPLICATION_JSON, map.getMatch(empty));
+	}
+
+	public void testNegotiationCache() throws Exception{
+		MediaTypeMap map      = this.create("application/json");
+		List<DataType> accept = AcceptHeader.parse("application/json");
+
+		assertSame(map.getMatch(accept), map.getMatch(accept));
+
+		map.add(MediaType.TEXT_HTML);
+		assertEquals(MediaType.TEXT_HTML, map.getMatch(AcceptHeader.parse("text/html")));
+	}
+
+}
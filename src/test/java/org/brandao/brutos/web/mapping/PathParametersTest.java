@@ -0,0 +1,84 @@
+package org.brandao.brutos.web.mapping;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.web.RequestMethodType;
+import org.brandao.brutos.web.StringPattern;
+
+public class PathParametersTest extends TestCase{
+
+	public void testMerge() throws Exception{
+		PathParameters user  = create("{user}", "john");
+		PathParameters order = create("{order:long}", Long.valueOf(7));
+		PathParameters r     = user.merge(order);
+
+		assertEquals(2, r.size());
+		assertEquals("john", r.getValue("user"));
+		assertEquals(Long.valueOf(7), r.getValue("order"));
+		assertEquals(
+			new LinkedHashSet<String>(Arrays.asList("user", "order")),
+			r.getNames());
+	}
+
+	public void testMergeEmpty() throws Exception{
+		PathParameters user = create("{user}", "john");
+
+		assertSame(user, user.merge(null));
+		assertSame(user, user.merge(create("users", new Object[0])));
+	}
+
+	/*
+	 * Os valores são juntados do segmento mais profundo para o mais raso.
+	 * Se o nome se repete, vale o valor do segmento mais raso.
+	 */
+	public void testShallowerSegmentWins() throws Exception{
+		PathParameters users  = create("{id}", "1");
+		PathParameters orders = create("{id}", "2");
+		PathParameters r      = users.merge(orders);
+
+		assertEquals(1, r.size());
+		assertEquals("1", r.getValue("id"));
+		assertEquals(Arrays.asList((Object)"1"), r.getValues("id"));
+	}
+
+	public void testShallowerSegmentWinsInTree() throws Exception{
+		RequestMappingTree tree   = new TrieRequestMappingTree();
+		RequestMappingEntry entry = 
+				new RequestMappingEntry(RequestMethodType.GET, null, null);
+		tree.add("/users/{id}/orders/{id}", entry);
+
+		PathParameters r = 
+				tree.get("/users/1/orders/2", RequestMethodType.GET).getParameters();
+		assertEquals("1", r.getValue("id"));
+		assertEquals(Arrays.asList((Object)"1"), r.getValues("id"));
+	}
+
+	public void testMergeKeepsInstances() throws Exception{
+		PathParameters user  = create("{user}", "john");
+		PathParameters order = create("{order}", "7");
+		user.merge(order);
+
+		assertEquals(1, user.size());
+		assertNull(user.getValue("order"));
+		assertEquals(1, order.size());
+		assertNull(order.getValue("user"));
+	}
+
+	public void testSegmentWithSeveralValues() throws Exception{
+		PathParameters r = create("{id}-{id}", new Object[]{"1", "2"});
+
+		assertEquals("1", r.getValue("id"));
+		assertEquals(Arrays.asList((Object)"1", "2"), r.getValues("id"));
+		assertNull(r.getValues("name"));
+		assertFalse(r.contains("name"));
+	}
+
+	private static PathParameters create(String pattern, Object ... values)
+			throws Exception{
+		return new PathParameters(new StringPattern(pattern), values);
+	}
+
+}
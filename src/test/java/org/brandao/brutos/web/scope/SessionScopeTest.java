@@ -0,0 +1,237 @@
+package org.brandao.brutos.web.scope;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import junit.framework.TestCase;
+
+import org.brandao.brutos.annotation.web.test.MockAnnotationWebApplicationContext;
+import org.brandao.brutos.scope.Scope;
+import org.brandao.brutos.web.ConfigurableWebApplicationContext;
+import org.brandao.brutos.web.ContextLoader;
+import org.brandao.brutos.web.RequestContext;
+import org.brandao.brutos.web.WebScopeType;
+import org.brandao.brutos.web.test.BasicWebApplicationTester;
+import org.brandao.brutos.web.test.WebApplicationContextTester;
+
+/*
+ * As consultas e remoções dos escopos da sessão não podem criar a sessão.
+ * A requisição falha se a sessão for criada sem ser permitido.
+ */
+public class SessionScopeTest extends TestCase{
+
+	public void testSessionScopeWithoutSession(){
+		this.checkWithoutSession(new SessionScope());
+	}
+
+	public void testSessionScopePutCreatesSession(){
+		this.checkPut(new SessionScope());
+	}
+
+	public void testFlashScopeWithoutSession(){
+		this.runWithScope(new ScopeCheck(){
+
+			public void check(Scope flash){
+				checkWithoutSession(flash);
+			}
+
+		});
+	}
+
+	public void testFlashScopePutCreatesSession(){
+		this.runWithScope(new ScopeCheck(){
+
+			public void check(Scope flash){
+				checkPut(flash);
+			}
+
+		});
+	}
+
+	private void checkWithoutSession(Scope scope){
+		SessionRequest request  = new SessionRequest();
+		RequestContext previous =
+				new RequestContext(request.create(), null, null, null).bind();
+
+		try{
+			assertNull(scope.get("name"));
+			scope.remove("name");
+			assertTrue(scope.getNamesStartsWith("na").isEmpty());
+			assertEquals(0, request.created);
+		}
+		finally{
+			RequestContext.restore(previous);
+		}
+	}
+
+	private void checkPut(Scope scope){
+		SessionRequest request  = new SessionRequest();
+		RequestContext previous =
+				new RequestContext(request.create(), null, null, null).bind();
+
+		try{
+			request.allowCreate = true;
+			scope.put("name", "value");
+			assertEquals(1, request.created);
+
+			//com a sessão criada, as consultas usam a sessão existente.
+			request.allowCreate = false;
+			assertEquals(Arrays.asList("name"), scope.getNamesStartsWith("na"));
+			assertEquals("value", scope.get("name"));
+
+			scope.remove("name");
+			assertNull(scope.get("name"));
+			assertEquals(1, request.created);
+		}
+		finally{
+			RequestContext.restore(previous);
+		}
+	}
+
+	/*
+	 * O escopo flash é obtido da aplicação, que usa o seu escopo da sessão.
+	 */
+	private void runWithScope(final ScopeCheck check){
+		WebApplicationContextTester.run(
+			"/",
+			new BasicWebApplicationTester(){
+
+                public void prepareContext(Map<String, String> parameters) {
+                    parameters.put(
+                            ContextLoader.CONTEXT_CLASS,
+                            MockAnnotationWebApplicationContext.class.getName()
+                    );
+
+                    parameters.put(
+                            MockAnnotationWebApplicationContext.IGNORE_RESOURCES,
+                            "true"
+                    );
+                }
+
+				public void checkResult(HttpServletRequest request,
+						HttpServletResponse response, ServletContext context,
+						ConfigurableWebApplicationContext applicationContext) {
+					check.check(applicationContext.getScopes().get(WebScopeType.FLASH));
+				}
+
+				public void checkException(Throwable e) {
+					throw new RuntimeException(e);
+				}
+
+			},
+			new Class<?>[]{}
+		);
+	}
+
+	private static interface ScopeCheck{
+
+		void check(Scope scope);
+
+	}
+
+	/*
+	 * Requisição que somente cria a sessão quando permitido.
+	 */
+	private static class SessionRequest implements InvocationHandler{
+
+		public boolean allowCreate;
+
+		public int created;
+
+		private HttpSession session;
+
+		private final Map<String, Object> attributes;
+
+		public SessionRequest(){
+			this.attributes = new HashMap<String, Object>();
+		}
+
+		public HttpServletRequest create(){
+			return (HttpServletRequest)Proxy.newProxyInstance(
+					HttpServletRequest.class.getClassLoader(),
+					new Class<?>[]{HttpServletRequest.class},
+					this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if(name.equals("getSession")){
+				boolean create = args == null || ((Boolean)args[0]).booleanValue();
+
+				if(this.session == null && create){
+					if(!this.allowCreate){
+						throw new IllegalStateException("session created");
+					}
+
+					this.session = this.createSession();
+					this.created++;
+				}
+
+				return this.session;
+			}
+			else
+			if(name.equals("hashCode")){
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			else
+			if(name.equals("equals")){
+				return Boolean.valueOf(proxy == args[0]);
+			}
+
+			return null;
+		}
+
+		private HttpSession createSession(){
+			return (HttpSession)Proxy.newProxyInstance(
+					HttpSession.class.getClassLoader(),
+					new Class<?>[]{HttpSession.class},
+					new InvocationHandler(){
+
+						public Object invoke(Object proxy, Method method,
+								Object[] args) throws Throwable {
+							String name = method.getName();
+
+							if(name.equals("getAttribute")){
+								return attributes.get(args[0]);
+							}
+							else
+							if(name.equals("setAttribute")){
+								attributes.put((String)args[0], args[1]);
+							}
+							else
+							if(name.equals("removeAttribute")){
+								attributes.remove(args[0]);
+							}
+							else
+							if(name.equals("getAttributeNames")){
+								return Collections.enumeration(attributes.keySet());
+							}
+							else
+							if(name.equals("hashCode")){
+								return Integer.valueOf(System.identityHashCode(proxy));
+							}
+							else
+							if(name.equals("equals")){
+								return Boolean.valueOf(proxy == args[0]);
+							}
+
+							return null;
+						}
+
+					});
+		}
+
+	}
+
+}
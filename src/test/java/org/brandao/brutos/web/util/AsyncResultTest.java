@@ -0,0 +1,164 @@
+package org.brandao.brutos.web.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+public class AsyncResultTest extends TestCase{
+
+	private static final Executor executor = new Executor(){
+
+		public void execute(Runnable command) {
+			new Thread(command).start();
+		}
+
+	};
+
+	public void testIsAsync() throws Exception{
+		assertTrue(AsyncResult.isAsync(new FutureTask<Object>(callable("a"))));
+		assertTrue(AsyncResult.isAsync(callable("a")));
+		assertFalse(AsyncResult.isAsync("a"));
+		assertFalse(AsyncResult.isAsync(null));
+	}
+
+	public void testCallable() throws Throwable{
+		assertEquals("a", AsyncResult.get(callable("a")));
+
+		Result result = new Result();
+		AsyncResult.subscribe(callable("b"), executor, result);
+		assertEquals("b", result.await());
+	}
+
+	public void testFailure() throws Throwable{
+		FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				throw new IllegalStateException("fail");
+			}
+
+		});
+
+		task.run();
+
+		try{
+			AsyncResult.get(task);
+			fail();
+		}
+		catch(IllegalStateException e){
+		}
+
+		Result result = new Result();
+		AsyncResult.subscribe(task, executor, result);
+		result.await();
+		assertTrue(result.error instanceof IllegalStateException);
+	}
+
+	public void testCompletionStage() throws Exception{
+		Class<?> type;
+
+		try{
+			type = Class.forName("java.util.concurrent.CompletableFuture");
+		}
+		catch(ClassNotFoundException e){
+			return;
+		}
+
+		Object future = type.newInstance();
+		assertTrue(AsyncResult.isAsync(future));
+
+		Result result = new Result();
+		AsyncResult.subscribe(future, executor, result);
+		assertEquals(1, result.latch.getCount());
+
+		type.getMethod("complete", Object.class).invoke(future, "c");
+		assertEquals("c", result.await());
+	}
+
+	public void testTimeout() throws Throwable{
+		FutureTask<Object> task = new FutureTask<Object>(callable("a"));
+
+		try{
+			AsyncResult.get(task, 10);
+			fail();
+		}
+		catch(TimeoutException e){
+		}
+
+		assertTrue(task.isCancelled());
+
+		task = new FutureTask<Object>(callable("b"));
+		task.run();
+		assertEquals("b", AsyncResult.get(task, 10));
+	}
+
+	public void testCancelCallable() throws Throwable{
+		final CountDownLatch started = new CountDownLatch(1);
+
+		Callable<Object> callable = new Callable<Object>(){
+
+			public Object call() throws Exception {
+				started.countDown();
+				Thread.sleep(10000);
+				return "a";
+			}
+
+		};
+
+		Result result    = new Result();
+		Future<?> future = AsyncResult.subscribe(callable, executor, result);
+
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		future.cancel(true);
+
+		result.await();
+		assertNotNull(result.error);
+	}
+
+	public void testUnwrap() throws Exception{
+		IllegalStateException e = new IllegalStateException();
+		assertSame(e, AsyncResult.unwrap(new ExecutionException(e)));
+	}
+
+	private static Callable<Object> callable(final Object value){
+		return new Callable<Object>(){
+
+			public Object call() throws Exception {
+				return value;
+			}
+
+		};
+	}
+
+	private static class Result implements AsyncResult.Listener{
+
+		public final CountDownLatch latch = new CountDownLatch(1);
+
+		public volatile Object value;
+
+		public volatile Throwable error;
+
+		public void onSuccess(Object value) {
+			this.value = value;
+			this.latch.countDown();
+		}
+
+		public void onFailure(Throwable e) {
+			this.error = e;
+			this.latch.countDown();
+		}
+
+		public Object await() throws InterruptedException{
+			assertTrue(this.latch.await(5, TimeUnit.SECONDS));
+			return this.value;
+		}
+
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.brandao.brutos.web.util;
+
+import junit.framework.TestCase;
+
+public class FrequencySketchTest extends TestCase{
+
+	public void testIncrement() throws Exception{
+		FrequencySketch sketch = new FrequencySketch(100);
+
+		assertEquals(0, sketch.frequency("/a"));
+
+		sketch.increment("/a");
+		sketch.increment("/a");
+		sketch.increment("/b");
+
+		assertEquals(2, sketch.frequency("/a"));
+		assertEquals(1, sketch.frequency("/b"));
+	}
+
+	public void testMaxFrequency() throws Exception{
+		FrequencySketch sketch = new FrequencySketch(100);
+
+		for(int i=0;i<100;i++){
+			sketch.increment("/a");
+		}
+
+		assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("/a"));
+	}
+
+	public void testReset() throws Exception{
+		FrequencySketch sketch = new FrequencySketch(16);
+
+		for(int i=0;i<8;i++){
+			sketch.increment("/a");
+		}
+
+		//uma varredura de chaves únicas reduz a frequência das antigas.
+		for(int i=0;i<160;i++){
+			sketch.increment("/scan/" + i);
+		}
+
+		assertTrue(sketch.frequency("/a") < 8);
+		assertTrue(sketch.frequency("/scan/159") <= 2);
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.brandao.brutos.web.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.brandao.brutos.BrutosException;
+
+import junit.framework.TestCase;
+
+public class JsonStreamReaderTest extends TestCase{
+
+	@SuppressWarnings("unchecked")
+	public void testObject() throws Exception{
+		String json = 
+			"{ \"name\": \"Jos\\u00e9 \\\"A\\\"\", \"active\": true, \"parent\": null, " +
+			"\"tags\": [ \"a\", \"b\" ], \"address\": { \"city\": \"Rio\" }, \"age\": 10 }";
+
+		Map<String, Object> value = 
+			(Map<String, Object>)new JsonStreamReader(
+				new ByteArrayInputStream(json.getBytes("UTF-8")), "UTF-8").read();
+
+		assertEquals("José \"A\"", value.get("name"));
+		assertEquals(Boolean.TRUE, value.get("active"));
+		assertNull(value.get("parent"));
+		assertTrue(value.containsKey("parent"));
+		assertNull(value.get("unknown"));
+		assertNotNull(value.get("age"));
+		assertEquals(6, value.size());
+
+		List<Object> tags = (List<Object>)value.get("tags");
+		assertEquals(2, tags.size());
+		assertEquals("b", tags.get(1));
+
+		Map<String, Object> address = (Map<String, Object>)value.get("address");
+		assertEquals("Rio", address.get("city"));
+
+		Iterator<String> names = value.keySet().iterator();
+		assertEquals("name", names.next());
+		assertEquals("active", names.next());
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testDuplicateName() throws Exception{
+		Map<String, Object> value = 
+			(Map<String, Object>)new JsonStreamReader("{ \"a\": \"1\", \"a\": \"2\" }").read();
+
+		assertEquals("2", value.get("a"));
+		assertEquals(1, value.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testLargeObject() throws Exception{
+		StringBuilder json = new StringBuilder("{");
+
+		for(int i=0;i<100;i++){
+			json.append(i == 0? "" : ",").append("\"f").append(i).append("\": \"v").append(i).append("\"");
+		}
+
+		Map<String, Object> value = 
+			(Map<String, Object>)new JsonStreamReader(json.append("}").toString()).read();
+
+		assertEquals("v0", value.get("f0"));
+		assertEquals("v99", value.get("f99"));
+		assertNull(value.get("f100"));
+		assertEquals(100, value.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testNested() throws Exception{
+		String json = 
+			"[ { \"a\": [ [ 1 ], { \"b\": [] } ], \"c\": { \"d\": \"]}\" } }, " +
+			"[ [ [ \"x\" ] ] ], 2 ]";
+
+		List<Object> value = (List<Object>)new JsonStreamReader(json).read();
+		assertEquals(3, value.size());
+
+		Map<String, Object> first = (Map<String, Object>)value.get(0);
+		List<Object> a            = (List<Object>)first.get("a");
+		assertEquals(2, a.size());
+		assertTrue(((Map<String, Object>)a.get(1)).containsKey("b"));
+		assertEquals("]}", ((Map<String, Object>)first.get("c")).get("d"));
+
+		List<Object> second = (List<Object>)value.get(1);
+		assertEquals("x", ((List<Object>)((List<Object>)second.get(0)).get(0)).get(0));
+		assertNotNull(value.get(2));
+	}
+
+	public void testContentLength() throws Exception{
+		StringBuilder json = new StringBuilder("[");
+
+		for(int i=0;i<5000;i++){
+			json.append(i == 0? "" : ",").append("\"\u00e9\"");
+		}
+
+		byte[] data = json.append("]").toString().getBytes("UTF-8");
+
+		List<?> exact = (List<?>)new JsonStreamReader(
+				new ByteArrayInputStream(data), "UTF-8", data.length).read();
+		List<?> unknown = (List<?>)new JsonStreamReader(
+				new ByteArrayInputStream(data), "UTF-8").read();
+
+		assertEquals(5000, exact.size());
+		assertEquals(5000, unknown.size());
+		assertEquals("\u00e9", exact.get(4999));
+	}
+
+	public void testDeclaredLengthLargerThanContent() throws Exception{
+		byte[] data = "[ 1, 2 ]".getBytes("UTF-8");
+
+		List<?> value = (List<?>)new JsonStreamReader(
+				new ByteArrayInputStream(data), "UTF-8", Integer.MAX_VALUE).read();
+		assertEquals(2, value.size());
+
+		value = (List<?>)new JsonStreamReader(
+				new ByteArrayInputStream(data), "UTF-8", 2000000000).read();
+		assertEquals(2, value.size());
+	}
+
+	public void testEmpty() throws Exception{
+		assertNull(new JsonStreamReader("  ").read());
+		assertEquals(0, ((List<?>)new JsonStreamReader("[]").read()).size());
+		assertTrue(((Map<?,?>)new JsonStreamReader("{ }").read()).isEmpty());
+	}
+
+	public void testInvalid() throws Exception{
+		String[] values = {
+			"{", "{\"a\" 1}", "{\"a\": 1,}", "[1 2]", "\"abc", "tru", 
+			"01", "-", "1.", "{\"a\": \"\\x\"}", "[1] 2", "{a: 1}"
+		};
+
+		for(String value: values){
+			try{
+				new JsonStreamReader(value).read();
+				fail(value);
+			}
+			catch(BrutosException e){
+			}
+		}
+	}
+
+	public void testDepth() throws Exception{
+		StringBuilder json = new StringBuilder();
+
+		for(int i=0;i<=JsonStreamReader.MAX_DEPTH;i++){
+			json.append('[');
+		}
+
+		try{
+			new JsonStreamReader(json.toString()).read();
+			fail();
+		}
+		catch(BrutosException e){
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package org.brandao.brutos.web.util;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+public class PrioritySchedulerTest extends TestCase{
+
+	public void testQueueLimit() throws Exception{
+		PriorityScheduler scheduler = new PriorityScheduler("test", 1, PriorityScheduler.WEIGHTED, 10);
+		scheduler.addClass("reports", 1, 2);
+
+		CountDownLatch release = this.block(scheduler);
+
+		scheduler.execute("reports", new Task(null, "r"));
+		scheduler.execute("reports", new Task(null, "r"));
+
+		try{
+			scheduler.execute("reports", new Task(null, "r"));
+			fail();
+		}
+		catch(RejectedExecutionException e){
+		}
+
+		//as demais classes não são afetadas.
+		scheduler.execute("unknown", new Task(null, "d"));
+
+		assertEquals(2, scheduler.getQueueSize("reports"));
+		assertEquals(1, scheduler.getQueueSize(PriorityScheduler.DEFAULT_CLASS));
+		assertEquals(1, scheduler.getRejectedCount("reports"));
+
+		release.countDown();
+		scheduler.shutdown();
+	}
+
+	public void testStrict() throws Exception{
+		PriorityScheduler scheduler = new PriorityScheduler("test", 1, PriorityScheduler.STRICT, 10);
+		scheduler.addClass("checkout", 10, 10);
+		scheduler.addClass("reports", 1, 10);
+
+		List<String> order     = new CopyOnWriteArrayList<String>();
+		CountDownLatch done    = new CountDownLatch(6);
+		CountDownLatch release = this.block(scheduler);
+
+		for(int i=0;i<3;i++){
+			scheduler.execute("reports", new Task(order, "r", done));
+		}
+
+		for(int i=0;i<3;i++){
+			scheduler.execute("checkout", new Task(order, "c", done));
+		}
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals("[c, c, c, r, r, r]", order.toString());
+		scheduler.shutdown();
+	}
+
+	public void testWeighted() throws Exception{
+		PriorityScheduler scheduler = new PriorityScheduler("test", 1, PriorityScheduler.WEIGHTED, 10);
+		scheduler.addClass("checkout", 3, 10);
+		scheduler.addClass("reports", 1, 10);
+
+		List<String> order     = new CopyOnWriteArrayList<String>();
+		CountDownLatch done    = new CountDownLatch(16);
+		CountDownLatch release = this.block(scheduler);
+
+		for(int i=0;i<8;i++){
+			scheduler.execute("reports", new Task(order, "r", done));
+			scheduler.execute("checkout", new Task(order, "c", done));
+		}
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		int checkout = 0;
+		for(String value: order.subList(0, 8)){
+			if(value.equals("c")){
+				checkout++;
+			}
+		}
+
+		assertEquals(6, checkout);
+		scheduler.shutdown();
+	}
+
+	public void testCancelledTask() throws Exception{
+		PriorityScheduler scheduler = new PriorityScheduler("test", 1, PriorityScheduler.WEIGHTED, 10);
+
+		final CountDownLatch started = new CountDownLatch(1);
+
+		//a tarefa termina com a interrupção e mantém a thread interrompida.
+		FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>(){
+
+			public Object call() throws Exception {
+				started.countDown();
+				while(!Thread.currentThread().isInterrupted()){
+					Thread.yield();
+				}
+				return null;
+			}
+
+		});
+
+		scheduler.execute(null, task);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		task.cancel(true);
+
+		//aguarda a thread voltar à fila vazia.
+		Thread.sleep(100);
+
+		final AtomicBoolean interrupted = new AtomicBoolean();
+		final CountDownLatch done       = new CountDownLatch(1);
+
+		scheduler.execute(null, new Runnable(){
+
+			public void run() {
+				interrupted.set(Thread.currentThread().isInterrupted());
+				done.countDown();
+			}
+
+		});
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertFalse(interrupted.get());
+		scheduler.shutdown();
+	}
+
+	private CountDownLatch block(PriorityScheduler scheduler) throws InterruptedException{
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		scheduler.execute(null, new Runnable(){
+
+			public void run() {
+				started.countDown();
+				try{
+					release.await();
+				}
+				catch(InterruptedException e){
+				}
+			}
+
+		});
+
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return release;
+	}
+
+	private static class Task implements Runnable{
+
+		private final List<String> order;
+
+		private final String value;
+
+		private final CountDownLatch done;
+
+		public Task(List<String> order, String value){
+			this(order, value, null);
+		}
+
+		public Task(List<String> order, String value, CountDownLatch done){
+			this.order = order;
+			this.value = value;
+			this.done  = done;
+		}
+
+		public void run() {
+			if(this.order != null){
+				this.order.add(this.value);
+			}
+			if(this.done != null){
+				this.done.countDown();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+package org.brandao.brutos.web.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class StreamResultTest extends TestCase{
+
+	public void testIsStream() throws Exception{
+		List<String> list = Arrays.asList("a", "b");
+
+		assertTrue(StreamResult.isStream(list.iterator(), Object.class));
+		assertTrue(StreamResult.isStream(new Cursor(list), Iterable.class));
+		assertFalse(StreamResult.isStream(list, Iterable.class));
+		assertFalse(StreamResult.isStream("a", Object.class));
+		assertFalse(StreamResult.isStream(null, Object.class));
+	}
+
+	public void testIterableDeclaredAsOtherType() throws Throwable{
+		List<String> list = Arrays.asList("a", "b");
+
+		//um Iterable declarado com o seu próprio tipo mantém a codificação.
+		assertFalse(StreamResult.isStream(new Cursor(list), Cursor.class));
+		assertFalse(StreamResult.isStream(new Cursor(list), Object.class));
+		assertNull(StreamResult.iterator(new Cursor(list), Cursor.class));
+	}
+
+	public void testIterator() throws Throwable{
+		List<String> list = Arrays.asList("a", "b");
+
+		assertEquals(list, toList(StreamResult.iterator(list.iterator(), Object.class)));
+		assertEquals(list, toList(StreamResult.iterator(new Cursor(list), Iterable.class)));
+		assertNull(StreamResult.iterator(list, Iterable.class));
+	}
+
+	public void testBaseStream() throws Throwable{
+		Method method;
+
+		try{
+			method = List.class.getMethod("stream");
+		}
+		catch(NoSuchMethodException e){
+			return;
+		}
+
+		List<String> list = Arrays.asList("a", "b");
+		Object stream     = method.invoke(list);
+
+		assertTrue(StreamResult.isStream(stream, Object.class));
+		assertEquals(list, toList(StreamResult.iterator(stream, Object.class)));
+
+		StreamResult.close(stream, null);
+	}
+
+	public void testClose() throws Throwable{
+		Cursor cursor = new Cursor(Arrays.asList("a"));
+		Iterator<?> iterator = StreamResult.iterator(cursor, Iterable.class);
+
+		StreamResult.close(cursor, iterator);
+		assertTrue(cursor.closed);
+
+		StreamResult.close("a", null);
+	}
+
+	private static List<Object> toList(Iterator<?> iterator){
+		List<Object> result = new ArrayList<Object>();
+
+		while(iterator.hasNext()){
+			result.add(iterator.next());
+		}
+
+		return result;
+	}
+
+	private static class Cursor implements Iterable<String>, Closeable{
+
+		private final List<String> values;
+
+		public boolean closed;
+
+		public Cursor(List<String> values){
+			this.values = values;
+		}
+
+		public Iterator<String> iterator() {
+			return this.values.iterator();
+		}
+
+		public void close() throws IOException {
+			this.closed = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,190 @@
+package org.brandao.brutos.web.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+public class StripedLRUCacheTest extends TestCase{
+
+	public void testEvictionOrder() throws Exception{
+		StripedLRUCache<String, String> cache = 
+				new StripedLRUCache<String, String>(3, 1);
+
+		cache.put("/a", "a");
+		cache.put("/b", "b");
+		cache.put("/c", "c");
+		cache.put("/d", "d");
+
+		assertNull(cache.get("/a"));
+		assertEquals("b", cache.get("/b"));
+		assertEquals("c", cache.get("/c"));
+		assertEquals("d", cache.get("/d"));
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	public void testAccessOrder() throws Exception{
+		StripedLRUCache<String, String> cache = 
+				new StripedLRUCache<String, String>(3, 1);
+
+		cache.put("/a", "a");
+		cache.put("/b", "b");
+		cache.put("/c", "c");
+
+		//a consulta torna "/a" a entrada mais recente.
+		assertEquals("a", cache.get("/a"));
+
+		cache.put("/d", "d");
+
+		assertEquals("a", cache.get("/a"));
+		assertNull(cache.get("/b"));
+		assertEquals("c", cache.get("/c"));
+		assertEquals("d", cache.get("/d"));
+	}
+
+	public void testSegmentEviction() throws Exception{
+		//dois segmentos com duas entradas cada. Hashes pares ficam no 
+		//primeiro segmento e ímpares no segundo.
+		StripedLRUCache<Key, String> cache = 
+				new StripedLRUCache<Key, String>(4, 2);
+
+		cache.put(new Key(0), "0");
+		cache.put(new Key(2), "2");
+		cache.put(new Key(1), "1");
+		cache.put(new Key(3), "3");
+
+		assertEquals("0", cache.get(new Key(0)));
+
+		cache.put(new Key(4), "4");
+
+		//o descarte ocorre somente no segmento da nova entrada.
+		assertEquals("0", cache.get(new Key(0)));
+		assertNull(cache.get(new Key(2)));
+		assertEquals("4", cache.get(new Key(4)));
+		assertEquals("1", cache.get(new Key(1)));
+		assertEquals("3", cache.get(new Key(3)));
+		assertEquals(4, cache.size());
+	}
+
+	public void testCapacity() throws Exception{
+		int[][] values = new int[][]{{300, 16}, {10, 16}, {3, 2}, {1, 16}, {100, 7}};
+
+		for(int[] v: values){
+			StripedLRUCache<Integer, String> cache = 
+					new StripedLRUCache<Integer, String>(v[0], v[1]);
+
+			for(int i=0;i<v[0]*20;i++){
+				cache.put(Integer.valueOf(i), "v");
+			}
+
+			assertEquals(v[0] + "/" + v[1], v[0], cache.size());
+		}
+	}
+
+	public void testCapacityRemainder() throws Exception{
+		//dois segmentos. O primeiro recebe a entrada que sobra da divisão.
+		StripedLRUCache<Key, String> cache = 
+				new StripedLRUCache<Key, String>(5, 2);
+
+		for(int i=0;i<8;i++){
+			cache.put(new Key(i), String.valueOf(i));
+		}
+
+		//pares no primeiro segmento, ímpares no segundo.
+		assertNull(cache.get(new Key(0)));
+		assertEquals("2", cache.get(new Key(2)));
+		assertEquals("4", cache.get(new Key(4)));
+		assertEquals("6", cache.get(new Key(6)));
+		assertNull(cache.get(new Key(1)));
+		assertNull(cache.get(new Key(3)));
+		assertEquals("5", cache.get(new Key(5)));
+		assertEquals("7", cache.get(new Key(7)));
+		assertEquals(5, cache.size());
+	}
+
+	public void testHitRate() throws Exception{
+		StripedLRUCache<String, String> cache = 
+				new StripedLRUCache<String, String>(10);
+
+		cache.put("/a", "a");
+		cache.get("/a");
+		cache.get("/b");
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.5, cache.getHitRate(), 0.0);
+	}
+
+	public void testConcurrentAccess() throws Exception{
+		final int capacity = 64;
+		final StripedLRUCache<String, String> cache = 
+				new StripedLRUCache<String, String>(capacity, 8);
+
+		final CountDownLatch start         = new CountDownLatch(1);
+		final AtomicReference<String> error = new AtomicReference<String>();
+		List<Thread> threads               = new ArrayList<Thread>();
+
+		for(int t=0;t<8;t++){
+			final int seed = t;
+			Thread thread = new Thread(){
+
+				public void run(){
+					try{
+						start.await();
+
+						for(int i=0;i<20000;i++){
+							String key = "/" + ((i * 31 + seed) % 256);
+							String value = cache.get(key);
+
+							if(value == null){
+								cache.put(key, key);
+							}
+							else
+							if(!value.equals(key)){
+								error.set(key + " = " + value);
+							}
+						}
+					}
+					catch(Throwable e){
+						error.set(e.toString());
+					}
+				}
+
+			};
+			threads.add(thread);
+			thread.start();
+		}
+
+		start.countDown();
+
+		for(Thread thread: threads){
+			thread.join();
+		}
+
+		assertNull(error.get(), error.get());
+		assertTrue(cache.size() <= capacity);
+		assertEquals(8 * 20000, cache.getHitCount() + cache.getMissCount());
+	}
+
+	private static class Key{
+
+		private final int hash;
+
+		public Key(int hash){
+			this.hash = hash;
+		}
+
+		public int hashCode(){
+			return this.hash;
+		}
+
+		public boolean equals(Object o){
+			return o instanceof Key && ((Key)o).hash == this.hash;
+		}
+
+	}
+
+}